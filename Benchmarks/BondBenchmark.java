@@ -0,0 +1,85 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.PricingHandles.CLEAN_PRICE;
+import static benchmarks.PricingHandles.COUPON_DATES;
+import static benchmarks.PricingHandles.NEW_BOND;
+
+/** Bond hot paths on the R186 and R2032 examples from Main.
+ * Bond caches its valuation, so cleanPrice prices a newly constructed bond each time (the full valuation path) while
+ * cleanPriceCached measures repeated reads of an already valued bond. */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BondBenchmark {
+    @Param({"R186", "R2032"})
+    public String bond;
+
+    private LocalDate settlementDate;
+    private LocalDate maturityDate;
+    private LocalDate lastCouponDate;
+    private double couponRate;
+    private double yieldToMaturity;
+    private Object valuedBond;
+
+    @Setup
+    public void setUp() throws Throwable {
+        if (bond.equals("R186")) {
+            settlementDate = LocalDate.parse("2017-02-07");
+            maturityDate = LocalDate.parse("2026-12-21");
+            lastCouponDate = LocalDate.parse("2016-12-21");
+            couponRate = 0.105;
+            yieldToMaturity = 0.0875;
+        } else {
+            settlementDate = LocalDate.parse("2024-05-16");
+            maturityDate = LocalDate.parse("2032-03-31");
+            lastCouponDate = LocalDate.parse("2024-03-31");
+            couponRate = 0.0825;
+            yieldToMaturity = 0.095;
+        }
+        valuedBond = newBond();
+        //Run the valuation once so cleanPriceCached only reads the cached result
+        double cleanPrice = (double) CLEAN_PRICE.invokeExact(valuedBond);
+    }
+
+    private Object newBond() throws Throwable {
+        return (Object) NEW_BOND.invokeExact(settlementDate, maturityDate, lastCouponDate, couponRate, yieldToMaturity, 1_000_000.0, 365.0, 2);
+    }
+
+    @Benchmark
+    public double cleanPrice() throws Throwable {
+        return (double) CLEAN_PRICE.invokeExact(newBond());
+    }
+
+    @Benchmark
+    public double cleanPriceCached() throws Throwable {
+        return (double) CLEAN_PRICE.invokeExact(valuedBond);
+    }
+
+    @Benchmark
+    public void generateCouponDates(Blackhole blackhole) throws Throwable {
+        List<?> couponDates = (List<?>) COUPON_DATES.invokeExact(valuedBond);
+        for (Object couponDate : couponDates) {
+            blackhole.consume(couponDate);
+        }
+    }
+}
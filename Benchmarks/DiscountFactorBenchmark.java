@@ -0,0 +1,64 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.PricingHandles.CURRENT_DISCOUNT_FACTOR_TABLE;
+import static benchmarks.PricingHandles.DISCOUNT_FACTOR;
+import static benchmarks.PricingHandles.LOG_DISCOUNT_RATE;
+
+/** A discount factor read from the thread's DiscountFactorTable against the same factor computed with Math.exp.
+ * Each call takes the next (yield, day offset) pair of a grid of yields times 64 semi-annual cash-flow offsets out to 30 years.
+ * With 1 or 16 yields the whole grid fits in the default table and every lookup hits once warm; with 1024 yields the grid is
+ * four times the table, so most lookups miss, compute the exp anyway and overwrite an entry. */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscountFactorBenchmark {
+    @Param({"1", "16", "1024"})
+    public int yields;
+
+    private double[] logDiscountRates;
+    private int[] days;
+    private Object table;
+    private int next;
+
+    @Setup
+    public void setUp() throws Throwable {
+        logDiscountRates = new double[yields];
+        for (int i = 0; i < yields; i++) {
+            logDiscountRates[i] = (double) LOG_DISCOUNT_RATE.invokeExact(0.05 + 0.0001 * i, 2, 365.0);
+        }
+        days = new int[64];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = 45 + 171 * i;
+        }
+        table = (Object) CURRENT_DISCOUNT_FACTOR_TABLE.invokeExact();
+    }
+
+    @Benchmark
+    public double table() throws Throwable {
+        int i = next++;
+        return (double) DISCOUNT_FACTOR.invokeExact(table, logDiscountRates[(i >>> 6) % yields], days[i & 63]);
+    }
+
+    @Benchmark
+    public double exp() {
+        int i = next++;
+        return Math.exp(-days[i & 63] * logDiscountRates[(i >>> 6) % yields]);
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDate;
+import java.util.List;
+
+/** Method handles onto the pricing classes.
+ * Bond and YieldCurve live in the default package, which cannot be imported from a named package, and JMH refuses
+ * benchmarks in the default package. The handles are static final so the JIT constant-folds and inlines them,
+ * which keeps the calls as cheap as direct invocations in the measurements. */
+final class PricingHandles {
+    static final MethodHandle NEW_BOND;
+    static final MethodHandle CLEAN_PRICE;
+    static final MethodHandle COUPON_DATES;
+    static final MethodHandle NEW_YIELD_CURVE;
+    static final MethodHandle GET_RATE;
+    static final MethodHandle GET_RATE_BY_SIDE;
+    static final Object MID;
+    static final MethodHandle CURRENT_DISCOUNT_FACTOR_TABLE;
+    static final MethodHandle DISCOUNT_FACTOR;
+    static final MethodHandle LOG_DISCOUNT_RATE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> bond = Class.forName("Bond");
+            Class<?> yieldCurve = Class.forName("YieldCurve");
+            Class<?> rateSide = Class.forName("RateSide");
+            Class<?> discountFactorTable = Class.forName("DiscountFactorTable");
+            NEW_BOND = lookup.findConstructor(bond, MethodType.methodType(void.class, LocalDate.class, LocalDate.class,
+                            LocalDate.class, double.class, double.class, double.class, double.class, int.class))
+                    .asType(MethodType.methodType(Object.class, LocalDate.class, LocalDate.class,
+                            LocalDate.class, double.class, double.class, double.class, double.class, int.class));
+            CLEAN_PRICE = lookup.findVirtual(bond, "calculateCleanPrice", MethodType.methodType(double.class))
+                    .asType(MethodType.methodType(double.class, Object.class));
+            COUPON_DATES = lookup.findVirtual(bond, "generateCouponDates", MethodType.methodType(List.class))
+                    .asType(MethodType.methodType(List.class, Object.class));
+            NEW_YIELD_CURVE = lookup.findConstructor(yieldCurve, MethodType.methodType(void.class, String[].class, double[].class, double[].class))
+                    .asType(MethodType.methodType(Object.class, String[].class, double[].class, double[].class));
+            GET_RATE = lookup.findVirtual(yieldCurve, "getRate", MethodType.methodType(double.class, LocalDate.class, String.class))
+                    .asType(MethodType.methodType(double.class, Object.class, LocalDate.class, String.class));
+            GET_RATE_BY_SIDE = lookup.findVirtual(yieldCurve, "getRate", MethodType.methodType(double.class, LocalDate.class, rateSide))
+                    .asType(MethodType.methodType(double.class, Object.class, LocalDate.class, Object.class));
+            MID = rateSide.getField("MID").get(null);
+            CURRENT_DISCOUNT_FACTOR_TABLE = lookup.findStatic(discountFactorTable, "current", MethodType.methodType(discountFactorTable))
+                    .asType(MethodType.methodType(Object.class));
+            DISCOUNT_FACTOR = lookup.findVirtual(discountFactorTable, "discountFactor", MethodType.methodType(double.class, double.class, int.class))
+                    .asType(MethodType.methodType(double.class, Object.class, double.class, int.class));
+            LOG_DISCOUNT_RATE = lookup.findStatic(discountFactorTable, "logDiscountRate",
+                    MethodType.methodType(double.class, double.class, int.class, double.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private PricingHandles() {
+    }
+}
@@ -0,0 +1,87 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.PricingHandles.GET_RATE;
+import static benchmarks.PricingHandles.GET_RATE_BY_SIDE;
+import static benchmarks.PricingHandles.MID;
+import static benchmarks.PricingHandles.NEW_YIELD_CURVE;
+
+/** YieldCurve lookups (String and RateSide overloads) on each code path (exact pillar, interpolated, flat extrapolation) and construction,
+ * for curves of several sizes. Pillars are spaced 91 days apart from 2024-05-17 like the curve in Main. */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class YieldCurveBenchmark {
+    @Param({"9", "100", "1000"})
+    public int pillars;
+
+    @Param({"exact", "interpolated", "extrapolated"})
+    public String path;
+
+    private String[] dates;
+    private double[] bidRates;
+    private double[] askRates;
+    private Object yieldCurve;
+    private LocalDate[] queryDates;
+    private int next;
+
+    @Setup
+    public void setUp() throws Throwable {
+        LocalDate firstDate = LocalDate.parse("2024-05-17");
+        dates = new String[pillars];
+        bidRates = new double[pillars];
+        askRates = new double[pillars];
+        for (int i = 0; i < pillars; i++) {
+            dates[i] = firstDate.plusDays(91L * i).toString();
+            bidRates[i] = 4.5 + 0.01 * i;
+            askRates[i] = bidRates[i] + 0.05;
+        }
+        yieldCurve = (Object) NEW_YIELD_CURVE.invokeExact(dates, bidRates, askRates);
+
+        //A rotating set of query dates spread over the curve so the binary search does not always take the same path
+        queryDates = new LocalDate[64];
+        for (int i = 0; i < queryDates.length; i++) {
+            int pillar = (int) ((long) i * (pillars - 1) / queryDates.length);
+            LocalDate pillarDate = firstDate.plusDays(91L * pillar);
+            queryDates[i] = switch (path) {
+                case "exact" -> pillarDate;
+                case "interpolated" -> pillarDate.plusDays(45);
+                default -> firstDate.plusDays(91L * pillars + i);
+            };
+        }
+    }
+
+    @Benchmark
+    public double getRate() throws Throwable {
+        LocalDate date = queryDates[next++ & (queryDates.length - 1)];
+        return (double) GET_RATE.invokeExact(yieldCurve, date, "mid");
+    }
+
+    @Benchmark
+    public double getRateBySide() throws Throwable {
+        LocalDate date = queryDates[next++ & (queryDates.length - 1)];
+        return (double) GET_RATE_BY_SIDE.invokeExact(yieldCurve, date, MID);
+    }
+
+    @Benchmark
+    public Object construct() throws Throwable {
+        return (Object) NEW_YIELD_CURVE.invokeExact(dates, bidRates, askRates);
+    }
+}
@@ -0,0 +1,54 @@
+/** Price and yield sensitivities of a bond, produced together by Bond.calculateAnalytics() in a single pass over the cash flows.
+ * Durations are in years, convexity in years squared and DV01 is the Rand change in the all-in price for a one basis point move in yield. */
+public final class BondAnalytics {
+    private final double allInPrice;
+    private final double accruedInterest;
+    private final double macaulayDuration;
+    private final double modifiedDuration;
+    private final double convexity;
+    private final double dv01;
+
+    BondAnalytics(double allInPrice, double accruedInterest, double macaulayDuration,
+                  double modifiedDuration, double convexity, double dv01) {
+        this.allInPrice = allInPrice;
+        this.accruedInterest = accruedInterest;
+        this.macaulayDuration = macaulayDuration;
+        this.modifiedDuration = modifiedDuration;
+        this.convexity = convexity;
+        this.dv01 = dv01;
+    }
+
+    public double getAllInPrice() {
+        return allInPrice;
+    }
+
+    public double getCleanPrice() {
+        return allInPrice - accruedInterest;
+    }
+
+    public double getAccruedInterest() {
+        return accruedInterest;
+    }
+
+    public double getMacaulayDuration() {
+        return macaulayDuration;
+    }
+
+    public double getModifiedDuration() {
+        return modifiedDuration;
+    }
+
+    public double getConvexity() {
+        return convexity;
+    }
+
+    public double getDv01() {
+        return dv01;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BondAnalytics[allInPrice=%.6f, cleanPrice=%.6f, accruedInterest=%.6f, macaulayDuration=%.6f, modifiedDuration=%.6f, convexity=%.6f, dv01=%.6f]",
+                allInPrice, getCleanPrice(), accruedInterest, macaulayDuration, modifiedDuration, convexity, dv01);
+    }
+}
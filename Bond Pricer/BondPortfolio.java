@@ -0,0 +1,71 @@
+import java.time.LocalDate;
+
+/** Struct-of-arrays view of a book of bonds.
+ * Row i of every column describes one position, dates are held as epoch days (LocalDate.toEpochDay())
+ * so that batch pricing never has to create a LocalDate or a List per bond.
+ * Each row is validated with the same rules as the Bond constructor. */
+public class BondPortfolio {
+    final int[] settlementDates;
+    final int[] maturityDates;
+    final int[] lastCouponDates;
+    final double[] couponRates;
+    final double[] yieldsToMaturity;
+    final double[] nominalValues;
+
+    public BondPortfolio(int[] settlementDates, int[] maturityDates, int[] lastCouponDates,
+                         double[] couponRates, double[] yieldsToMaturity, double[] nominalValues) {
+        this(settlementDates, maturityDates, lastCouponDates, couponRates, yieldsToMaturity, nominalValues, true);
+    }
+
+    private BondPortfolio(int[] settlementDates, int[] maturityDates, int[] lastCouponDates,
+                          double[] couponRates, double[] yieldsToMaturity, double[] nominalValues, boolean validateRows) {
+        int size = settlementDates.length;
+        if (maturityDates.length != size || lastCouponDates.length != size || couponRates.length != size
+                || yieldsToMaturity.length != size || nominalValues.length != size) {
+            throw new IllegalArgumentException("All input arrays must have the same length.");
+        }
+        if (validateRows) {
+            for (int i = 0; i < size; i++) {
+                validate(settlementDates[i], maturityDates[i], lastCouponDates[i], couponRates[i], yieldsToMaturity[i], nominalValues[i]);
+            }
+        }
+        this.settlementDates = settlementDates;
+        this.maturityDates = maturityDates;
+        this.lastCouponDates = lastCouponDates;
+        this.couponRates = couponRates;
+        this.yieldsToMaturity = yieldsToMaturity;
+        this.nominalValues = nominalValues;
+    }
+
+    /* Function Objective: Portfolio of rows the caller has already passed through validate() one by one as it read them,
+     * so ingest paths such as PositionFilePricer validate each row once instead of again for the whole batch */
+    static BondPortfolio ofValidatedRows(int[] settlementDates, int[] maturityDates, int[] lastCouponDates,
+                                         double[] couponRates, double[] yieldsToMaturity, double[] nominalValues) {
+        return new BondPortfolio(settlementDates, maturityDates, lastCouponDates, couponRates, yieldsToMaturity, nominalValues, false);
+    }
+
+    /** Applies the Bond constructor rules to a single row */
+    static void validate(int settlementDate, int maturityDate, int lastCouponDate,
+                         double couponRate, double yieldToMaturity, double nominalValue) {
+        if (!Double.isFinite(couponRate) || !Double.isFinite(yieldToMaturity) || !Double.isFinite(nominalValue)) {
+            throw new IllegalArgumentException("Coupon rate, yield, and face value must be finite numbers.");
+        }
+        if (couponRate < 0 || yieldToMaturity < 0 || nominalValue < 0) {
+            throw new IllegalArgumentException("Coupon rate, yield, and face value must be non-negative.");
+        }
+        if (settlementDate >= maturityDate) {
+            throw new IllegalArgumentException("Settlement date must be before maturity date.");
+        }
+        if (lastCouponDate > settlementDate) {
+            throw new IllegalArgumentException("Last coupon date must be on or before settlement date.");
+        }
+    }
+
+    public int size() {
+        return settlementDates.length;
+    }
+
+    public LocalDate getMaturityDate(int row) {
+        return LocalDate.ofEpochDay(maturityDates[row]);
+    }
+}
@@ -0,0 +1,100 @@
+/** Forward-only cursor over the cash flows of one bond, generated one at a time as next() is called.
+ * Coupons come first in date order, stepped from the last coupon date with EpochDays, and the nominal at maturity comes last.
+ * Each flow is read through primitive getters: its epoch day, its day count from settlement (the DiscountFactorTable key),
+ * its amount and its discount exponent (year fraction * coupon frequency). A horizon stops the cursor at the first flow paid
+ * after it, so partial-horizon queries such as the PV of the next 12 months never generate the rest of the schedule.
+ * A cursor is reset for every bond instead of being created, so walking a whole book allocates nothing. A cursor is not
+ * thread-safe - each pricing call or thread uses its own. */
+public final class CashFlowCursor {
+    private final DayCount dayCount;
+    private final int couponFrequency;
+    private final int monthsBetweenCoupons;
+
+    private int settlementDate;
+    private int maturityDate;
+    private int horizonDate;
+    private double couponPayment;
+    private double nominalValue;
+    //Date of the next coupon to hand out, past maturityDate once the coupons are done
+    private int nextCouponDate;
+    private boolean principalPaid;
+
+    private int date;
+    private int days;
+    private double amount;
+    private boolean principal;
+
+    public CashFlowCursor(DayCount dayCount, int couponFrequency) {
+        this.dayCount = dayCount;
+        this.couponFrequency = couponFrequency;
+        this.monthsBetweenCoupons = CouponSchedule.monthsBetweenCoupons(couponFrequency);
+    }
+
+    /** Function Objective: Start over on the cash flows of a bond, all of them up to maturity */
+    public CashFlowCursor reset(int settlementDate, int maturityDate, int lastCouponDate, double couponRate, double nominalValue) {
+        return reset(settlementDate, maturityDate, lastCouponDate, couponRate, nominalValue, maturityDate);
+    }
+
+    /** Function Objective: Start over on the cash flows of a bond paid on or before horizonDate (epoch days)
+     * Each coupon is equal to the Coupon Rate divided by the coupon frequency multiplied by the nominal of the bond */
+    public CashFlowCursor reset(int settlementDate, int maturityDate, int lastCouponDate, double couponRate, double nominalValue,
+                                int horizonDate) {
+        this.settlementDate = settlementDate;
+        this.maturityDate = maturityDate;
+        this.horizonDate = horizonDate;
+        this.couponPayment = (couponRate / couponFrequency) * nominalValue;
+        this.nominalValue = nominalValue;
+        this.nextCouponDate = EpochDays.plusMonths(lastCouponDate, monthsBetweenCoupons);
+        this.principalPaid = false;
+        return this;
+    }
+
+    /** Function Objective: Move to the next cash flow, returning false once every flow up to the horizon has been read
+     * The cursor stops at the first flow after the horizon without generating anything beyond it */
+    public boolean next() {
+        if (nextCouponDate <= maturityDate) {
+            if (nextCouponDate > horizonDate) {
+                return false;
+            }
+            date = nextCouponDate;
+            amount = couponPayment;
+            principal = false;
+            nextCouponDate = EpochDays.plusMonths(nextCouponDate, monthsBetweenCoupons);
+        } else {
+            if (principalPaid || maturityDate > horizonDate) {
+                return false;
+            }
+            date = maturityDate;
+            amount = nominalValue;
+            principal = true;
+            principalPaid = true;
+        }
+        days = dayCount.count(settlementDate, date);
+        return true;
+    }
+
+    //Epoch day the current flow is paid on
+    public int date() {
+        return date;
+    }
+
+    //Day count from settlement to the current flow, the key of its discount factor in the DiscountFactorTable
+    public int days() {
+        return days;
+    }
+
+    public double amount() {
+        return amount;
+    }
+
+    //Discount exponent of the current flow - the number of coupon periods between settlement and its date
+    public double exponent() {
+        //The same count / basis as DayCount.yearFraction, from the count next() already made
+        return (double) days / dayCount.basis() * couponFrequency;
+    }
+
+    //True for the nominal repaid at maturity, false for a coupon
+    public boolean isPrincipal() {
+        return principal;
+    }
+}
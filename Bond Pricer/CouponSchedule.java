@@ -0,0 +1,61 @@
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/** Immutable coupon schedule held as a compact array of epoch days.
+ * Instances are interned by CouponScheduleRegistry so every bond of the same line shares one schedule. */
+public final class CouponSchedule {
+    private final int[] couponDates;
+    //Coupon dates followed by the maturity date - the sorted dates a curve is asked for when discounting every cash flow
+    private final int[] cashFlowDates;
+    private final List<LocalDate> dateView;
+
+    CouponSchedule(int[] couponDates, int maturityDate) {
+        this.couponDates = couponDates;
+        this.cashFlowDates = Arrays.copyOf(couponDates, couponDates.length + 1);
+        this.cashFlowDates[couponDates.length] = maturityDate;
+        this.dateView = new DateView();
+    }
+
+    /** Function Objective: Months between the coupons of a bond paying couponFrequency coupons a year
+     * 1 is annual, 2 semi-annual (SAGBs), 4 quarterly and 12 monthly - the frequency must split a year into whole months */
+    public static int monthsBetweenCoupons(int couponFrequency) {
+        if (couponFrequency <= 0 || 12 % couponFrequency != 0) {
+            throw new IllegalArgumentException("Coupon frequency must be 1, 2, 3, 4, 6 or 12 payments a year.");
+        }
+        return 12 / couponFrequency;
+    }
+
+    public int size() {
+        return couponDates.length;
+    }
+
+    //Returns the epoch day of the coupon at the given index
+    public int couponDate(int index) {
+        return couponDates[index];
+    }
+
+    //Shared array, callers must not modify it
+    int[] cashFlowDates() {
+        return cashFlowDates;
+    }
+
+    //Read-only List<LocalDate> view of the schedule, dates are only created when an element is read
+    public List<LocalDate> asLocalDates() {
+        return dateView;
+    }
+
+    private final class DateView extends AbstractList<LocalDate> implements RandomAccess {
+        @Override
+        public LocalDate get(int index) {
+            return LocalDate.ofEpochDay(couponDates[index]);
+        }
+
+        @Override
+        public int size() {
+            return couponDates.length;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Process-wide store of coupon schedules.
+ * Each distinct (last coupon date, maturity date, months between coupons) schedule is generated once and the same
+ * CouponSchedule instance is handed to every bond that asks for it. The least recently used schedules are evicted
+ * once the capacity is reached so long-running pricing services do not grow without limit. */
+public final class CouponScheduleRegistry {
+    private static final CouponScheduleRegistry SHARED =
+            new CouponScheduleRegistry(Integer.getInteger("bond.scheduleRegistry.capacity", 4096));
+
+    private final Map<Key, CouponSchedule> schedules;
+    private long hits;
+    private long misses;
+
+    public CouponScheduleRegistry(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        //Access-ordered LinkedHashMap gives LRU iteration order, the eldest entry is dropped once the capacity is exceeded
+        this.schedules = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CouponSchedule> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static CouponScheduleRegistry shared() {
+        return SHARED;
+    }
+
+    /**Function Objective: Return the interned schedule of coupon dates after lastCouponDate up to and including maturityDate
+     * Dates are epoch days and coupons are monthsBetweenCoupons apart */
+    public synchronized CouponSchedule schedule(int lastCouponDate, int maturityDate, int monthsBetweenCoupons) {
+        Key key = new Key(lastCouponDate, maturityDate, monthsBetweenCoupons);
+        CouponSchedule schedule = schedules.get(key);
+        if (schedule != null) {
+            hits++;
+            return schedule;
+        }
+        misses++;
+        schedule = generate(lastCouponDate, maturityDate, monthsBetweenCoupons);
+        schedules.put(key, schedule);
+        return schedule;
+    }
+
+    //The loop is to ensure no coupon dates are generated post the maturity date of the bond
+    private static CouponSchedule generate(int lastCouponDate, int maturityDate, int monthsBetweenCoupons) {
+        int[] couponDates = new int[8];
+        int count = 0;
+        int nextCouponDate = EpochDays.plusMonths(lastCouponDate, monthsBetweenCoupons);
+        while (nextCouponDate <= maturityDate) {
+            if (count == couponDates.length) {
+                couponDates = Arrays.copyOf(couponDates, count * 2);
+            }
+            couponDates[count++] = nextCouponDate;
+            nextCouponDate = EpochDays.plusMonths(nextCouponDate, monthsBetweenCoupons);
+        }
+        return new CouponSchedule(Arrays.copyOf(couponDates, count), maturityDate);
+    }
+
+    public synchronized int size() {
+        return schedules.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private record Key(int lastCouponDate, int maturityDate, int monthsBetweenCoupons) {
+    }
+}
@@ -1,3 +1,5 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
@@ -5,6 +7,21 @@ import java.util.Scanner;
 
 public class Main {
     public static void main(String[] args) {
+        //Server mode: java Main --serve <port> answers pricing requests on localhost until the process is stopped
+        if (args.length == 2 && args[0].equals("--serve")) {
+            serve(Integer.parseInt(args[1]));
+            return;
+        }
+        //Load mode: java Main --load <port> [connections] drives a running server at 1k to 100k requests per second
+        if ((args.length == 2 || args.length == 3) && args[0].equals("--load")) {
+            load(Integer.parseInt(args[1]), args.length == 3 ? Integer.parseInt(args[2]) : 16);
+            return;
+        }
+        //Batch mode: java Main <positions file> <output file> prices every position in the file instead of asking for one bond
+        if (args.length == 2) {
+            priceFile(Path.of(args[0]), Path.of(args[1]));
+            return;
+        }
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         try (Scanner scanner = new Scanner(System.in)) {
 
@@ -79,4 +96,60 @@ public class Main {
             System.out.printf("The All-in-Price of the SAGB with a nominal of R" + nominalValueFormatted + " is equal to R" + allInPriceFormatted + "\n");
         }
     }
+
+    private static void priceFile(Path input, Path output) {
+        double dayCountConvention = 365; // SAGB Day Count Convention = Actual/365
+        int couponFrequency = 2; // SAGB coupons are paid semiannually
+        try {
+            PositionFileSummary summary = new PositionFilePricer(dayCountConvention, couponFrequency).price(input, output);
+            System.out.println(summary);
+            for (String rejection : summary.getRejections()) {
+                System.out.println(rejection);
+            }
+            if (PricingMetrics.ENABLED) {
+                System.out.print(PricingMetrics.shared().dump());
+            }
+        } catch (IOException e) {
+            System.out.println("Could not price the positions file: " + e.getMessage());
+        }
+    }
+
+    private static void serve(int port) {
+        try {
+            PricingServer server = PricingServer.start(port, exampleCurve());
+            System.out.println("Pricing server listening on localhost:" + server.getPort());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    System.out.println("Could not close the pricing server: " + e.getMessage());
+                }
+            }));
+            Thread.currentThread().join();
+        } catch (IOException e) {
+            System.out.println("Could not start the pricing server: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void load(int port, int connections) {
+        PricingLoadGenerator generator = new PricingLoadGenerator(port, connections);
+        try {
+            //Unreported warm-up, so the JIT has compiled both the server and the generator before the first measurement
+            generator.run(10_000, 5_000);
+            for (int rate : new int[]{1_000, 10_000, 50_000, 100_000}) {
+                System.out.println(generator.run(rate, 10_000));
+            }
+        } catch (IOException e) {
+            System.out.println("Could not reach the pricing server: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Zero curve bootstrapped from the example SAGB strip, served by the pricing server
+    private static DiscountCurve exampleCurve() {
+        return new ZeroCurveBootstrapper(PricingServer.exampleStrip());
+    }
 }
@@ -0,0 +1,206 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** Revalues a BondPortfolio in parallel on a ForkJoinPool.
+ * The portfolio is cut into fixed chunks of CHUNK_SIZE rows. Fork-join tasks price the chunks with BondBatchPricer and
+ * sum each chunk in row order into its own slot, and the chunk sums are then added up in chunk order on the calling thread.
+ * The chunks do not depend on how many threads run them, so the totals are bit-identical to the sequential path on any
+ * number of cores - floating-point addition is not associative, so a work-stealing reduction order would not be. */
+public class PortfolioRevaluer {
+    static final int CHUNK_SIZE = 1024;
+    //Default maturity buckets in years: 0-1, 1-3, 3-5, 5-7, 7-10, 10-20 and 20+
+    private static final double[] DEFAULT_BUCKET_LIMITS = {1, 3, 5, 7, 10, 20};
+    //Sums kept per chunk and per bucket: clean price, accrued interest and all-in price
+    private static final int SUMS = 3;
+
+    private final BondBatchPricer pricer;
+    private final ForkJoinPool pool;
+    private final double[] bucketLimits;
+    private final DayCount dayCount;
+
+    public PortfolioRevaluer(double dayCountConvention, int couponFrequency) {
+        this(DayCount.actual(dayCountConvention), couponFrequency, ForkJoinPool.commonPool(), DEFAULT_BUCKET_LIMITS);
+    }
+
+    public PortfolioRevaluer(double dayCountConvention, int couponFrequency, ForkJoinPool pool, double[] bucketLimits) {
+        this(DayCount.actual(dayCountConvention), couponFrequency, pool, bucketLimits);
+    }
+
+    /** Function Objective: Revaluer running on the given pool, with maturity buckets split at the given limits in years
+     * measured under the day count convention of the portfolio */
+    public PortfolioRevaluer(DayCount dayCount, int couponFrequency, ForkJoinPool pool, double[] bucketLimits) {
+        for (int i = 0; i < bucketLimits.length; i++) {
+            if (!(bucketLimits[i] > 0) || (i > 0 && bucketLimits[i] <= bucketLimits[i - 1])) {
+                throw new IllegalArgumentException("Bucket limits must be positive and in ascending order.");
+            }
+        }
+        this.pricer = new BondBatchPricer(dayCount, couponFrequency);
+        this.pool = pool;
+        this.bucketLimits = bucketLimits.clone();
+        this.dayCount = dayCount;
+    }
+
+    /** Function Objective: Revalue the portfolio in parallel */
+    public PortfolioRevaluation revalue(BondPortfolio portfolio) {
+        return revalue(portfolio, true);
+    }
+
+    /** Function Objective: Revalue the portfolio on the calling thread, with the same chunks and therefore the same results */
+    public PortfolioRevaluation revalueSequential(BondPortfolio portfolio) {
+        return revalue(portfolio, false);
+    }
+
+    /** Function Objective: Measured speedup of the parallel path over the sequential path
+     * Each path is run the given number of rounds (the first rounds also warm up the JIT) and the fastest times are compared.
+     * An IllegalStateException is thrown if the two paths ever disagree on a total */
+    public double measureSpeedup(BondPortfolio portfolio, int rounds) {
+        if (rounds <= 0) {
+            throw new IllegalArgumentException("Rounds must be positive.");
+        }
+        long sequentialNanos = Long.MAX_VALUE;
+        long parallelNanos = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            PortfolioRevaluation sequential = revalueSequential(portfolio);
+            PortfolioRevaluation parallel = revalue(portfolio);
+            if (Double.doubleToLongBits(sequential.getTotalAllInPrice()) != Double.doubleToLongBits(parallel.getTotalAllInPrice())
+                    || Double.doubleToLongBits(sequential.getTotalCleanPrice()) != Double.doubleToLongBits(parallel.getTotalCleanPrice())) {
+                throw new IllegalStateException("Parallel and sequential revaluations differ.");
+            }
+            sequentialNanos = Math.min(sequentialNanos, sequential.getElapsedNanos());
+            parallelNanos = Math.min(parallelNanos, parallel.getElapsedNanos());
+        }
+        return (double) sequentialNanos / Math.max(1, parallelNanos);
+    }
+
+    private PortfolioRevaluation revalue(BondPortfolio portfolio, boolean parallel) {
+        long start = System.nanoTime();
+        int size = portfolio.size();
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int buckets = bucketLimits.length + 1;
+        //Bucket limits as whole day counts to maturity, so assigning a row to a bucket is an integer comparison
+        int[] bucketLimitDays = new int[bucketLimits.length];
+        for (int b = 0; b < bucketLimits.length; b++) {
+            bucketLimitDays[b] = (int) Math.ceil(bucketLimits[b] * dayCount.basis());
+        }
+
+        double[] cleanPrices = new double[size];
+        double[] accruedInterest = new double[size];
+        double[] allInPrices = new double[size];
+        int[] rowBuckets = new int[size];
+        //Every chunk writes only to its own rows and its own slots, so the tasks share nothing
+        double[] chunkSums = new double[chunks * SUMS];
+        double[] chunkBucketSums = new double[chunks * buckets * SUMS];
+
+        ChunkTask task = new ChunkTask(portfolio, 0, chunks, parallel, bucketLimitDays, cleanPrices, accruedInterest, allInPrices,
+                rowBuckets, chunkSums, chunkBucketSums);
+        if (parallel) {
+            pool.invoke(task);
+        } else {
+            task.compute();
+        }
+
+        //Deterministic reduction - chunk by chunk in a fixed order
+        double totalClean = 0.0;
+        double totalAccrued = 0.0;
+        double totalAllIn = 0.0;
+        double[] bucketClean = new double[buckets];
+        double[] bucketAccrued = new double[buckets];
+        double[] bucketAllIn = new double[buckets];
+        for (int c = 0; c < chunks; c++) {
+            totalClean += chunkSums[c * SUMS];
+            totalAccrued += chunkSums[c * SUMS + 1];
+            totalAllIn += chunkSums[c * SUMS + 2];
+            for (int b = 0; b < buckets; b++) {
+                int slot = (c * buckets + b) * SUMS;
+                bucketClean[b] += chunkBucketSums[slot];
+                bucketAccrued[b] += chunkBucketSums[slot + 1];
+                bucketAllIn[b] += chunkBucketSums[slot + 2];
+            }
+        }
+        int[] bucketCounts = new int[buckets];
+        for (int bucket : rowBuckets) {
+            bucketCounts[bucket]++;
+        }
+        return new PortfolioRevaluation(cleanPrices, accruedInterest, allInPrices, totalClean, totalAccrued, totalAllIn,
+                bucketLimits.clone(), bucketCounts, bucketClean, bucketAccrued, bucketAllIn, System.nanoTime() - start);
+    }
+
+    //Prices and sums the chunks from (inclusive) to to (exclusive), splitting in half until a single chunk is left
+    private final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BondPortfolio portfolio;
+        private final int fromChunk;
+        private final int toChunk;
+        private final boolean parallel;
+        private final int[] bucketLimitDays;
+        private final double[] cleanPrices;
+        private final double[] accruedInterest;
+        private final double[] allInPrices;
+        private final int[] rowBuckets;
+        private final double[] chunkSums;
+        private final double[] chunkBucketSums;
+
+        ChunkTask(BondPortfolio portfolio, int fromChunk, int toChunk, boolean parallel, int[] bucketLimitDays,
+                  double[] cleanPrices, double[] accruedInterest, double[] allInPrices,
+                  int[] rowBuckets, double[] chunkSums, double[] chunkBucketSums) {
+            this.portfolio = portfolio;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.parallel = parallel;
+            this.bucketLimitDays = bucketLimitDays;
+            this.cleanPrices = cleanPrices;
+            this.accruedInterest = accruedInterest;
+            this.allInPrices = allInPrices;
+            this.rowBuckets = rowBuckets;
+            this.chunkSums = chunkSums;
+            this.chunkBucketSums = chunkBucketSums;
+        }
+
+        @Override
+        protected void compute() {
+            if (parallel && toChunk - fromChunk > 1) {
+                int middle = (fromChunk + toChunk) >>> 1;
+                invokeAll(split(fromChunk, middle), split(middle, toChunk));
+                return;
+            }
+            for (int chunk = fromChunk; chunk < toChunk; chunk++) {
+                priceChunk(chunk);
+            }
+        }
+
+        private ChunkTask split(int from, int to) {
+            return new ChunkTask(portfolio, from, to, true, bucketLimitDays, cleanPrices, accruedInterest, allInPrices,
+                    rowBuckets, chunkSums, chunkBucketSums);
+        }
+
+        private void priceChunk(int chunk) {
+            int from = chunk * CHUNK_SIZE;
+            int to = Math.min(from + CHUNK_SIZE, portfolio.size());
+            pricer.price(portfolio, from, to, cleanPrices, accruedInterest, allInPrices);
+
+            int buckets = bucketLimitDays.length + 1;
+            double clean = 0.0;
+            double accrued = 0.0;
+            double allIn = 0.0;
+            for (int i = from; i < to; i++) {
+                int daysToMaturity = dayCount.count(portfolio.settlementDates[i], portfolio.maturityDates[i]);
+                int bucket = 0;
+                while (bucket < bucketLimitDays.length && daysToMaturity >= bucketLimitDays[bucket]) {
+                    bucket++;
+                }
+                rowBuckets[i] = bucket;
+                clean += cleanPrices[i];
+                accrued += accruedInterest[i];
+                allIn += allInPrices[i];
+                int slot = (chunk * buckets + bucket) * SUMS;
+                chunkBucketSums[slot] += cleanPrices[i];
+                chunkBucketSums[slot + 1] += accruedInterest[i];
+                chunkBucketSums[slot + 2] += allInPrices[i];
+            }
+            chunkSums[chunk * SUMS] = clean;
+            chunkSums[chunk * SUMS + 1] = accrued;
+            chunkSums[chunk * SUMS + 2] = allIn;
+        }
+    }
+}
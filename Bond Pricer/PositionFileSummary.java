@@ -0,0 +1,47 @@
+import java.util.List;
+
+/** Outcome of a PositionFilePricer run: how many position lines were read, priced and rejected, the reasons for the first
+ * rejections and the total wall-clock time. */
+public final class PositionFileSummary {
+    private final long linesRead;
+    private final long rowsPriced;
+    private final long rowsRejected;
+    private final List<String> rejections;
+    private final long elapsedNanos;
+
+    PositionFileSummary(long linesRead, long rowsPriced, long rowsRejected, List<String> rejections, long elapsedNanos) {
+        this.linesRead = linesRead;
+        this.rowsPriced = rowsPriced;
+        this.rowsRejected = rowsRejected;
+        this.rejections = List.copyOf(rejections);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    //Position lines read, not counting the header and blank lines
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public long getRowsPriced() {
+        return rowsPriced;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    //Reasons for the first rejected lines, each starting with the line number
+    public List<String> getRejections() {
+        return rejections;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Read %d positions, priced %d and rejected %d in %.3f seconds",
+                linesRead, rowsPriced, rowsRejected, elapsedNanos / 1e9);
+    }
+}
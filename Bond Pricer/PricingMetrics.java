@@ -0,0 +1,250 @@
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/** Counters and a latency histogram for bond valuation, exposed through JMX (pricing:type=BondValuation) and as plain text.
+ * Metrics are switched on with -Dpricing.metrics=true. ENABLED is a static final constant, so when it is off the JIT removes
+ * every recording call from Bond and BondBatchPricer and pricing costs exactly what it did without metrics.
+ * The schedule cache hit rate is read from the shared CouponScheduleRegistry, which counts its hits and misses anyway. */
+public final class PricingMetrics implements PricingMetricsMXBean {
+    public static final boolean ENABLED = Boolean.getBoolean("pricing.metrics");
+    private static final PricingMetrics SHARED = new PricingMetrics(CouponScheduleRegistry.shared());
+
+    static {
+        if (ENABLED) {
+            SHARED.register("pricing:type=BondValuation");
+        }
+    }
+
+    private final CouponScheduleRegistry registry;
+    private final LongAdder cachedValuations = new LongAdder();
+    private final LongAdder batchRows = new LongAdder();
+    private final LatencyHistogram valuationLatency = new LatencyHistogram();
+
+    PricingMetrics(CouponScheduleRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static PricingMetrics shared() {
+        return SHARED;
+    }
+
+    //Registers these metrics with the platform MBean server under the given name
+    void register(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(name));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the pricing metrics as " + name + ".", e);
+        }
+    }
+
+    //A full valuation of a Bond and the nanoseconds it took
+    void valuation(long nanos) {
+        valuationLatency.record(nanos);
+    }
+
+    //A price read from a Bond's cached valuation
+    void cachedValuation() {
+        cachedValuations.increment();
+    }
+
+    void batchRows(int rows) {
+        batchRows.add(rows);
+    }
+
+    @Override
+    public long getValuations() {
+        return valuationLatency.count();
+    }
+
+    @Override
+    public long getCachedValuations() {
+        return cachedValuations.sum();
+    }
+
+    @Override
+    public long getBatchRowsPriced() {
+        return batchRows.sum();
+    }
+
+    @Override
+    public long getScheduleCacheHits() {
+        return registry.getHits();
+    }
+
+    @Override
+    public long getScheduleCacheMisses() {
+        return registry.getMisses();
+    }
+
+    @Override
+    public double getScheduleCacheHitRate() {
+        long hits = registry.getHits();
+        long lookups = hits + registry.getMisses();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public long getValuationLatencyP50Nanos() {
+        return valuationLatency.percentile(50);
+    }
+
+    @Override
+    public long getValuationLatencyP99Nanos() {
+        return valuationLatency.percentile(99);
+    }
+
+    @Override
+    public long getValuationLatencyP999Nanos() {
+        return valuationLatency.percentile(99.9);
+    }
+
+    @Override
+    public long getValuationLatencyMaxNanos() {
+        return valuationLatency.max();
+    }
+
+    @Override
+    public String getSummary() {
+        return dump();
+    }
+
+    //Clears the counters and the histogram - the schedule cache counts belong to the registry and are kept
+    @Override
+    public void reset() {
+        cachedValuations.reset();
+        batchRows.reset();
+        valuationLatency.reset();
+    }
+
+    /** Function Objective: Plain text dump of every metric */
+    public String dump() {
+        return String.format(Locale.US, "Bond valuation (metrics %s)%n"
+                        + "  valuations %d, cached reads %d, batch rows priced %d%n"
+                        + "  schedule cache: hits %d, misses %d, hit rate %.4f%n"
+                        + "  valuation latency: p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns%n",
+                ENABLED ? "on" : "off", getValuations(), getCachedValuations(), getBatchRowsPriced(),
+                getScheduleCacheHits(), getScheduleCacheMisses(), getScheduleCacheHitRate(),
+                getValuationLatencyP50Nanos(), getValuationLatencyP99Nanos(), getValuationLatencyP999Nanos(),
+                getValuationLatencyMaxNanos());
+    }
+
+    @Override
+    public String toString() {
+        return dump();
+    }
+
+    /** HdrHistogram-style log-linear histogram of latencies in nanoseconds with a fixed footprint.
+     * Values below 2^SUB_BUCKET_BITS get a bucket each; above that every power of two is split into 2^SUB_BUCKET_BITS equal
+     * buckets, so a recorded value is off by at most 1/32 (about 3%). Values above 2^MAX_EXPONENT ns (about 18 minutes) are clamped.
+     * Counts are striped by thread and merged when read, so valuations on many threads do not contend on one array.
+     * The curve module keeps its own copy in CurveMetrics, as the benchmark build compiles both modules together. */
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int MAX_EXPONENT = 40;
+        private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+        private static final int BUCKETS = bucket(MAX_VALUE) + 1;
+        //A power of two, so a thread picks its stripe with a mask
+        private static final int STRIPES = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2, 16);
+
+        //Each thread records into the stripe its id hashes to, so concurrent threads rarely touch the same counts;
+        //readers merge the stripes. The number of values recorded is the sum of the buckets, so there is no separate count
+        private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+        private final AtomicLong max = new AtomicLong();
+
+        LatencyHistogram() {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new AtomicLongArray(BUCKETS);
+            }
+        }
+
+        void record(long nanos) {
+            long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+            stripes[stripe(Thread.currentThread().getId())].incrementAndGet(bucket(value));
+            //Only a new maximum writes, so the common case is a single volatile read
+            if (value > max.get()) {
+                max.accumulateAndGet(value, Math::max);
+            }
+        }
+
+        //Fibonacci hashing spreads consecutive thread ids over the stripes
+        private static int stripe(long threadId) {
+            return (int) ((threadId * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+        }
+
+        static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+        }
+
+        //Highest value that falls into the bucket, as HdrHistogram reports percentiles
+        static long highestValue(int bucket) {
+            if (bucket < 2 * SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+            long sub = bucket - ((long) shift << SUB_BUCKET_BITS);
+            return ((sub + 1) << shift) - 1;
+        }
+
+        //Count of the bucket summed over the stripes
+        private long count(int bucket) {
+            long n = 0;
+            for (AtomicLongArray stripe : stripes) {
+                n += stripe.get(bucket);
+            }
+            return n;
+        }
+
+        long count() {
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                n += count(i);
+            }
+            return n;
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        //Smallest bucket value at or below which the given percentage of the recorded values lie, 0 when nothing is recorded
+        long percentile(double percent) {
+            long[] counts = new long[BUCKETS];
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = count(i);
+                n += counts[i];
+            }
+            if (n == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(percent / 100 * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(highestValue(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for (AtomicLongArray stripe : stripes) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    stripe.set(i, 0);
+                }
+            }
+            max.set(0);
+        }
+    }
+}
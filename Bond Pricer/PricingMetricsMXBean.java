@@ -0,0 +1,26 @@
+/** Attributes and operations of PricingMetrics shown in JMX consoles */
+public interface PricingMetricsMXBean {
+    long getValuations();
+
+    long getCachedValuations();
+
+    long getBatchRowsPriced();
+
+    long getScheduleCacheHits();
+
+    long getScheduleCacheMisses();
+
+    double getScheduleCacheHitRate();
+
+    long getValuationLatencyP50Nanos();
+
+    long getValuationLatencyP99Nanos();
+
+    long getValuationLatencyP999Nanos();
+
+    long getValuationLatencyMaxNanos();
+
+    String getSummary();
+
+    void reset();
+}
@@ -0,0 +1,514 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/** Long-running pricing service on localhost, answering one request per line over plain TCP.
+ * Requests (responses are "OK ..." or "ERROR reason", one line per request, in request order):
+ *   PRICE settlement,maturity,lastCoupon,couponRate,yield,nominal - a position as in a positions file, answered with
+ *                                                                     clean price,accrued interest,all-in price
+ *   CURVE settlement,maturity,lastCoupon,couponRate,nominal       - the same prices, discounted off the server's curve
+ *   RATE yyyy-MM-dd                                                - the curve rate in percent for the date
+ * Numbers are written to 4 decimal places, as in batch mode. Requests and responses are parsed and written straight from
+ * byte buffers, and a connection flushes its responses only once it has answered every request it has read, so a client
+ * may pipeline requests.
+ * Each connection is served on its own virtual thread when the runtime has them (Java 21 and later) and on a pooled
+ * platform thread otherwise, so the connection code is plain blocking I/O either way.
+ * PRICE requests are priced on the connection's thread with a non-caching discount factor table and a cursor of its own,
+ * so a short-lived connection thread never builds a thread-local DiscountFactorTable.
+ * CURVE and RATE requests from all connections are queued to one batching thread. It drains whatever has queued up and
+ * takes one frozen snapshot of the curve for the whole batch (a ZeroCurveBootstrapper is solved once and copied), looks up
+ * the RATE dates of the batch in a single sorted getRates call and prices the CURVE requests off the same snapshot, so
+ * every request of a batch sees the same curve even while quotes tick or setCurve publishes a new one.
+ * Connection and accept failures are reported on standard error. */
+public class PricingServer implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_LINE = 256;
+    private static final int MAX_BATCH = 1024;
+    private static final int FIELDS = 6;
+    private static final byte[] OK = "OK ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERROR = "ERROR ".getBytes(StandardCharsets.US_ASCII);
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Thread acceptor;
+    private final Thread batcher;
+    private final BlockingQueue<CurveRequest> curveRequests = new LinkedBlockingQueue<>();
+    private final BondBatchPricer pricer;
+    private final DayCount dayCount;
+    private final int couponFrequency;
+    private final List<Socket> openSockets = new ArrayList<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder curveBatches = new LongAdder();
+    private volatile DiscountCurve curve;
+    private volatile boolean closed;
+
+    private PricingServer(ServerSocket serverSocket, DiscountCurve curve, DayCount dayCount, int couponFrequency) {
+        this.serverSocket = serverSocket;
+        this.curve = curve;
+        this.dayCount = dayCount;
+        this.couponFrequency = couponFrequency;
+        this.pricer = new BondBatchPricer(dayCount, couponFrequency);
+        this.connections = connectionExecutor();
+        this.acceptor = new Thread(this::accept, "pricing-acceptor");
+        this.batcher = new Thread(this::batch, "pricing-curve-batcher");
+        acceptor.setDaemon(true);
+        batcher.setDaemon(true);
+    }
+
+    /** Function Objective: Start a server on the loopback port (0 picks a free port) that prices SAGBs and discounts off curve */
+    public static PricingServer start(int port, DiscountCurve curve) throws IOException {
+        DayCount dayCount = DayCount.ACTUAL_365; // SAGB Day Count Convention = Actual/365
+        int couponFrequency = 2; // SAGB coupons are paid semiannually
+        PricingServer server = new PricingServer(new ServerSocket(port, 1024, InetAddress.getLoopbackAddress()), curve,
+                dayCount, couponFrequency);
+        server.batcher.start();
+        server.acceptor.start();
+        return server;
+    }
+
+    /* Function Objective: The SAGB strip settling on 2024-05-16 that the server's example curve is bootstrapped from
+     * R186, R2030, R2032, R2037, R2040 and R2044 */
+    static List<Bond> exampleStrip() {
+        LocalDate settlementDate = LocalDate.parse("2024-05-16");
+        String[][] strip = {
+                //maturity, last coupon, coupon rate, yield to maturity
+                {"2026-12-21", "2023-12-21", "0.105", "0.0850"},   // R186
+                {"2030-01-31", "2024-01-31", "0.08", "0.0950"},    // R2030
+                {"2032-03-31", "2024-03-31", "0.0825", "0.0995"},  // R2032
+                {"2037-01-31", "2024-01-31", "0.085", "0.1090"},   // R2037
+                {"2040-01-31", "2024-01-31", "0.09", "0.1140"},    // R2040
+                {"2044-01-31", "2024-01-31", "0.0875", "0.1160"}}; // R2044
+        List<Bond> bonds = new ArrayList<>();
+        for (String[] bond : strip) {
+            bonds.add(new Bond(settlementDate, LocalDate.parse(bond[0]), LocalDate.parse(bond[1]), Double.parseDouble(bond[2]),
+                    Double.parseDouble(bond[3]), 100, 365, 2));
+        }
+        return bonds;
+    }
+
+    /* Function Objective: One thread per connection - virtual threads where the runtime has them
+     * The factory is looked up by name, as the project is built for Java 17 where it does not exist */
+    static ExecutorService connectionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "pricing-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    //Publishes a new curve - batches that have already started finish on the snapshot they took
+    public void setCurve(DiscountCurve curve) {
+        this.curve = curve;
+    }
+
+    //Requests answered, including rejected ones
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    //Number of curve snapshots taken - fewer than the CURVE and RATE requests when concurrent requests were batched together
+    public long getCurveBatches() {
+        return curveBatches.sum();
+    }
+
+    //CURVE and RATE requests waiting for the batching thread
+    int getQueuedCurveRequests() {
+        return curveRequests.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        batcher.interrupt();
+        synchronized (openSockets) {
+            for (Socket socket : openSockets) {
+                socket.close();
+            }
+        }
+        connections.shutdownNow();
+        try {
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                synchronized (openSockets) {
+                    if (closed) {
+                        socket.close();
+                        return;
+                    }
+                    openSockets.add(socket);
+                }
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Pricing server could not accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    //Reads request lines until the client disconnects, answering each in order
+    private void serve(Socket socket) {
+        try (socket; InputStream in = socket.getInputStream(); OutputStream out = socket.getOutputStream()) {
+            Connection connection = new Connection(out);
+            byte[] bytes = new byte[BUFFER_SIZE];
+            int limit = 0;
+            int scanFrom = 0;
+            while (true) {
+                int read = in.read(bytes, limit, bytes.length - limit);
+                if (read < 0) {
+                    break;
+                }
+                limit += read;
+                int lineStart = 0;
+                for (int i = scanFrom; i < limit; i++) {
+                    if (bytes[i] == '\n') {
+                        connection.request(bytes, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                if (lineStart == 0 && limit == bytes.length) {
+                    connection.error("Request is longer than " + BUFFER_SIZE + " bytes.");
+                    lineStart = limit;
+                }
+                //Moves the unfinished last request to the front of the buffer and reads the rest of it on the next pass
+                System.arraycopy(bytes, lineStart, bytes, 0, limit - lineStart);
+                limit -= lineStart;
+                scanFrom = limit;
+                connection.flush();
+            }
+            connection.flush();
+        } catch (SocketException e) {
+            //The client disconnected or the server is closing
+        } catch (IOException e) {
+            if (!closed) {
+                System.err.println("Pricing server connection failed: " + e.getMessage());
+            }
+        } finally {
+            synchronized (openSockets) {
+                openSockets.remove(socket);
+            }
+        }
+    }
+
+    //Answers queued CURVE and RATE requests in batches, each batch against one frozen snapshot of the curve
+    private void batch() {
+        List<CurveRequest> batch = new ArrayList<>(MAX_BATCH);
+        long[] sortKeys = new long[MAX_BATCH];
+        int[] epochDays = new int[MAX_BATCH];
+        double[] rates = new double[MAX_BATCH];
+        double[] curveRates = new double[64];
+        double[] cleanPrices = new double[MAX_BATCH];
+        double[] accruedInterest = new double[MAX_BATCH];
+        double[] allInPrices = new double[MAX_BATCH];
+        while (!closed) {
+            try {
+                batch.add(curveRequests.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            curveRequests.drainTo(batch, MAX_BATCH - 1);
+            DiscountCurve snapshot;
+            try {
+                snapshot = curve.snapshot();
+            } catch (RuntimeException e) {
+                //A curve that cannot be solved fails the whole batch
+                for (CurveRequest request : batch) {
+                    request.fail(e.getMessage());
+                    request.complete();
+                }
+                batch.clear();
+                continue;
+            }
+            curveBatches.increment();
+            //Rate lookups are sorted by date, keeping each request's place in the batch in the low bits
+            int dates = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                CurveRequest request = batch.get(i);
+                if (request.isRate) {
+                    sortKeys[dates++] = ((long) request.date << 32) | i;
+                }
+            }
+            Arrays.sort(sortKeys, 0, dates);
+            for (int i = 0; i < dates; i++) {
+                epochDays[i] = (int) (sortKeys[i] >> 32);
+            }
+            try {
+                if (dates > 0) {
+                    snapshot.getRates(dates == MAX_BATCH ? epochDays : Arrays.copyOf(epochDays, dates), rates);
+                }
+                for (int i = 0; i < dates; i++) {
+                    batch.get((int) sortKeys[i]).rate(rates[i]);
+                }
+            } catch (RuntimeException e) {
+                //A date the curve cannot price fails only its own request
+                for (int i = 0; i < dates; i++) {
+                    CurveRequest request = batch.get((int) sortKeys[i]);
+                    try {
+                        double[] rate = new double[1];
+                        snapshot.getRates(new int[]{request.date}, rate);
+                        request.rate(rate[0]);
+                    } catch (RuntimeException single) {
+                        request.fail(single.getMessage());
+                    }
+                }
+            }
+            //CURVE requests are priced off the same snapshot, each cash-flow date looked up in one sorted call per position
+            for (int i = 0; i < batch.size(); i++) {
+                CurveRequest request = batch.get(i);
+                if (!request.isRate) {
+                    try {
+                        curveRates = pricer.price(snapshot, curveRates, request.settlementDate, request.maturityDate,
+                                request.lastCouponDate, request.couponRate, request.nominalValue, i, cleanPrices, accruedInterest, allInPrices);
+                        request.prices(cleanPrices[i], accruedInterest[i], allInPrices[i]);
+                    } catch (RuntimeException e) {
+                        //A curve that cannot price one of the cash-flow dates fails only this request
+                        request.fail(e.getMessage());
+                    }
+                }
+            }
+            for (CurveRequest request : batch) {
+                request.complete();
+            }
+            batch.clear();
+        }
+    }
+
+    //The state of one connection - its output buffer and the one CURVE or RATE request it may have outstanding
+    private final class Connection {
+        private final OutputStream out;
+        private final ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+        private final int[] fieldEnds = new int[FIELDS];
+        private final CurveRequest curveRequest = new CurveRequest();
+        //Capacity 0 - the thread lives no longer than the connection, so caching discount factors for it would not pay off
+        private final DiscountFactorTable discountFactors = new DiscountFactorTable(0);
+        private final CashFlowCursor cashFlows = new CashFlowCursor(dayCount, couponFrequency);
+        private final double[] cleanPrice = new double[1];
+        private final double[] accruedInterest = new double[1];
+        private final double[] allInPrice = new double[1];
+
+        Connection(OutputStream out) {
+            this.out = out;
+        }
+
+        void request(byte[] bytes, int start, int end) throws IOException {
+            if (end > start && bytes[end - 1] == '\r') {
+                end--;
+            }
+            requests.increment();
+            if (output.remaining() < MAX_LINE) {
+                flush();
+            }
+            try {
+                if (startsWith(bytes, start, end, "PRICE ")) {
+                    price(bytes, start + 6, end);
+                } else if (startsWith(bytes, start, end, "CURVE ")) {
+                    curvePrice(bytes, start + 6, end);
+                } else if (startsWith(bytes, start, end, "RATE ")) {
+                    rate(bytes, start + 5, end);
+                } else {
+                    error("Unknown request. Use PRICE, CURVE or RATE.");
+                }
+            } catch (IllegalArgumentException e) {
+                error(e.getMessage());
+            }
+        }
+
+        //Prices the position at its own yield on this thread, with the same arithmetic as batch mode
+        private void price(byte[] bytes, int start, int end) {
+            fields(bytes, start, end, FIELDS);
+            int settlementDate = PositionFilePricer.parseDate(bytes, start, fieldEnds[0]);
+            int maturityDate = PositionFilePricer.parseDate(bytes, fieldEnds[0] + 1, fieldEnds[1]);
+            int lastCouponDate = PositionFilePricer.parseDate(bytes, fieldEnds[1] + 1, fieldEnds[2]);
+            double couponRate = PositionFilePricer.parseNumber(bytes, fieldEnds[2] + 1, fieldEnds[3]);
+            double yieldToMaturity = PositionFilePricer.parseNumber(bytes, fieldEnds[3] + 1, fieldEnds[4]);
+            double nominalValue = PositionFilePricer.parseNumber(bytes, fieldEnds[4] + 1, fieldEnds[5]);
+            BondPortfolio.validate(settlementDate, maturityDate, lastCouponDate, couponRate, yieldToMaturity, nominalValue);
+            pricer.price(discountFactors, cashFlows, settlementDate, maturityDate, lastCouponDate, couponRate, yieldToMaturity,
+                    nominalValue, cleanPrice, accruedInterest, allInPrice);
+            prices(cleanPrice[0], accruedInterest[0], allInPrice[0]);
+        }
+
+        //Queues the position for the batching thread, which prices it off the batch's curve snapshot
+        private void curvePrice(byte[] bytes, int start, int end) {
+            fields(bytes, start, end, FIELDS - 1);
+            int settlementDate = PositionFilePricer.parseDate(bytes, start, fieldEnds[0]);
+            int maturityDate = PositionFilePricer.parseDate(bytes, fieldEnds[0] + 1, fieldEnds[1]);
+            int lastCouponDate = PositionFilePricer.parseDate(bytes, fieldEnds[1] + 1, fieldEnds[2]);
+            double couponRate = PositionFilePricer.parseNumber(bytes, fieldEnds[2] + 1, fieldEnds[3]);
+            double nominalValue = PositionFilePricer.parseNumber(bytes, fieldEnds[3] + 1, fieldEnds[4]);
+            BondPortfolio.validate(settlementDate, maturityDate, lastCouponDate, couponRate, 0.0, nominalValue);
+            CurveRequest request = curveRequest;
+            request.isRate = false;
+            request.settlementDate = settlementDate;
+            request.maturityDate = maturityDate;
+            request.lastCouponDate = lastCouponDate;
+            request.couponRate = couponRate;
+            request.nominalValue = nominalValue;
+            if (submit(request)) {
+                prices(request.cleanPrice, request.accruedInterest, request.allInPrice);
+            }
+        }
+
+        private void rate(byte[] bytes, int start, int end) {
+            CurveRequest request = curveRequest;
+            request.isRate = true;
+            request.date = PositionFilePricer.parseDate(bytes, start, end);
+            if (submit(request)) {
+                output.put(OK);
+                PositionFilePricer.writeFixed(output, request.rate);
+                output.put((byte) '\n');
+            }
+        }
+
+        //Queues the request for the batching thread and parks until it is answered, writing the error if it failed
+        private boolean submit(CurveRequest request) {
+            request.waiter = Thread.currentThread();
+            request.done = false;
+            request.failure = null;
+            curveRequests.add(request);
+            while (!request.done) {
+                LockSupport.park(request);
+                if (closed) {
+                    error("The server is closing.");
+                    return false;
+                }
+            }
+            if (request.failure != null) {
+                error(request.failure);
+                return false;
+            }
+            return true;
+        }
+
+        private void prices(double cleanPrice, double accruedInterest, double allInPrice) {
+            output.put(OK);
+            PositionFilePricer.writeFixed(output, cleanPrice);
+            output.put((byte) ',');
+            PositionFilePricer.writeFixed(output, accruedInterest);
+            output.put((byte) ',');
+            PositionFilePricer.writeFixed(output, allInPrice);
+            output.put((byte) '\n');
+        }
+
+        void error(String reason) {
+            byte[] text = String.valueOf(reason).replace('\n', ' ').getBytes(StandardCharsets.US_ASCII);
+            output.put(ERROR);
+            output.put(text, 0, Math.min(text.length, MAX_LINE - ERROR.length - 1));
+            output.put((byte) '\n');
+        }
+
+        //Finds the ends of exactly count comma-separated fields in bytes[start, end)
+        private void fields(byte[] bytes, int start, int end, int count) {
+            int fields = 0;
+            for (int i = start; i < end; i++) {
+                if (bytes[i] == ',') {
+                    if (fields == count - 1) {
+                        throw new IllegalArgumentException("Expected " + count + " fields but found more.");
+                    }
+                    fieldEnds[fields++] = i;
+                }
+            }
+            fieldEnds[fields++] = end;
+            if (fields != count) {
+                throw new IllegalArgumentException("Expected " + count + " fields but found " + fields + ".");
+            }
+        }
+
+        void flush() throws IOException {
+            if (output.position() > 0) {
+                out.write(output.array(), 0, output.position());
+                out.flush();
+                output.clear();
+            }
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (bytes[start + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* A CURVE or RATE request handed from a connection thread to the batching thread
+     * Each connection reuses one, as it waits for the answer before reading its next request. The connection writes the
+     * position before queueing it and the batching thread writes the rate or prices before the volatile done, so each side
+     * sees what the other wrote. */
+    private static final class CurveRequest {
+        private boolean isRate;
+        private int date;
+        private int settlementDate;
+        private int maturityDate;
+        private int lastCouponDate;
+        private double couponRate;
+        private double nominalValue;
+        private double rate;
+        private double cleanPrice;
+        private double accruedInterest;
+        private double allInPrice;
+        private String failure;
+        private Thread waiter;
+        private volatile boolean done;
+
+        void rate(double rate) {
+            this.rate = rate;
+        }
+
+        void prices(double cleanPrice, double accruedInterest, double allInPrice) {
+            this.cleanPrice = cleanPrice;
+            this.accruedInterest = accruedInterest;
+            this.allInPrice = allInPrice;
+        }
+
+        void fail(String reason) {
+            this.failure = reason;
+        }
+
+        void complete() {
+            done = true;
+            LockSupport.unpark(waiter);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** Reprices a set of bonds under many yield or curve scenarios and returns the price of every bond in every scenario.
+ * Each bond's coupon schedule, discount exponents and day offsets are worked out once, on the calling thread, and then
+ * reused by every scenario - no Bond is modified and no setYield() / calculateAllInPrice() round trip is made per scenario.
+ * Fork-join tasks split the scenarios in half until SCENARIOS_PER_TASK are left. Each scenario writes only its own row of
+ * the price matrix, so the results do not depend on the number of threads.
+ * The bonds must not be modified while a run is in progress. */
+public class ScenarioEngine {
+    static final int SCENARIOS_PER_TASK = 4;
+
+    private final ForkJoinPool pool;
+
+    public ScenarioEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ScenarioEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Function Objective: Price every bond under every yield shift scenario
+     * yieldShifts[s][b] is added to the yield to maturity of bond b in scenario s (0.0001 is one basis point)
+     * Each price agrees exactly with the all-in-price of the bond built at the shifted yield */
+    public ScenarioPrices priceYieldShifts(List<Bond> bonds, double[][] yieldShifts) {
+        Bond[] book = prepare(bonds);
+        for (double[] shifts : yieldShifts) {
+            if (shifts.length != book.length) {
+                throw new IllegalArgumentException("Every scenario must hold one yield shift per bond.");
+            }
+            for (int b = 0; b < book.length; b++) {
+                if (!(1 + (book[b].yield() + shifts[b]) / book[b].frequency() > 0)) {
+                    throw new IllegalArgumentException("Shifted yields must be greater than minus the coupon frequency.");
+                }
+            }
+        }
+        return run(book, yieldShifts.length, (scenario, out, offset) -> {
+            double[] shifts = yieldShifts[scenario];
+            for (int b = 0; b < book.length; b++) {
+                out[offset + b] = book[b].allInPriceAtYield(book[b].yield() + shifts[b]);
+            }
+        });
+    }
+
+    /** Function Objective: Price every bond off every scenario curve
+     * Each price agrees exactly with calculateAllInPrice(curve) of the bond for the same curve
+     * Shifted YieldCurves (e.g. bumped pillars) plug in as (epochDays, out) -> curve.getRates(epochDays, RateSide.MID, out) */
+    public ScenarioPrices priceCurves(List<Bond> bonds, List<? extends DiscountCurve> curves) {
+        Bond[] book = prepare(bonds);
+        DiscountCurve[] scenarios = curves.toArray(new DiscountCurve[0]);
+        int maxCashFlows = 0;
+        for (Bond bond : book) {
+            maxCashFlows = Math.max(maxCashFlows, bond.cashFlowDates().length);
+        }
+        int bufferLength = maxCashFlows;
+        //Each worker thread gets its own rate buffer, the Bond's own buffer is not safe to share between threads
+        ThreadLocal<double[]> buffers = ThreadLocal.withInitial(() -> new double[bufferLength]);
+        return run(book, scenarios.length, (scenario, out, offset) -> {
+            double[] rates = buffers.get();
+            for (int b = 0; b < book.length; b++) {
+                scenarios[scenario].getRates(book[b].cashFlowDates(), rates);
+                out[offset + b] = book[b].allInPriceAtRates(rates);
+            }
+        });
+    }
+
+    /** Function Objective: Scenario matrix applying each of the given shifts to every bond alike */
+    public static double[][] parallelShifts(int bondCount, double... shifts) {
+        double[][] matrix = new double[shifts.length][bondCount];
+        for (int s = 0; s < shifts.length; s++) {
+            Arrays.fill(matrix[s], shifts[s]);
+        }
+        return matrix;
+    }
+
+    /** Function Objective: Scenario matrix of twists - in scenario s bonds up to shortYears to maturity move by shortShifts[s],
+     * bonds from longYears on move by longShifts[s], and the shift of the bonds in between is interpolated linearly on time to maturity */
+    public static double[][] twistShifts(List<Bond> bonds, double shortYears, double longYears, double[] shortShifts, double[] longShifts) {
+        if (!(shortYears < longYears)) {
+            throw new IllegalArgumentException("The short end must come before the long end.");
+        }
+        if (shortShifts.length != longShifts.length) {
+            throw new IllegalArgumentException("Short and long shifts must have the same length.");
+        }
+        double[] weights = new double[bonds.size()];
+        for (int b = 0; b < weights.length; b++) {
+            Bond bond = bonds.get(b);
+            double years = bond.faceValueExponent() / bond.frequency();
+            weights[b] = Math.min(1, Math.max(0, (years - shortYears) / (longYears - shortYears)));
+        }
+        double[][] matrix = new double[shortShifts.length][weights.length];
+        for (int s = 0; s < shortShifts.length; s++) {
+            for (int b = 0; b < weights.length; b++) {
+                matrix[s][b] = shortShifts[s] + weights[b] * (longShifts[s] - shortShifts[s]);
+            }
+        }
+        return matrix;
+    }
+
+    //Works out the schedule, exponents and accrued interest of every bond on the calling thread, before any task reads them
+    private static Bond[] prepare(List<Bond> bonds) {
+        Bond[] book = bonds.toArray(new Bond[0]);
+        for (Bond bond : book) {
+            bond.couponExponents();
+            bond.cashFlowDates();
+            bond.calculateAccruedInterest();
+        }
+        return book;
+    }
+
+    private ScenarioPrices run(Bond[] book, int scenarioCount, ScenarioPricer pricer) {
+        long start = System.nanoTime();
+        double[] allInPrices = new double[scenarioCount * book.length];
+        double[] accruedInterest = new double[book.length];
+        for (int b = 0; b < book.length; b++) {
+            accruedInterest[b] = book[b].calculateAccruedInterest();
+        }
+        pool.invoke(new ScenarioTask(book.length, 0, scenarioCount, pricer, allInPrices));
+        return new ScenarioPrices(scenarioCount, accruedInterest, allInPrices, System.nanoTime() - start);
+    }
+
+    //Writes the all-in-price of every bond in one scenario into out, starting at offset
+    @FunctionalInterface
+    private interface ScenarioPricer {
+        void price(int scenario, double[] out, int offset);
+    }
+
+    //Prices the scenarios from (inclusive) to to (exclusive), splitting in half until SCENARIOS_PER_TASK are left
+    private static final class ScenarioTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int bondCount;
+        private final int fromScenario;
+        private final int toScenario;
+        private final ScenarioPricer pricer;
+        private final double[] allInPrices;
+
+        ScenarioTask(int bondCount, int fromScenario, int toScenario, ScenarioPricer pricer, double[] allInPrices) {
+            this.bondCount = bondCount;
+            this.fromScenario = fromScenario;
+            this.toScenario = toScenario;
+            this.pricer = pricer;
+            this.allInPrices = allInPrices;
+        }
+
+        @Override
+        protected void compute() {
+            if (toScenario - fromScenario > SCENARIOS_PER_TASK) {
+                int middle = (fromScenario + toScenario) >>> 1;
+                invokeAll(new ScenarioTask(bondCount, fromScenario, middle, pricer, allInPrices),
+                        new ScenarioTask(bondCount, middle, toScenario, pricer, allInPrices));
+                return;
+            }
+            for (int scenario = fromScenario; scenario < toScenario; scenario++) {
+                pricer.price(scenario, allInPrices, scenario * bondCount);
+            }
+        }
+    }
+}
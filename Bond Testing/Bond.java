@@ -1,6 +1,4 @@
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.List;
 
 public class Bond {
@@ -10,12 +8,43 @@ public class Bond {
     private double couponRate;
     private double yieldToMaturity;
     private double faceValue;
-    private double dayCountConvention;
+    //Resolved once at construction, the pricing loops only see the day counts, exponents and months they produce
+    private DayCount dayCount;
     private int couponFrequency;
+    private int monthsBetweenCoupons;
+
+    //Cached coupon schedule and valuation - computed on first use and cleared by the setters whose input they depend on
+    private CouponSchedule couponSchedule;
+    //Discount exponents (year fraction * coupon frequency) of each coupon and of the nominal - they only depend on dates, so every yield reuses them
+    private double[] couponExponents;
+    private double faceValueExponent;
+    //Day counts from settlement to each coupon and to maturity, the keys of the shared DiscountFactorTable
+    private int[] couponDays;
+    private int daysToMaturity;
+    //Reusable buffer for the curve rates of each cash flow when pricing off a DiscountCurve
+    private double[] curveRates;
+    //Reusable cursor for partial-horizon queries, created on first use
+    private CashFlowCursor cashFlows;
+    private boolean valued;
+    private double accruedInterest;
+    private double presentValueOfFaceValue;
+    private double presentValueOfCoupons;
 
     public Bond(LocalDate settlementDate, LocalDate maturityDate, LocalDate lastCouponDate,
                 double couponRate, double yieldToMaturity, double faceValue,
                 double dayCountConvention, int couponFrequency) {
+        this(settlementDate, maturityDate, lastCouponDate, couponRate, yieldToMaturity, faceValue,
+                DayCount.actual(dayCountConvention), couponFrequency);
+    }
+
+    /**Function Objective: Bond under any day count convention (Actual/365, Actual/360, 30/360, Actual/Actual) paying
+     * couponFrequency coupons a year - 1 annual, 2 semi-annual, 4 quarterly or 12 monthly */
+    public Bond(LocalDate settlementDate, LocalDate maturityDate, LocalDate lastCouponDate,
+                double couponRate, double yieldToMaturity, double faceValue,
+                DayCount dayCount, int couponFrequency) {
+        if (!Double.isFinite(couponRate) || !Double.isFinite(yieldToMaturity) || !Double.isFinite(faceValue)) {
+            throw new IllegalArgumentException("Coupon rate, yield, and face value must be finite numbers.");
+        }
         if (couponRate < 0 || yieldToMaturity < 0 || faceValue < 0) {
             throw new IllegalArgumentException("Coupon rate, yield, and face value must be non-negative.");
         }
@@ -31,8 +60,9 @@ public class Bond {
         this.couponRate = couponRate;
         this.yieldToMaturity = yieldToMaturity;
         this.faceValue = faceValue;
-        this.dayCountConvention = dayCountConvention;
+        this.dayCount = dayCount;
         this.couponFrequency = couponFrequency;
+        this.monthsBetweenCoupons = CouponSchedule.monthsBetweenCoupons(couponFrequency);
     }
 
     public LocalDate getSettlementDate() {
@@ -41,6 +71,7 @@ public class Bond {
 
     public void setSettlementDate(LocalDate settlementDate) {
         this.settlementDate = settlementDate;
+        invalidateDiscountExponents();
     }
 
     public LocalDate getMaturityDate() {
@@ -49,6 +80,7 @@ public class Bond {
 
     public void setMaturityDate(LocalDate maturityDate) {
         this.maturityDate = maturityDate;
+        invalidateSchedule();
     }
 
     public LocalDate getLastCouponDate() {
@@ -57,6 +89,7 @@ public class Bond {
 
     public void setLastCouponDate(LocalDate lastCouponDate) {
         this.lastCouponDate = lastCouponDate;
+        invalidateSchedule();
     }
 
     public double getCouponRate() {
@@ -65,6 +98,7 @@ public class Bond {
 
     public void setCouponRate(double couponRate) {
         this.couponRate = couponRate;
+        invalidateValuation();
     }
 
     public double getYieldToMaturity() {
@@ -73,6 +107,7 @@ public class Bond {
 
     public void setYield(double yieldToMaturity) {
         this.yieldToMaturity = yieldToMaturity;
+        invalidateValuation();
     }
 
     public double getFaceValue() {
@@ -81,14 +116,26 @@ public class Bond {
 
     public void setFaceValue(double faceValue) {
         this.faceValue = faceValue;
+        invalidateValuation();
     }
 
+    //Days in a year of the day count convention, e.g. 365 for Actual/365
     public double getDayCountConvention() {
-        return this.dayCountConvention;
+        return this.dayCount.basis();
     }
 
     public void setDayCountConvention(double dayCountConvention) {
-        this.dayCountConvention = dayCountConvention;
+        setDayCount(DayCount.actual(dayCountConvention));
+    }
+
+    public DayCount getDayCount() {
+        return this.dayCount;
+    }
+
+    public void setDayCount(DayCount dayCount) {
+        this.dayCount = dayCount;
+        this.cashFlows = null;
+        invalidateDiscountExponents();
     }
 
     public int getCouponFrequency() {
@@ -96,69 +143,268 @@ public class Bond {
     }
 
     public void setCouponFrequency(int couponFrequency) {
+        this.monthsBetweenCoupons = CouponSchedule.monthsBetweenCoupons(couponFrequency);
         this.couponFrequency = couponFrequency;
+        this.cashFlows = null;
+        invalidateSchedule();
+    }
+
+    /* Function Objective: Drop the cached valuation after a pricing input has changed */
+    private void invalidateValuation() {
+        this.valued = false;
+    }
+
+    /* Function Objective: Drop the cached discount exponents (and with them the valuation) after a date or day count input has changed */
+    private void invalidateDiscountExponents() {
+        this.couponExponents = null;
+        this.valued = false;
+    }
+
+    /* Function Objective: Drop the cached coupon schedule (and with it the exponents and valuation) after a schedule input has changed */
+    private void invalidateSchedule() {
+        this.couponSchedule = null;
+        this.couponExponents = null;
+        this.valued = false;
     }
 
     /**Function Objective:  Calculate Accrued Interest
-     * The formula for accrued interest = Coupon Rate multitiplied by the the difference between the settlement date and the last coupon date over 365
+     * The formula for accrued interest = Coupon Rate multitiplied by the the difference between the settlement date and the last coupon date over the days in a year of the day count convention
      * To obtain the Rand value of the accrued interest multiply the above output by the nominal value of the bond */
     public double calculateAccruedInterest() {
-        double daysSinceLastCoupon = ChronoUnit.DAYS.between(lastCouponDate, settlementDate);
-        double accruedIncome = couponRate * (daysSinceLastCoupon / dayCountConvention) * faceValue;
-        return accruedIncome;
+        valuate();
+        return accruedInterest;
     }
 
     /** Function Objective: Determine the Present Value of the Nominal
      * The Nominal is divided by the discount factor tp determine the present value
      * The coupon factor is raised to the number of coupon periods */
     public double calculatePresentValueOfFaceValue() {
-        double daysToMaturity = ChronoUnit.DAYS.between(settlementDate, maturityDate);
-        double pvFV = faceValue / Math.pow(1 + yieldToMaturity/ couponFrequency, daysToMaturity/dayCountConvention * couponFrequency);
-        return pvFV;
+        valuate();
+        return presentValueOfFaceValue;
     }
 
     /**Function Objective: Generate a list of all coupon dates in a list
-     * SAGBs pay semi-annual coupon hence the coupon dates are 6 months apart
-     * The loop is to ensure no coupon values are generated post the maturity date of the bond */
+     * SAGBs pay semi-annual coupon hence the coupon dates are 6 months apart, in general they are 12 / coupon frequency months apart
+     * The loop is to ensure no coupon values are generated post the maturity date of the bond
+     * The schedule is interned in CouponScheduleRegistry and returned as a read-only view of its epoch days */
     public List<LocalDate> generateCouponDates() {
-        List<LocalDate> couponDates = new ArrayList<>();
-        LocalDate nextCouponDate = lastCouponDate.plusMonths(12 / 2);
-        while (!nextCouponDate.isAfter(maturityDate)) {
-            couponDates.add(nextCouponDate);
-            nextCouponDate = nextCouponDate.plusMonths(12 / 2);
+        return couponSchedule().asLocalDates();
+    }
+
+    /* Function Objective: Fetch the coupon schedule from the shared registry
+     * Bonds of the same line share one interned schedule, so it is only generated once per process */
+    private CouponSchedule couponSchedule() {
+        if (couponSchedule == null) {
+            couponSchedule = CouponScheduleRegistry.shared().schedule((int) lastCouponDate.toEpochDay(), (int) maturityDate.toEpochDay(), monthsBetweenCoupons);
         }
-        return couponDates;
+        return couponSchedule;
     }
 
     /**Function Objective: All Coupons payments need to be discounted to their Present Value
      * The Present value is set initially set to 0 - once all coupons are discounted the variable is used to add all PV of coupons
-     * Semi-annual coupons are equal to the Coupon Rate divided by 2 multiplied by the nominal of the bond */
+     * Each coupon is equal to the Coupon Rate divided by the coupon frequency multiplied by the nominal of the bond */
     public double calculatePresentValueOfCoupons() {
-        double semiAnnualCouponPayment = (couponRate / 2) * faceValue;
-        double totalPV = 0.0;
-        List<LocalDate> couponDates = generateCouponDates();
-        for (LocalDate couponDate : couponDates) {
-            long daysBetween = ChronoUnit.DAYS.between(settlementDate, couponDate);
-            double pv = semiAnnualCouponPayment / Math.pow(1 + yieldToMaturity / couponFrequency, daysBetween / dayCountConvention * couponFrequency);
-            totalPV += pv;
-        }
-        return totalPV;
+        valuate();
+        return presentValueOfCoupons;
     }
 
     /* Function Objective: Calculate the dirty price/all-in-price of the bond of the bond
      * The dirty price is the sum of the PV of coupons plus PV FaceValue/Nominal */
 
     public double calculateAllInPrice() {
-        double presentValueOfFaceValue = calculatePresentValueOfFaceValue();
-        double presentValueOfCoupons = calculatePresentValueOfCoupons();
+        valuate();
         return presentValueOfCoupons + presentValueOfFaceValue;
     }
     /* Function Objective: Calculate the dirty price/all-in-price of the bond of the bond
      * The dirty price is the sum of the PV of coupons plus PV FaceValue/Nominal minus Accrued Interest */
     public double calculateCleanPrice() {
-        double presentValueOfFaceValue = calculatePresentValueOfFaceValue();
-        double presentValueOfCoupons = calculatePresentValueOfCoupons();
-        double accruedInterest = calculateAccruedInterest();
+        valuate();
         return presentValueOfFaceValue + presentValueOfCoupons - accruedInterest;
     }
+
+    /**Function Objective: Calculate the all-in-price by discounting each cash flow at the curve's rate for its date instead of the yield to maturity
+     * The coupon dates and maturity date are looked up on the curve in one sorted bulk call
+     * The same bond can be repriced against any number of curves, its schedule and discount exponents are reused */
+    public double calculateAllInPrice(DiscountCurve curve) {
+        int[] cashFlowDates = cashFlowDates();
+        if (curveRates == null || curveRates.length < cashFlowDates.length) {
+            curveRates = new double[cashFlowDates.length];
+        }
+        curve.getRates(cashFlowDates, curveRates);
+        return allInPriceAtRates(curveRates);
+    }
+
+    /* Function Objective: Calculate the clean price off the curve - the curve's all-in-price minus Accrued Interest */
+    public double calculateCleanPrice(DiscountCurve curve) {
+        return calculateAllInPrice(curve) - calculateAccruedInterest();
+    }
+
+    /**Function Objective: Present value at the yield to maturity of the cash flows paid on or before the horizon, e.g. the next 12 months
+     * The flows are generated one at a time by a reusable CashFlowCursor that stops at the first flow after the horizon,
+     * so a short horizon on a long bond never generates the rest of the schedule and a query allocates nothing
+     * With the horizon on or after maturity this is exactly the all-in-price */
+    public double calculatePresentValueOfCashFlows(LocalDate horizon) {
+        if (cashFlows == null) {
+            cashFlows = new CashFlowCursor(dayCount, couponFrequency);
+        }
+        cashFlows.reset((int) settlementDate.toEpochDay(), (int) maturityDate.toEpochDay(), (int) lastCouponDate.toEpochDay(),
+                couponRate, faceValue, (int) horizon.toEpochDay());
+        double logDiscountRate = DiscountFactorTable.logDiscountRate(yieldToMaturity, couponFrequency, dayCount.basis());
+        return BondBatchPricer.presentValue(cashFlows, DiscountFactorTable.current(), logDiscountRate);
+    }
+
+    /**Function Objective: Price the bond and its first and second order yield sensitivities in one loop over the cash flows
+     * With b = 1 + yield / frequency and t the time to a cash flow in years, each cash flow is discounted by b^-(t * frequency)
+     * Macaulay duration = sum(t * PV) / price, modified duration = Macaulay duration / b
+     * Convexity = sum(PV * t * (t + 1 / frequency)) / (b^2 * price) and DV01 = modified duration * price * 0.0001 */
+    public BondAnalytics calculateAnalytics() {
+        double[] exponents = couponExponents();
+        double base = 1 + yieldToMaturity / couponFrequency;
+        double couponPayment = couponPayment();
+
+        DiscountFactorTable discountFactors = DiscountFactorTable.current();
+        double logDiscountRate = DiscountFactorTable.logDiscountRate(yieldToMaturity, couponFrequency, dayCount.basis());
+
+        double presentValueOfFace = faceValue * discountFactors.discountFactor(logDiscountRate, daysToMaturity);
+        double presentValueOfCouponPayments = 0.0;
+        double weightedTime = faceValueExponent * presentValueOfFace;
+        double weightedTimeSquared = faceValueExponent * (faceValueExponent + 1) * presentValueOfFace;
+        for (int i = 0; i < exponents.length; i++) {
+            double exponent = exponents[i];
+            double pv = couponPayment * discountFactors.discountFactor(logDiscountRate, couponDays[i]);
+            presentValueOfCouponPayments += pv;
+            weightedTime += exponent * pv;
+            weightedTimeSquared += exponent * (exponent + 1) * pv;
+        }
+        double price = presentValueOfCouponPayments + presentValueOfFace;
+        double macaulayDuration = weightedTime / price / couponFrequency;
+        double modifiedDuration = macaulayDuration / base;
+        double convexity = weightedTimeSquared / (price * base * base * couponFrequency * couponFrequency);
+        double dv01 = modifiedDuration * price * 0.0001;
+        return new BondAnalytics(price, calculateAccruedInterest(), macaulayDuration, modifiedDuration, convexity, dv01);
+    }
+
+    /* Function Objective: Run the valuation once and cache accrued interest, PV of face value and PV of coupons
+     * The cached results are reused until one of the setters changes an input */
+    private void valuate() {
+        if (valued) {
+            if (PricingMetrics.ENABLED) {
+                PricingMetrics.shared().cachedValuation();
+            }
+            return;
+        }
+        long start = PricingMetrics.ENABLED ? System.nanoTime() : 0;
+        accruedInterest = couponRate * dayCount.yearFraction((int) lastCouponDate.toEpochDay(), (int) settlementDate.toEpochDay()) * faceValue;
+
+        //One log for the yield, then each discount factor is exp(-days * rate), served from the thread's DiscountFactorTable when already known
+        double[] exponents = couponExponents();
+        DiscountFactorTable discountFactors = DiscountFactorTable.current();
+        double logDiscountRate = DiscountFactorTable.logDiscountRate(yieldToMaturity, couponFrequency, dayCount.basis());
+        presentValueOfFaceValue = faceValue * discountFactors.discountFactor(logDiscountRate, daysToMaturity);
+
+        double couponPayment = couponPayment();
+        double totalPV = 0.0;
+        for (int i = 0; i < exponents.length; i++) {
+            double pv = couponPayment * discountFactors.discountFactor(logDiscountRate, couponDays[i]);
+            totalPV += pv;
+        }
+        presentValueOfCoupons = totalPV;
+        valued = true;
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.shared().valuation(System.nanoTime() - start);
+        }
+    }
+
+    /* Function Objective: Discount exponent of every coupon, computed once per schedule and settlement date
+     * Each exponent is the number of coupon periods between settlement and the coupon date, the nominal's exponent is cached alongside */
+    double[] couponExponents() {
+        if (couponExponents == null) {
+            CouponSchedule schedule = couponSchedule();
+            int settlementDay = (int) settlementDate.toEpochDay();
+            int maturityDay = (int) maturityDate.toEpochDay();
+            double[] exponents = new double[schedule.size()];
+            int[] days = new int[schedule.size()];
+            for (int i = 0; i < exponents.length; i++) {
+                days[i] = dayCount.count(settlementDay, schedule.couponDate(i));
+                exponents[i] = dayCount.yearFraction(settlementDay, schedule.couponDate(i)) * couponFrequency;
+            }
+            daysToMaturity = dayCount.count(settlementDay, maturityDay);
+            faceValueExponent = dayCount.yearFraction(settlementDay, maturityDay) * couponFrequency;
+            couponDays = days;
+            couponExponents = exponents;
+        }
+        return couponExponents;
+    }
+
+    /* Function Objective: All-in-price at the given yield, leaving the cached valuation untouched
+     * Same arithmetic as valuate(), so it agrees exactly with the all-in-price of this bond at that yield */
+    double allInPriceAtYield(double yield) {
+        double[] exponents = couponExponents();
+        DiscountFactorTable discountFactors = DiscountFactorTable.current();
+        double logDiscountRate = DiscountFactorTable.logDiscountRate(yield, couponFrequency, dayCount.basis());
+        double presentValueOfFace = nominal() * discountFactors.discountFactor(logDiscountRate, daysToMaturity);
+
+        double couponPayment = couponPayment();
+        double totalPV = 0.0;
+        for (int i = 0; i < exponents.length; i++) {
+            totalPV += couponPayment * discountFactors.discountFactor(logDiscountRate, couponDays[i]);
+        }
+        return totalPV + presentValueOfFace;
+    }
+
+    /* Function Objective: All-in-price with each cash flow discounted at its own rate in percent
+     * rates holds one rate per coupon followed by the rate for maturity, in the order of cashFlowDates() */
+    double allInPriceAtRates(double[] rates) {
+        double[] exponents = couponExponents();
+        double couponPayment = couponPayment();
+        double totalPV = 0.0;
+        for (int i = 0; i < exponents.length; i++) {
+            totalPV += couponPayment / Math.pow(1 + rates[i] / 100 / couponFrequency, exponents[i]);
+        }
+        double presentValueOfFace = nominal() / Math.pow(1 + rates[exponents.length] / 100 / couponFrequency, faceValueExponent);
+        return totalPV + presentValueOfFace;
+    }
+
+    //Coupon dates followed by the maturity date as epoch days - shared with the schedule, callers must not modify it
+    int[] cashFlowDates() {
+        return couponSchedule().cashFlowDates();
+    }
+
+    double yield() {
+        return yieldToMaturity;
+    }
+
+    int settlementDay() {
+        return (int) settlementDate.toEpochDay();
+    }
+
+    int maturityDay() {
+        return (int) maturityDate.toEpochDay();
+    }
+
+    int lastCouponDay() {
+        return (int) lastCouponDate.toEpochDay();
+    }
+
+    double couponRate() {
+        return couponRate;
+    }
+
+    double faceValueExponent() {
+        couponExponents();
+        return faceValueExponent;
+    }
+
+    //Each coupon is equal to the Coupon Rate divided by the coupon frequency multiplied by the nominal of the bond
+    double couponPayment() {
+        return (couponRate / couponFrequency) * faceValue;
+    }
+
+    double nominal() {
+        return faceValue;
+    }
+
+    int frequency() {
+        return couponFrequency;
+    }
 }
\ No newline at end of file
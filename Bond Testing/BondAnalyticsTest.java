@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+class BondAnalyticsTest {
+
+    private static Bond r2032(double yieldToMaturity) {
+        return new Bond(LocalDate.parse("2024-05-16"), LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"), 0.0825, yieldToMaturity, 100, 365, 2);
+    }
+
+    @Test //The price produced alongside the sensitivities must be the same as the Bond pricing methods
+    void testPriceMatchesBond() {
+        Bond bond = r2032(0.095);
+        BondAnalytics analytics = bond.calculateAnalytics();
+        assertEquals(bond.calculateAllInPrice(), analytics.getAllInPrice(), 0.0);
+        assertEquals(bond.calculateAccruedInterest(), analytics.getAccruedInterest(), 0.0);
+        assertEquals(bond.calculateCleanPrice(), analytics.getCleanPrice(), 1e-12);
+    }
+
+    @Test //Analytic modified duration, convexity and DV01 must agree with central finite differences of the all-in price
+    void testSensitivitiesMatchFiniteDifferences() {
+        double yieldToMaturity = 0.095;
+        double bump = 1e-5;
+        double price = r2032(yieldToMaturity).calculateAllInPrice();
+        double priceUp = r2032(yieldToMaturity + bump).calculateAllInPrice();
+        double priceDown = r2032(yieldToMaturity - bump).calculateAllInPrice();
+
+        BondAnalytics analytics = r2032(yieldToMaturity).calculateAnalytics();
+        double modifiedDuration = -(priceUp - priceDown) / (2 * bump) / price;
+        double convexity = (priceUp - 2 * price + priceDown) / (bump * bump) / price;
+
+        assertEquals(modifiedDuration, analytics.getModifiedDuration(), 1e-6);
+        assertEquals(convexity, analytics.getConvexity(), 1e-2);
+        assertEquals(modifiedDuration * price * 0.0001, analytics.getDv01(), 1e-8);
+        assertEquals(analytics.getModifiedDuration() * (1 + yieldToMaturity / 2), analytics.getMacaulayDuration(), 1e-12);
+    }
+
+    @Test //A bond's Macaulay duration can never exceed its remaining term
+    void testMacaulayDurationWithinTerm() {
+        BondAnalytics analytics = r2032(0.095).calculateAnalytics();
+        double yearsToMaturity = (LocalDate.parse("2032-03-31").toEpochDay() - LocalDate.parse("2024-05-16").toEpochDay()) / 365.0;
+        assertTrue(analytics.getMacaulayDuration() > 0 && analytics.getMacaulayDuration() < yearsToMaturity);
+    }
+}
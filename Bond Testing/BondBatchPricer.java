@@ -0,0 +1,225 @@
+import java.nio.ByteBuffer;
+
+/** Prices every row of a BondPortfolio, an off-heap BondStore or a BondWireFormat message in one pass.
+ * The arithmetic is the same as Bond (same operations in the same order) so each row agrees exactly with
+ * calculateCleanPrice(), calculateAccruedInterest() and calculateAllInPrice() of the equivalent Bond object.
+ * Cash flows are generated one at a time by the thread's CashFlowCursor, reset for every row, so no LocalDate, List or other
+ * object is created per bond, and discount factors come from the thread's DiscountFactorTable, which rows at the same yield
+ * share. The day count convention and coupon frequency are resolved once in the constructor, so the row loops only call the
+ * one DayCount class the pricer was built with. */
+public class BondBatchPricer {
+    private final DayCount dayCount;
+    private final int couponFrequency;
+    private final int monthsBetweenCoupons;
+    //Each thread reuses its own cursor, the pricer is shared by PortfolioRevaluer's worker threads
+    private final ThreadLocal<CashFlowCursor> cashFlowCursors;
+
+    public BondBatchPricer(double dayCountConvention, int couponFrequency) {
+        this(DayCount.actual(dayCountConvention), couponFrequency);
+    }
+
+    /** Function Objective: Pricer for bonds under the given day count convention paying couponFrequency coupons a year */
+    public BondBatchPricer(DayCount dayCount, int couponFrequency) {
+        this.dayCount = dayCount;
+        this.couponFrequency = couponFrequency;
+        this.monthsBetweenCoupons = CouponSchedule.monthsBetweenCoupons(couponFrequency);
+        this.cashFlowCursors = ThreadLocal.withInitial(() -> new CashFlowCursor(dayCount, couponFrequency));
+    }
+
+    /** Function Objective: Price the whole portfolio
+     * Results are written into the caller's arrays so repeated end-of-day runs can reuse them */
+    public void price(BondPortfolio portfolio, double[] cleanPrices, double[] accruedInterest, double[] allInPrices) {
+        price(portfolio, 0, portfolio.size(), cleanPrices, accruedInterest, allInPrices);
+    }
+
+    /** Function Objective: Price the rows from (inclusive) to to (exclusive) */
+    public void price(BondPortfolio portfolio, int from, int to,
+                      double[] cleanPrices, double[] accruedInterest, double[] allInPrices) {
+        if (from < 0 || to > portfolio.size() || from > to) {
+            throw new IndexOutOfBoundsException("Row range [" + from + ", " + to + ") is outside the portfolio.");
+        }
+        if (cleanPrices.length < to || accruedInterest.length < to || allInPrices.length < to) {
+            throw new IllegalArgumentException("Output arrays must be at least as long as the portfolio.");
+        }
+        DiscountFactorTable discountFactors = DiscountFactorTable.current();
+        CashFlowCursor cashFlows = cashFlowCursors.get();
+        for (int i = from; i < to; i++) {
+            priceRow(discountFactors, cashFlows, portfolio.settlementDates[i], portfolio.maturityDates[i], portfolio.lastCouponDates[i],
+                    portfolio.couponRates[i], portfolio.yieldsToMaturity[i], portfolio.nominalValues[i],
+                    i, cleanPrices, accruedInterest, allInPrices);
+        }
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.shared().batchRows(to - from);
+        }
+    }
+
+    /** Function Objective: Price the rows from (inclusive) to to (exclusive) of an off-heap BondStore
+     * Rows are read straight from the store's buffer, so no Bond, LocalDate or on-heap copy of the columns is created.
+     * The range is checked once against the store's size, and the rows are then read without a check (or volatile read) per field */
+    public void price(BondStore store, int from, int to,
+                      double[] cleanPrices, double[] accruedInterest, double[] allInPrices) {
+        if (from < 0 || to > store.size() || from > to) {
+            throw new IndexOutOfBoundsException("Row range [" + from + ", " + to + ") is outside the store.");
+        }
+        if (cleanPrices.length < to || accruedInterest.length < to || allInPrices.length < to) {
+            throw new IllegalArgumentException("Output arrays must be at least as long as the store.");
+        }
+        DiscountFactorTable discountFactors = DiscountFactorTable.current();
+        CashFlowCursor cashFlows = cashFlowCursors.get();
+        for (int i = from; i < to; i++) {
+            priceRow(discountFactors, cashFlows, store.settlementDate(i), store.maturityDate(i), store.lastCouponDate(i),
+                    store.couponRate(i), store.yieldToMaturity(i), store.nominalValue(i),
+                    i, cleanPrices, accruedInterest, allInPrices);
+        }
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.shared().batchRows(to - from);
+        }
+    }
+
+    /** Function Objective: Price the bond message at bonds' position into a result message at results' position
+     * Rows are read from and written to the buffers in place (see BondWireFormat), so a batch can come off a socket or a file
+     * and go back out without any decoding. Both positions are moved past their messages. Rows are validated with the Bond
+     * constructor rules, and an invalid row fails the whole message before anything is written */
+    public void price(ByteBuffer bonds, ByteBuffer results) {
+        int count = BondWireFormat.bondCount(bonds);
+        for (int i = 0; i < count; i++) {
+            try {
+                BondPortfolio.validate(BondWireFormat.settlementDate(bonds, i), BondWireFormat.maturityDate(bonds, i),
+                        BondWireFormat.lastCouponDate(bonds, i), BondWireFormat.couponRate(bonds, i),
+                        BondWireFormat.yieldToMaturity(bonds, i), BondWireFormat.nominalValue(bonds, i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + i + ": " + e.getMessage(), e);
+            }
+        }
+        int start = BondWireFormat.beginResults(results, count);
+        DiscountFactorTable discountFactors = DiscountFactorTable.current();
+        CashFlowCursor cashFlows = cashFlowCursors.get();
+        for (int i = 0; i < count; i++) {
+            int settlementDate = BondWireFormat.settlementDate(bonds, i);
+            int lastCouponDate = BondWireFormat.lastCouponDate(bonds, i);
+            double couponRate = BondWireFormat.couponRate(bonds, i);
+            double nominalValue = BondWireFormat.nominalValue(bonds, i);
+            double accrued = accruedInterest(settlementDate, lastCouponDate, couponRate, nominalValue);
+            double allInPrice = allInPrice(discountFactors, cashFlows, settlementDate, BondWireFormat.maturityDate(bonds, i),
+                    lastCouponDate, couponRate, BondWireFormat.yieldToMaturity(bonds, i), nominalValue);
+            BondWireFormat.putResult(results, start + BondWireFormat.HEADER_SIZE + i * BondWireFormat.RESULT_SIZE,
+                    allInPrice - accrued, accrued, allInPrice);
+        }
+        bonds.position(bonds.position() + BondWireFormat.bondsSize(count));
+        if (PricingMetrics.ENABLED) {
+            PricingMetrics.shared().batchRows(count);
+        }
+    }
+
+    //Prices one position and writes its results at index out of the result arrays
+    private void priceRow(DiscountFactorTable discountFactors, CashFlowCursor cashFlows, int settlementDate, int maturityDate,
+                          int lastCouponDate, double couponRate, double yieldToMaturity, double nominalValue,
+                          int out, double[] cleanPrices, double[] accruedInterest, double[] allInPrices) {
+        double accrued = accruedInterest(settlementDate, lastCouponDate, couponRate, nominalValue);
+        double allInPrice = allInPrice(discountFactors, cashFlows, settlementDate, maturityDate, lastCouponDate, couponRate,
+                yieldToMaturity, nominalValue);
+
+        accruedInterest[out] = accrued;
+        allInPrices[out] = allInPrice;
+        cleanPrices[out] = allInPrice - accrued;
+    }
+
+    private double accruedInterest(int settlementDate, int lastCouponDate, double couponRate, double nominalValue) {
+        return couponRate * dayCount.yearFraction(lastCouponDate, settlementDate) * nominalValue;
+    }
+
+    private double allInPrice(DiscountFactorTable discountFactors, CashFlowCursor cashFlows, int settlementDate, int maturityDate,
+                              int lastCouponDate, double couponRate, double yieldToMaturity, double nominalValue) {
+        double logDiscountRate = DiscountFactorTable.logDiscountRate(yieldToMaturity, couponFrequency, dayCount.basis());
+        cashFlows.reset(settlementDate, maturityDate, lastCouponDate, couponRate, nominalValue);
+        return presentValue(cashFlows, discountFactors, logDiscountRate);
+    }
+
+    /* Function Objective: Price one validated position with the caller's discount factor table and cursor instead of the thread's
+     * For threads too short-lived to be worth a DiscountFactorTable of their own, such as the pricing server's connections */
+    void price(DiscountFactorTable discountFactors, CashFlowCursor cashFlows, int settlementDate, int maturityDate,
+               int lastCouponDate, double couponRate, double yieldToMaturity, double nominalValue,
+               double[] cleanPrice, double[] accruedInterest, double[] allInPrice) {
+        priceRow(discountFactors, cashFlows, settlementDate, maturityDate, lastCouponDate, couponRate, yieldToMaturity, nominalValue,
+                0, cleanPrice, accruedInterest, allInPrice);
+    }
+
+    /** Function Objective: Present value at each row's yield of its cash flows paid on or before horizonDate (epoch days)
+     * e.g. the PV of the coupons and redemptions of the next 12 months. Each row stops generating flows at the horizon,
+     * and each value agrees exactly with Bond.calculatePresentValueOfCashFlows(horizon) */
+    public void presentValues(BondPortfolio portfolio, int horizonDate, double[] presentValues) {
+        int size = portfolio.size();
+        if (presentValues.length < size) {
+            throw new IllegalArgumentException("Output array must be at least as long as the portfolio.");
+        }
+        DiscountFactorTable discountFactors = DiscountFactorTable.current();
+        CashFlowCursor cashFlows = cashFlowCursors.get();
+        for (int i = 0; i < size; i++) {
+            double logDiscountRate = DiscountFactorTable.logDiscountRate(portfolio.yieldsToMaturity[i], couponFrequency, dayCount.basis());
+            cashFlows.reset(portfolio.settlementDates[i], portfolio.maturityDates[i], portfolio.lastCouponDates[i],
+                    portfolio.couponRates[i], portfolio.nominalValues[i], horizonDate);
+            presentValues[i] = presentValue(cashFlows, discountFactors, logDiscountRate);
+        }
+    }
+
+    /* Function Objective: Sum of the PVs of the cursor's remaining flows - coupons are summed first and the nominal added last,
+     * the same order as Bond, so a horizon past maturity gives exactly the all-in-price */
+    static double presentValue(CashFlowCursor cashFlows, DiscountFactorTable discountFactors, double logDiscountRate) {
+        double presentValueOfFaceValue = 0.0;
+        double presentValueOfCoupons = 0.0;
+        while (cashFlows.next()) {
+            double pv = cashFlows.amount() * discountFactors.discountFactor(logDiscountRate, cashFlows.days());
+            if (cashFlows.isPrincipal()) {
+                presentValueOfFaceValue = pv;
+            } else {
+                presentValueOfCoupons += pv;
+            }
+        }
+        return presentValueOfCoupons + presentValueOfFaceValue;
+    }
+
+    /** Function Objective: Reprice every row against a curve instead of each row's yield to maturity
+     * Each row's cash-flow dates come from the shared CouponScheduleRegistry and are looked up on the curve in one sorted bulk call,
+     * so a new curve reprices the portfolio without rebuilding anything. Each row agrees exactly with Bond.calculateAllInPrice(curve) */
+    public void price(BondPortfolio portfolio, DiscountCurve curve,
+                      double[] cleanPrices, double[] accruedInterest, double[] allInPrices) {
+        int size = portfolio.size();
+        if (cleanPrices.length < size || accruedInterest.length < size || allInPrices.length < size) {
+            throw new IllegalArgumentException("Output arrays must be at least as long as the portfolio.");
+        }
+        double[] rates = new double[64];
+        for (int i = 0; i < size; i++) {
+            rates = price(curve, rates, portfolio.settlementDates[i], portfolio.maturityDates[i], portfolio.lastCouponDates[i],
+                    portfolio.couponRates[i], portfolio.nominalValues[i], i, cleanPrices, accruedInterest, allInPrices);
+        }
+    }
+
+    /* Function Objective: Price one validated position off the curve and write its results at index out of the result arrays
+     * rates is the caller's buffer for the curve rates of the cash flows - it is returned, replaced by a longer one if it was too short */
+    double[] price(DiscountCurve curve, double[] rates, int settlementDate, int maturityDate, int lastCouponDate,
+                   double couponRate, double nominalValue, int out, double[] cleanPrices, double[] accruedInterest, double[] allInPrices) {
+        CouponSchedule schedule = CouponScheduleRegistry.shared().schedule(lastCouponDate, maturityDate, monthsBetweenCoupons);
+        int[] cashFlowDates = schedule.cashFlowDates();
+        if (rates.length < cashFlowDates.length) {
+            rates = new double[cashFlowDates.length];
+        }
+        curve.getRates(cashFlowDates, rates);
+
+        double accrued = couponRate * dayCount.yearFraction(lastCouponDate, settlementDate) * nominalValue;
+
+        double couponPayment = (couponRate / couponFrequency) * nominalValue;
+        double presentValueOfCoupons = 0.0;
+        int coupons = schedule.size();
+        for (int c = 0; c < coupons; c++) {
+            double exponent = dayCount.yearFraction(settlementDate, cashFlowDates[c]) * couponFrequency;
+            presentValueOfCoupons += couponPayment / Math.pow(1 + rates[c] / 100 / couponFrequency, exponent);
+        }
+        double faceValueExponent = dayCount.yearFraction(settlementDate, maturityDate) * couponFrequency;
+        double presentValueOfFaceValue = nominalValue / Math.pow(1 + rates[coupons] / 100 / couponFrequency, faceValueExponent);
+
+        accruedInterest[out] = accrued;
+        allInPrices[out] = presentValueOfCoupons + presentValueOfFaceValue;
+        cleanPrices[out] = allInPrices[out] - accrued;
+        return rates;
+    }
+}
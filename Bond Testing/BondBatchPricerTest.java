@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+class BondBatchPricerTest {
+    private static final double DAY_COUNT_CONVENTION = 365;
+    private static final int COUPON_FREQUENCY = 2;
+
+    private static int epochDay(String date) {
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+
+    private static Bond bond(String settlement, String maturity, String lastCoupon, double couponRate, double yieldToMaturity, double faceValue) {
+        return new Bond(LocalDate.parse(settlement), LocalDate.parse(maturity), LocalDate.parse(lastCoupon),
+                couponRate, yieldToMaturity, faceValue, DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+    }
+
+    @Test //The batch pricer must agree exactly with the Bond methods on the R186 and R2032 examples used in Main
+    void testAgreesExactlyWithBond() {
+        Bond[] bonds = {
+                bond("2017-02-07", "2026-12-21", "2016-12-21", 0.105, 0.0875, 100),
+                bond("2024-05-16", "2032-03-31", "2024-03-31", 0.0825, 0.095, 100),
+                bond("2017-02-07", "2026-12-21", "2016-12-21", 0.105, 0.0875, 1_000_000),
+                bond("2024-05-16", "2032-03-31", "2024-03-31", 0.0825, 0.095, 2_500_000.50)
+        };
+        BondPortfolio portfolio = new BondPortfolio(
+                new int[]{epochDay("2017-02-07"), epochDay("2024-05-16"), epochDay("2017-02-07"), epochDay("2024-05-16")},
+                new int[]{epochDay("2026-12-21"), epochDay("2032-03-31"), epochDay("2026-12-21"), epochDay("2032-03-31")},
+                new int[]{epochDay("2016-12-21"), epochDay("2024-03-31"), epochDay("2016-12-21"), epochDay("2024-03-31")},
+                new double[]{0.105, 0.0825, 0.105, 0.0825},
+                new double[]{0.0875, 0.095, 0.0875, 0.095},
+                new double[]{100, 100, 1_000_000, 2_500_000.50});
+        double[] clean = new double[portfolio.size()];
+        double[] accrued = new double[portfolio.size()];
+        double[] allIn = new double[portfolio.size()];
+
+        new BondBatchPricer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY).price(portfolio, clean, accrued, allIn);
+
+        for (int i = 0; i < bonds.length; i++) {
+            assertEquals(bonds[i].calculateCleanPrice(), clean[i], 0.0);
+            assertEquals(bonds[i].calculateAccruedInterest(), accrued[i], 0.0);
+            assertEquals(bonds[i].calculateAllInPrice(), allIn[i], 0.0);
+        }
+    }
+
+    @Test //Rows are validated with the same rules as the Bond constructor
+    void testInvalidRowsAreRejected() {
+        int settlement = epochDay("2024-05-16");
+        int maturity = epochDay("2032-03-31");
+        int lastCoupon = epochDay("2024-03-31");
+
+        assertThrows(IllegalArgumentException.class, () -> new BondPortfolio(new int[]{settlement}, new int[]{maturity},
+                new int[]{lastCoupon}, new double[]{0.0825}, new double[]{-0.095}, new double[]{100}));
+        assertThrows(IllegalArgumentException.class, () -> new BondPortfolio(new int[]{maturity}, new int[]{settlement},
+                new int[]{lastCoupon}, new double[]{0.0825}, new double[]{0.095}, new double[]{100}));
+        assertThrows(IllegalArgumentException.class, () -> new BondPortfolio(new int[]{lastCoupon}, new int[]{maturity},
+                new int[]{settlement}, new double[]{0.0825}, new double[]{0.095}, new double[]{100}));
+        assertThrows(IllegalArgumentException.class, () -> new BondPortfolio(new int[]{settlement, settlement}, new int[]{maturity},
+                new int[]{lastCoupon}, new double[]{0.0825}, new double[]{0.095}, new double[]{100}));
+    }
+}
@@ -0,0 +1,243 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** Off-heap columnar store of bond positions with a fixed capacity.
+ * The same six columns as BondPortfolio (settlement, maturity and last coupon date as int epoch days, then coupon rate,
+ * yield to maturity and nominal as doubles) are laid out one after the other in a single direct or memory-mapped buffer,
+ * so a universe of millions of bonds costs 36 bytes a row outside the heap and no Bond or LocalDate objects at all.
+ * BondBatchPricer prices the rows straight from the buffer.
+ * A store created on a file is memory-mapped and can be opened again after a restart without re-parsing anything.
+ * The file starts with a HEADER_SIZE byte header (magic number, version, capacity and size) and is little-endian on
+ * every platform. Appending is not thread-safe. Reading rows that have already been appended is, from any thread: the size
+ * is volatile and written after the row, so a reader that sees a row counted sees all of it. */
+public final class BondStore implements Closeable {
+    static final int HEADER_SIZE = 64;
+    //Bytes per row across all columns: three int dates and three doubles
+    static final int ROW_SIZE = 3 * Integer.BYTES + 3 * Double.BYTES;
+    private static final int MAGIC = 0x424E4453; //"BNDS"
+    private static final int VERSION = 1;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+
+    private final ByteBuffer buffer;
+    private final FileChannel channel;
+    private final int capacity;
+    private final int maturityDates;
+    private final int lastCouponDates;
+    private final int couponRates;
+    private final int yieldsToMaturity;
+    private final int nominalValues;
+    private volatile int size;
+
+    private BondStore(ByteBuffer buffer, FileChannel channel, int capacity, int size) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = channel;
+        this.capacity = capacity;
+        this.size = size;
+        //Int columns first, then the double columns starting on an 8-byte boundary
+        this.maturityDates = HEADER_SIZE + capacity * Integer.BYTES;
+        this.lastCouponDates = maturityDates + capacity * Integer.BYTES;
+        this.couponRates = align(lastCouponDates + capacity * Integer.BYTES);
+        this.yieldsToMaturity = couponRates + capacity * Double.BYTES;
+        this.nominalValues = yieldsToMaturity + capacity * Double.BYTES;
+    }
+
+    /** Function Objective: Empty store in a direct buffer outside the heap, lost when the store is garbage collected */
+    public static BondStore allocateDirect(int capacity) {
+        BondStore store = new BondStore(ByteBuffer.allocateDirect((int) bytesFor(capacity)), null, capacity, 0);
+        store.writeHeader();
+        return store;
+    }
+
+    /** Function Objective: Empty store memory-mapped onto a new file, any existing file is replaced */
+    public static BondStore create(Path file, int capacity) throws IOException {
+        long bytes = bytesFor(capacity);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            BondStore store = new BondStore(buffer, channel, capacity, 0);
+            store.writeHeader();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Function Objective: Map a store written earlier by create() back in, rows can still be appended up to its capacity */
+    public static BondStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException(file + " is not a bond store.");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a version " + VERSION + " bond store.");
+            }
+            int capacity = header.getInt(CAPACITY_OFFSET);
+            int size = header.getInt(SIZE_OFFSET);
+            if (capacity < 0 || size < 0 || size > capacity || channel.size() != bytesFor(capacity)) {
+                throw new IOException(file + " is truncated or corrupt.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytesFor(capacity));
+            return new BondStore(buffer, channel, capacity, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Function Objective: Store every row of a portfolio in a new direct store */
+    public static BondStore of(BondPortfolio portfolio) {
+        BondStore store = allocateDirect(portfolio.size());
+        for (int i = 0; i < portfolio.size(); i++) {
+            store.append(portfolio.settlementDates[i], portfolio.maturityDates[i], portfolio.lastCouponDates[i],
+                    portfolio.couponRates[i], portfolio.yieldsToMaturity[i], portfolio.nominalValues[i]);
+        }
+        return store;
+    }
+
+    //Total bytes of a store with the given capacity, header included
+    static long bytesFor(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative.");
+        }
+        long bytes = align(HEADER_SIZE + 3L * capacity * Integer.BYTES) + 3L * capacity * Double.BYTES;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A store holds at most " + (Integer.MAX_VALUE - HEADER_SIZE) / ROW_SIZE + " bonds.");
+        }
+        return bytes;
+    }
+
+    /** Function Objective: Append one position, validated with the same rules as the Bond constructor
+     * Dates are epoch days (LocalDate.toEpochDay()), the new row's index is returned */
+    public int append(int settlementDate, int maturityDate, int lastCouponDate,
+                      double couponRate, double yieldToMaturity, double nominalValue) {
+        if (size == capacity) {
+            throw new IllegalStateException("The store is full (" + capacity + " bonds).");
+        }
+        BondPortfolio.validate(settlementDate, maturityDate, lastCouponDate, couponRate, yieldToMaturity, nominalValue);
+        int row = size;
+        buffer.putInt(HEADER_SIZE + row * Integer.BYTES, settlementDate);
+        buffer.putInt(maturityDates + row * Integer.BYTES, maturityDate);
+        buffer.putInt(lastCouponDates + row * Integer.BYTES, lastCouponDate);
+        buffer.putDouble(couponRates + row * Double.BYTES, couponRate);
+        buffer.putDouble(yieldsToMaturity + row * Double.BYTES, yieldToMaturity);
+        buffer.putDouble(nominalValues + row * Double.BYTES, nominalValue);
+        //The size goes in last, so other threads only ever see complete rows. The file gets no such guarantee: the OS may write
+        //the header's page to disk before the rows' pages, so only rows appended before the last force() survive a crash intact
+        size = row + 1;
+        buffer.putInt(SIZE_OFFSET, row + 1);
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int getSettlementDate(int row) {
+        return buffer.getInt(HEADER_SIZE + checkRow(row) * Integer.BYTES);
+    }
+
+    public int getMaturityDate(int row) {
+        return buffer.getInt(maturityDates + checkRow(row) * Integer.BYTES);
+    }
+
+    public int getLastCouponDate(int row) {
+        return buffer.getInt(lastCouponDates + checkRow(row) * Integer.BYTES);
+    }
+
+    public double getCouponRate(int row) {
+        return buffer.getDouble(couponRates + checkRow(row) * Double.BYTES);
+    }
+
+    public double getYieldToMaturity(int row) {
+        return buffer.getDouble(yieldsToMaturity + checkRow(row) * Double.BYTES);
+    }
+
+    public double getNominalValue(int row) {
+        return buffer.getDouble(nominalValues + checkRow(row) * Double.BYTES);
+    }
+
+    //Unchecked reads for batch loops that checked their row range against one read of size() up front,
+    //so a loop over the store pays no volatile read per field
+    int settlementDate(int row) {
+        return buffer.getInt(HEADER_SIZE + row * Integer.BYTES);
+    }
+
+    int maturityDate(int row) {
+        return buffer.getInt(maturityDates + row * Integer.BYTES);
+    }
+
+    int lastCouponDate(int row) {
+        return buffer.getInt(lastCouponDates + row * Integer.BYTES);
+    }
+
+    double couponRate(int row) {
+        return buffer.getDouble(couponRates + row * Double.BYTES);
+    }
+
+    double yieldToMaturity(int row) {
+        return buffer.getDouble(yieldsToMaturity + row * Double.BYTES);
+    }
+
+    double nominalValue(int row) {
+        return buffer.getDouble(nominalValues + row * Double.BYTES);
+    }
+
+    /** Function Objective: Write the rows of a memory-mapped store through to the file, does nothing for a direct store
+     * The rows are forced before the header, so a crash part way through a force() cannot leave a forced size ahead of its rows */
+    public void force() {
+        if (buffer instanceof MappedByteBuffer) {
+            MappedByteBuffer mapped = (MappedByteBuffer) buffer;
+            mapped.force(HEADER_SIZE, mapped.capacity() - HEADER_SIZE);
+            mapped.force(0, HEADER_SIZE);
+        }
+    }
+
+    /** Function Objective: Flush a memory-mapped store and close its file
+     * The mapping itself is released by the garbage collector, the store must not be used afterwards */
+    @Override
+    public void close() throws IOException {
+        force();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private int checkRow(int row) {
+        int rows = size;
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the store of " + rows + " bonds.");
+        }
+        return row;
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(SIZE_OFFSET, size);
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
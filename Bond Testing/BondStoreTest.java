@@ -0,0 +1,121 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+class BondStoreTest {
+    private static final double DAY_COUNT_CONVENTION = 365;
+    private static final int COUPON_FREQUENCY = 2;
+
+    @TempDir
+    Path directory;
+
+    //A book of size random SAGB-like positions with maturities of up to 30 years
+    private static BondPortfolio portfolio(int size, long seed) {
+        Random random = new Random(seed);
+        int[] settlementDates = new int[size];
+        int[] maturityDates = new int[size];
+        int[] lastCouponDates = new int[size];
+        double[] couponRates = new double[size];
+        double[] yields = new double[size];
+        double[] nominals = new double[size];
+        int settlement = (int) LocalDate.parse("2024-05-16").toEpochDay();
+        for (int i = 0; i < size; i++) {
+            settlementDates[i] = settlement;
+            maturityDates[i] = settlement + 1 + random.nextInt(30 * 365);
+            lastCouponDates[i] = settlement - random.nextInt(182);
+            couponRates[i] = 0.05 + random.nextInt(800) / 10_000.0;
+            yields[i] = 0.06 + random.nextInt(600) / 10_000.0;
+            nominals[i] = 1_000 + random.nextInt(10_000_000);
+        }
+        return new BondPortfolio(settlementDates, maturityDates, lastCouponDates, couponRates, yields, nominals);
+    }
+
+    @Test //Pricing rows straight from the off-heap store must agree exactly with pricing the same BondPortfolio
+    void testStorePricesLikePortfolio() {
+        BondPortfolio portfolio = portfolio(10_000, 21);
+        BondStore store = BondStore.of(portfolio);
+        assertEquals(portfolio.size(), store.size());
+        BondBatchPricer pricer = new BondBatchPricer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+        int size = portfolio.size();
+        double[] clean = new double[size];
+        double[] accrued = new double[size];
+        double[] allIn = new double[size];
+        double[] storeClean = new double[size];
+        double[] storeAccrued = new double[size];
+        double[] storeAllIn = new double[size];
+        pricer.price(portfolio, clean, accrued, allIn);
+        pricer.price(store, 0, size, storeClean, storeAccrued, storeAllIn);
+        assertArrayEquals(clean, storeClean, 0.0);
+        assertArrayEquals(accrued, storeAccrued, 0.0);
+        assertArrayEquals(allIn, storeAllIn, 0.0);
+    }
+
+    @Test //A memory-mapped store must come back from disk with every row intact, and accept more rows up to its capacity
+    void testPersistAndReopen() throws IOException {
+        Path file = directory.resolve("universe.bonds");
+        BondPortfolio portfolio = portfolio(1_000, 8);
+        try (BondStore store = BondStore.create(file, 1_500)) {
+            for (int i = 0; i < portfolio.size(); i++) {
+                store.append(portfolio.settlementDates[i], portfolio.maturityDates[i], portfolio.lastCouponDates[i],
+                        portfolio.couponRates[i], portfolio.yieldsToMaturity[i], portfolio.nominalValues[i]);
+            }
+        }
+        assertEquals(BondStore.bytesFor(1_500), Files.size(file));
+        try (BondStore store = BondStore.open(file)) {
+            assertEquals(1_000, store.size());
+            assertEquals(1_500, store.capacity());
+            for (int i = 0; i < portfolio.size(); i++) {
+                assertEquals(portfolio.settlementDates[i], store.getSettlementDate(i));
+                assertEquals(portfolio.maturityDates[i], store.getMaturityDate(i));
+                assertEquals(portfolio.lastCouponDates[i], store.getLastCouponDate(i));
+                assertEquals(portfolio.couponRates[i], store.getCouponRate(i), 0.0);
+                assertEquals(portfolio.yieldsToMaturity[i], store.getYieldToMaturity(i), 0.0);
+                assertEquals(portfolio.nominalValues[i], store.getNominalValue(i), 0.0);
+            }
+            assertEquals(1_000, store.append(portfolio.settlementDates[0], portfolio.maturityDates[0], portfolio.lastCouponDates[0],
+                    0.08, 0.09, 100));
+        }
+        try (BondStore store = BondStore.open(file)) {
+            assertEquals(1_001, store.size());
+            assertEquals(0.09, store.getYieldToMaturity(1_000), 0.0);
+        }
+    }
+
+    @Test //Rows are validated like Bond, a full store refuses more rows and rows past the size cannot be read
+    void testInvalidRowsAndCapacity() {
+        int settlement = (int) LocalDate.parse("2024-05-16").toEpochDay();
+        BondStore store = BondStore.allocateDirect(1);
+        assertThrows(IllegalArgumentException.class, () -> store.append(settlement, settlement, settlement, 0.08, 0.09, 100));
+        assertThrows(IllegalArgumentException.class, () -> store.append(settlement, settlement + 365, settlement + 1, 0.08, 0.09, 100));
+        assertThrows(IllegalArgumentException.class, () -> store.append(settlement, settlement + 365, settlement, -0.08, 0.09, 100));
+        assertEquals(0, store.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getCouponRate(0));
+        store.append(settlement, settlement + 365, settlement, 0.08, 0.09, 100);
+        assertThrows(IllegalStateException.class, () -> store.append(settlement, settlement + 365, settlement, 0.08, 0.09, 100));
+        //The batch pricer reads rows unchecked, so its range is checked against the size before any row is read
+        BondBatchPricer pricer = new BondBatchPricer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+        double[] prices = new double[2];
+        assertThrows(IndexOutOfBoundsException.class, () -> pricer.price(store, 0, 2, prices, prices, prices));
+        assertThrows(IllegalArgumentException.class, () -> BondStore.allocateDirect(Integer.MAX_VALUE));
+    }
+
+    @Test //A file that is not a bond store, or has been cut short, is refused
+    void testRejectsForeignAndTruncatedFiles() throws IOException {
+        Path foreign = directory.resolve("foreign.bonds");
+        Files.write(foreign, new byte[128]);
+        assertThrows(IOException.class, () -> BondStore.open(foreign));
+
+        Path truncated = directory.resolve("truncated.bonds");
+        BondStore.create(truncated, 100).close();
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> BondStore.open(truncated));
+    }
+}
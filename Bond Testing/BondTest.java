@@ -146,4 +146,28 @@ class BondTest {
         assertTrue(cleanPrice < faceValue, "Clean price should be less than face value when yield is greater than coupon rate.");
         assertTrue(allInPrice < faceValue, "Dirty price should be less than face value when yield is greater than coupon rate.");
     }
+
+    @Test //The coupon schedule is cached, and the cached valuation must be refreshed when a setter changes a pricing input
+    void testSettersInvalidateCachedValuation() {
+        assertSame(bond.generateCouponDates(), bond.generateCouponDates(), "Coupon schedule should be generated once and reused.");
+        double cleanPrice = bond.calculateCleanPrice();
+
+        bond.setYield(0.10);
+        double repricedCleanPrice = bond.calculateCleanPrice();
+        assertTrue(repricedCleanPrice < cleanPrice, "A higher yield must lower the cached clean price.");
+
+        Bond freshBond = new Bond(bond.getSettlementDate(), bond.getMaturityDate(), bond.getLastCouponDate(), bond.getCouponRate(), 0.10, bond.getFaceValue(), bond.getDayCountConvention(), bond.getCouponFrequency());
+        assertEquals(freshBond.calculateCleanPrice(), repricedCleanPrice, 0.0);
+        assertEquals(freshBond.calculateAllInPrice(), bond.calculateAllInPrice(), 0.0);
+    }
+
+    @Test //Changing the maturity date must regenerate the cached coupon schedule
+    void testScheduleSettersInvalidateCouponDates() {
+        List<LocalDate> couponDates = bond.generateCouponDates();
+        bond.setMaturityDate(LocalDate.parse("2030-03-31"));
+        List<LocalDate> shorterCouponDates = bond.generateCouponDates();
+
+        assertEquals(couponDates.size() - 4, shorterCouponDates.size());
+        assertFalse(shorterCouponDates.get(shorterCouponDates.size() - 1).isAfter(bond.getMaturityDate()), "Last coupon date should be on or before the new maturity date.");
+    }
 }
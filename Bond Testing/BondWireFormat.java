@@ -0,0 +1,254 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/** Fixed-layout binary encoding of bond positions and their prices, for moving batches between processes or to disk.
+ * A message starts at the buffer's position with a HEADER_SIZE byte header (magic number, kind, record count, reserved)
+ * followed by count records of one fixed size, all little-endian:
+ *   bond record   (BOND_SIZE bytes)   - settlement, maturity and last coupon date as int epoch days, 4 reserved bytes,
+ *                                       then coupon rate, yield to maturity and nominal as IEEE doubles
+ *   result record (RESULT_SIZE bytes) - clean price, accrued interest and all-in price as IEEE doubles
+ * The doubles of every record sit on an 8-byte boundary of the message. Fields are read and written at absolute offsets, so
+ * a single record can be read in place (settlementDate(message, row), cleanPrice(message, row), ...) without decoding the
+ * rest of the message, and BondBatchPricer.price(ByteBuffer, ByteBuffer) prices a bond message straight into a result message.
+ * No String, LocalDate or per-row object is created. Every field is read and written little-endian through VarHandle views,
+ * whatever the byte order of the buffers passed in, and that byte order is left as it was. */
+public final class BondWireFormat {
+    public static final int HEADER_SIZE = 16;
+    public static final int BOND_SIZE = 40;
+    public static final int RESULT_SIZE = 24;
+    private static final int MAGIC = 0x424E4457; //"BNDW"
+    private static final int BONDS = 1;
+    private static final int RESULTS = 2;
+    private static final int COUNT_OFFSET = 8;
+    //Little-endian views of any ByteBuffer at a byte offset, independent of (and not changing) the buffer's own byte order
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle DOUBLE = MethodHandles.byteBufferViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private BondWireFormat() {
+    }
+
+    //Bytes of a bond message with count records, header included
+    public static int bondsSize(int count) {
+        return messageSize(count, BOND_SIZE);
+    }
+
+    //Bytes of a result message with count records, header included
+    public static int resultsSize(int count) {
+        return messageSize(count, RESULT_SIZE);
+    }
+
+    private static int messageSize(int count, int recordSize) {
+        if (count < 0 || count > (Integer.MAX_VALUE - HEADER_SIZE) / recordSize) {
+            throw new IllegalArgumentException("A message holds between 0 and " + (Integer.MAX_VALUE - HEADER_SIZE) / recordSize + " records.");
+        }
+        return HEADER_SIZE + count * recordSize;
+    }
+
+    /** Function Objective: Encode the rows from (inclusive) to to (exclusive) of a portfolio as one bond message
+     * The message is written at out's position, which is moved past it */
+    public static void encode(BondPortfolio portfolio, int from, int to, ByteBuffer out) {
+        if (from < 0 || to > portfolio.size() || from > to) {
+            throw new IndexOutOfBoundsException("Row range [" + from + ", " + to + ") is outside the portfolio.");
+        }
+        int start = begin(out, BONDS, to - from, BOND_SIZE);
+        for (int i = from; i < to; i++) {
+            putBond(out, start + HEADER_SIZE + (i - from) * BOND_SIZE, portfolio.settlementDates[i], portfolio.maturityDates[i],
+                    portfolio.lastCouponDates[i], portfolio.couponRates[i], portfolio.yieldsToMaturity[i], portfolio.nominalValues[i]);
+        }
+    }
+
+    /** Function Objective: Encode bonds as one bond message, written at out's position, which is moved past it */
+    public static void encode(List<Bond> bonds, ByteBuffer out) {
+        int start = begin(out, BONDS, bonds.size(), BOND_SIZE);
+        for (int i = 0; i < bonds.size(); i++) {
+            Bond bond = bonds.get(i);
+            putBond(out, start + HEADER_SIZE + i * BOND_SIZE, bond.settlementDay(), bond.maturityDay(), bond.lastCouponDay(),
+                    bond.couponRate(), bond.yield(), bond.nominal());
+        }
+    }
+
+    /** Function Objective: Encode the rows from (inclusive) to to (exclusive) of the result arrays as one result message
+     * The message is written at out's position, which is moved past it */
+    public static void encodeResults(double[] cleanPrices, double[] accruedInterest, double[] allInPrices, int from, int to,
+                                     ByteBuffer out) {
+        if (from < 0 || to > cleanPrices.length || to > accruedInterest.length || to > allInPrices.length || from > to) {
+            throw new IndexOutOfBoundsException("Row range [" + from + ", " + to + ") is outside the result arrays.");
+        }
+        int start = begin(out, RESULTS, to - from, RESULT_SIZE);
+        for (int i = from; i < to; i++) {
+            putResult(out, start + HEADER_SIZE + (i - from) * RESULT_SIZE, cleanPrices[i], accruedInterest[i], allInPrices[i]);
+        }
+    }
+
+    /** Function Objective: Decode the bond message at in's position into a portfolio and move in's position past it
+     * Every row is validated with the same rules as the Bond constructor */
+    public static BondPortfolio decodeBonds(ByteBuffer in) {
+        int count = bondCount(in);
+        int start = in.position();
+        int[] settlementDates = new int[count];
+        int[] maturityDates = new int[count];
+        int[] lastCouponDates = new int[count];
+        double[] couponRates = new double[count];
+        double[] yieldsToMaturity = new double[count];
+        double[] nominalValues = new double[count];
+        for (int i = 0; i < count; i++) {
+            settlementDates[i] = settlementDate(in, i);
+            maturityDates[i] = maturityDate(in, i);
+            lastCouponDates[i] = lastCouponDate(in, i);
+            couponRates[i] = couponRate(in, i);
+            yieldsToMaturity[i] = yieldToMaturity(in, i);
+            nominalValues[i] = nominalValue(in, i);
+        }
+        BondPortfolio portfolio = new BondPortfolio(settlementDates, maturityDates, lastCouponDates, couponRates,
+                yieldsToMaturity, nominalValues);
+        in.position(start + bondsSize(count));
+        return portfolio;
+    }
+
+    /** Function Objective: Decode the result message at in's position into the arrays, from index 0, and move in's position
+     * past it - the number of results is returned */
+    public static int decodeResults(ByteBuffer in, double[] cleanPrices, double[] accruedInterest, double[] allInPrices) {
+        int count = resultCount(in);
+        if (cleanPrices.length < count || accruedInterest.length < count || allInPrices.length < count) {
+            throw new IllegalArgumentException("Output arrays must be at least as long as the message (" + count + " results).");
+        }
+        for (int i = 0; i < count; i++) {
+            cleanPrices[i] = cleanPrice(in, i);
+            accruedInterest[i] = accruedInterest(in, i);
+            allInPrices[i] = allInPrice(in, i);
+        }
+        in.position(in.position() + resultsSize(count));
+        return count;
+    }
+
+    /** Function Objective: Number of records of the bond message at message's position, checking that all of it is there */
+    public static int bondCount(ByteBuffer message) {
+        return count(message, BONDS, BOND_SIZE);
+    }
+
+    /** Function Objective: Number of records of the result message at message's position, checking that all of it is there */
+    public static int resultCount(ByteBuffer message) {
+        return count(message, RESULTS, RESULT_SIZE);
+    }
+
+    //Fields of record row of the bond message at message's position, read in place once bondCount has checked the message
+    public static int settlementDate(ByteBuffer message, int row) {
+        return getInt(message, bond(message, row));
+    }
+
+    public static int maturityDate(ByteBuffer message, int row) {
+        return getInt(message, bond(message, row) + 4);
+    }
+
+    public static int lastCouponDate(ByteBuffer message, int row) {
+        return getInt(message, bond(message, row) + 8);
+    }
+
+    public static double couponRate(ByteBuffer message, int row) {
+        return getDouble(message, bond(message, row) + 16);
+    }
+
+    public static double yieldToMaturity(ByteBuffer message, int row) {
+        return getDouble(message, bond(message, row) + 24);
+    }
+
+    public static double nominalValue(ByteBuffer message, int row) {
+        return getDouble(message, bond(message, row) + 32);
+    }
+
+    //Fields of record row of the result message at message's position, read in place once resultCount has checked the message
+    public static double cleanPrice(ByteBuffer message, int row) {
+        return getDouble(message, result(message, row));
+    }
+
+    public static double accruedInterest(ByteBuffer message, int row) {
+        return getDouble(message, result(message, row) + 8);
+    }
+
+    public static double allInPrice(ByteBuffer message, int row) {
+        return getDouble(message, result(message, row) + 16);
+    }
+
+    //Starts a result message of count records, see begin
+    static int beginResults(ByteBuffer out, int count) {
+        return begin(out, RESULTS, count, RESULT_SIZE);
+    }
+
+    /* Function Objective: Write the header of a message of count records at out's position and move the position past the
+     * whole message, returning where it starts - the records are then written at absolute offsets */
+    private static int begin(ByteBuffer out, int kind, int count, int recordSize) {
+        int size = messageSize(count, recordSize);
+        if (out.remaining() < size) {
+            throw new IllegalArgumentException("The buffer has " + out.remaining() + " bytes left but the message needs " + size + ".");
+        }
+        int start = out.position();
+        putInt(out, start, MAGIC);
+        putInt(out, start + 4, kind);
+        putInt(out, start + COUNT_OFFSET, count);
+        putInt(out, start + 12, 0);
+        out.position(start + size);
+        return start;
+    }
+
+    static void putBond(ByteBuffer out, int offset, int settlementDate, int maturityDate, int lastCouponDate,
+                        double couponRate, double yieldToMaturity, double nominalValue) {
+        putInt(out, offset, settlementDate);
+        putInt(out, offset + 4, maturityDate);
+        putInt(out, offset + 8, lastCouponDate);
+        putInt(out, offset + 12, 0);
+        putDouble(out, offset + 16, couponRate);
+        putDouble(out, offset + 24, yieldToMaturity);
+        putDouble(out, offset + 32, nominalValue);
+    }
+
+    static void putResult(ByteBuffer out, int offset, double cleanPrice, double accruedInterest, double allInPrice) {
+        putDouble(out, offset, cleanPrice);
+        putDouble(out, offset + 8, accruedInterest);
+        putDouble(out, offset + 16, allInPrice);
+    }
+
+    private static int count(ByteBuffer message, int kind, int recordSize) {
+        int start = message.position();
+        if (message.remaining() < HEADER_SIZE || getInt(message, start) != MAGIC) {
+            throw new IllegalArgumentException("The buffer does not hold a bond wire message at position " + start + ".");
+        }
+        if (getInt(message, start + 4) != kind) {
+            throw new IllegalArgumentException("Expected a " + (kind == BONDS ? "bond" : "result") + " message but found kind "
+                    + getInt(message, start + 4) + ".");
+        }
+        int count = getInt(message, start + COUNT_OFFSET);
+        if (count < 0 || count > (Integer.MAX_VALUE - HEADER_SIZE) / recordSize
+                || message.remaining() < HEADER_SIZE + count * recordSize) {
+            throw new IllegalArgumentException("The message at position " + start + " is truncated or corrupt.");
+        }
+        return count;
+    }
+
+    //Absolute offset of bond record row of the message at message's position
+    private static int bond(ByteBuffer message, int row) {
+        return message.position() + HEADER_SIZE + row * BOND_SIZE;
+    }
+
+    private static int result(ByteBuffer message, int row) {
+        return message.position() + HEADER_SIZE + row * RESULT_SIZE;
+    }
+
+    private static int getInt(ByteBuffer buffer, int offset) {
+        return (int) INT.get(buffer, offset);
+    }
+
+    private static double getDouble(ByteBuffer buffer, int offset) {
+        return (double) DOUBLE.get(buffer, offset);
+    }
+
+    private static void putInt(ByteBuffer buffer, int offset, int value) {
+        INT.set(buffer, offset, value);
+    }
+
+    private static void putDouble(ByteBuffer buffer, int offset, double value) {
+        DOUBLE.set(buffer, offset, value);
+    }
+}
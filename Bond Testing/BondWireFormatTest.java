@@ -0,0 +1,154 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+class BondWireFormatTest {
+    private static final LocalDate SETTLEMENT = LocalDate.parse("2024-05-16");
+
+    //Bytes allocated so far by the current thread, as counted by the JVM
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    //size random SAGB-like positions settling on the same day
+    private static BondPortfolio portfolio(int size, long seed) {
+        Random random = new Random(seed);
+        int settlement = (int) SETTLEMENT.toEpochDay();
+        int[] settlementDates = new int[size];
+        int[] maturityDates = new int[size];
+        int[] lastCouponDates = new int[size];
+        double[] couponRates = new double[size];
+        double[] yields = new double[size];
+        double[] nominals = new double[size];
+        for (int i = 0; i < size; i++) {
+            settlementDates[i] = settlement;
+            maturityDates[i] = settlement + 1 + random.nextInt(30 * 365);
+            lastCouponDates[i] = settlement - random.nextInt(182);
+            couponRates[i] = 0.05 + random.nextInt(800) / 10_000.0;
+            yields[i] = 0.06 + random.nextInt(600) / 10_000.0;
+            nominals[i] = 100 + random.nextInt(1_000_000);
+        }
+        return new BondPortfolio(settlementDates, maturityDates, lastCouponDates, couponRates, yields, nominals);
+    }
+
+    @Test //A portfolio survives an encode and decode unchanged, fields read in place agree, and positions move past the message
+    void testPortfolioRoundTrip() {
+        BondPortfolio portfolio = portfolio(500, 1);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(8 + BondWireFormat.bondsSize(500));
+        buffer.position(8);
+        BondWireFormat.encode(portfolio, 0, 500, buffer);
+        assertEquals(8 + BondWireFormat.bondsSize(500), buffer.position());
+
+        buffer.position(8);
+        assertEquals(500, BondWireFormat.bondCount(buffer));
+        assertEquals(portfolio.settlementDates[7], BondWireFormat.settlementDate(buffer, 7));
+        assertEquals(portfolio.nominalValues[499], BondWireFormat.nominalValue(buffer, 499), 0.0);
+        BondPortfolio decoded = BondWireFormat.decodeBonds(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertArrayEquals(portfolio.settlementDates, decoded.settlementDates);
+        assertArrayEquals(portfolio.maturityDates, decoded.maturityDates);
+        assertArrayEquals(portfolio.lastCouponDates, decoded.lastCouponDates);
+        assertArrayEquals(portfolio.couponRates, decoded.couponRates, 0.0);
+        assertArrayEquals(portfolio.yieldsToMaturity, decoded.yieldsToMaturity, 0.0);
+        assertArrayEquals(portfolio.nominalValues, decoded.nominalValues, 0.0);
+    }
+
+    @Test //The layout is fixed: little-endian header and 40-byte records with the doubles on 8-byte boundaries
+    void testLayoutIsLittleEndianAndFixed() {
+        Bond bond = new Bond(SETTLEMENT, LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"), 0.0825, 0.095, 100, 365, 2);
+        ByteBuffer buffer = ByteBuffer.allocate(BondWireFormat.bondsSize(1));
+        BondWireFormat.encode(List.of(bond), buffer);
+        assertEquals(56, buffer.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+        ByteBuffer raw = ByteBuffer.wrap(buffer.array()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x424E4457, raw.getInt(0));
+        assertEquals(1, raw.getInt(8));
+        assertEquals(SETTLEMENT.toEpochDay(), raw.getInt(16));
+        assertEquals(LocalDate.parse("2032-03-31").toEpochDay(), raw.getInt(20));
+        assertEquals(LocalDate.parse("2024-03-31").toEpochDay(), raw.getInt(24));
+        assertEquals(0.0825, raw.getDouble(32), 0.0);
+        assertEquals(0.095, raw.getDouble(40), 0.0);
+        assertEquals(100, raw.getDouble(48), 0.0);
+    }
+
+    @Test //Pricing a message straight into a result message agrees exactly with pricing the portfolio
+    void testPricingMessagesMatchesPortfolioPricing() {
+        BondPortfolio portfolio = portfolio(1_000, 2);
+        BondBatchPricer pricer = new BondBatchPricer(365, 2);
+        double[] clean = new double[1_000];
+        double[] accrued = new double[1_000];
+        double[] allIn = new double[1_000];
+        pricer.price(portfolio, clean, accrued, allIn);
+
+        ByteBuffer bonds = ByteBuffer.allocateDirect(BondWireFormat.bondsSize(1_000));
+        BondWireFormat.encode(portfolio, 0, 1_000, bonds);
+        bonds.flip();
+        ByteBuffer results = ByteBuffer.allocateDirect(BondWireFormat.resultsSize(1_000));
+        pricer.price(bonds, results);
+        assertFalse(bonds.hasRemaining());
+        results.flip();
+        assertEquals(allIn[999], BondWireFormat.allInPrice(results, 999), 0.0);
+
+        double[] decodedClean = new double[1_000];
+        double[] decodedAccrued = new double[1_000];
+        double[] decodedAllIn = new double[1_000];
+        assertEquals(1_000, BondWireFormat.decodeResults(results, decodedClean, decodedAccrued, decodedAllIn));
+        assertArrayEquals(clean, decodedClean, 0.0);
+        assertArrayEquals(accrued, decodedAccrued, 0.0);
+        assertArrayEquals(allIn, decodedAllIn, 0.0);
+
+        ByteBuffer encodedResults = ByteBuffer.allocate(BondWireFormat.resultsSize(1_000));
+        BondWireFormat.encodeResults(clean, accrued, allIn, 0, 1_000, encodedResults);
+        results.flip();
+        encodedResults.flip();
+        assertEquals(encodedResults, results);
+    }
+
+    @Test //Once warm, pricing a message into a result message creates no objects and leaves both buffers' byte order alone
+    void testPricingMessagesDoesNotAllocate() {
+        BondPortfolio portfolio = portfolio(1_000, 3);
+        BondBatchPricer pricer = new BondBatchPricer(365, 2);
+        ByteBuffer bonds = ByteBuffer.allocateDirect(BondWireFormat.bondsSize(1_000));
+        BondWireFormat.encode(portfolio, 0, 1_000, bonds);
+        ByteBuffer results = ByteBuffer.allocateDirect(BondWireFormat.resultsSize(1_000));
+        for (int i = 0; i < 50; i++) {
+            bonds.flip();
+            results.clear();
+            pricer.price(bonds, results);
+        }
+        long before = allocatedBytes();
+        for (int i = 0; i < 20; i++) {
+            bonds.flip();
+            results.clear();
+            pricer.price(bonds, results);
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue(allocated < 1_000, "Pricing messages allocated " + allocated + " bytes");
+        assertEquals(ByteOrder.BIG_ENDIAN, bonds.order());
+        assertEquals(ByteOrder.BIG_ENDIAN, results.order());
+    }
+
+    @Test //Foreign, truncated and mismatched messages, invalid rows and too small buffers are rejected
+    void testInvalidMessages() {
+        BondPortfolio portfolio = portfolio(10, 3);
+        ByteBuffer bonds = ByteBuffer.allocate(BondWireFormat.bondsSize(10));
+        BondWireFormat.encode(portfolio, 0, 10, bonds);
+        bonds.flip();
+        assertThrows(IllegalArgumentException.class, () -> BondWireFormat.resultCount(bonds));
+        assertThrows(IllegalArgumentException.class, () -> BondWireFormat.bondCount(bonds.duplicate().limit(bonds.limit() - 1)));
+        assertThrows(IllegalArgumentException.class, () -> BondWireFormat.bondCount(ByteBuffer.allocate(64)));
+        assertThrows(IllegalArgumentException.class, () -> BondWireFormat.encode(portfolio, 0, 10, ByteBuffer.allocate(100)));
+
+        bonds.order(ByteOrder.LITTLE_ENDIAN).putInt(BondWireFormat.HEADER_SIZE + 3 * BondWireFormat.BOND_SIZE + 4, 0);
+        ByteBuffer results = ByteBuffer.allocate(BondWireFormat.resultsSize(10));
+        assertThrows(IllegalArgumentException.class, () -> new BondBatchPricer(365, 2).price(bonds, results));
+        assertEquals(0, results.position());
+        assertThrows(IllegalArgumentException.class, () -> BondWireFormat.decodeBonds(bonds));
+    }
+}
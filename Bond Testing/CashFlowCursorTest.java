@@ -0,0 +1,143 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.List;
+
+class CashFlowCursorTest {
+    private static final LocalDate SETTLEMENT = LocalDate.parse("2024-05-16");
+    private static final LocalDate MATURITY = LocalDate.parse("2054-03-31");
+    private static final LocalDate LAST_COUPON = LocalDate.parse("2024-03-31");
+
+    //Bytes allocated so far by the current thread, as counted by the JVM
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static CashFlowCursor cursor(int horizonDate) {
+        return new CashFlowCursor(DayCount.ACTUAL_365, 2).reset((int) SETTLEMENT.toEpochDay(), (int) MATURITY.toEpochDay(),
+                (int) LAST_COUPON.toEpochDay(), 0.0825, 100, horizonDate);
+    }
+
+    @Test //The cursor hands out every coupon of the schedule and then the nominal, with the day counts and exponents Bond discounts with
+    void testFlowsMatchTheSchedule() {
+        Bond bond = new Bond(SETTLEMENT, MATURITY, LAST_COUPON, 0.0825, 0.095, 100, 365, 2);
+        List<LocalDate> couponDates = bond.generateCouponDates();
+        double[] exponents = bond.couponExponents();
+        CashFlowCursor cashFlows = cursor((int) MATURITY.toEpochDay());
+        for (int i = 0; i < couponDates.size(); i++) {
+            assertTrue(cashFlows.next());
+            assertFalse(cashFlows.isPrincipal());
+            assertEquals(couponDates.get(i).toEpochDay(), cashFlows.date());
+            assertEquals(cashFlows.date() - SETTLEMENT.toEpochDay(), cashFlows.days());
+            assertEquals(bond.couponPayment(), cashFlows.amount(), 0.0);
+            assertEquals(exponents[i], cashFlows.exponent(), 0.0);
+        }
+        assertTrue(cashFlows.next());
+        assertTrue(cashFlows.isPrincipal());
+        assertEquals(MATURITY.toEpochDay(), cashFlows.date());
+        assertEquals(100, cashFlows.amount(), 0.0);
+        assertEquals(bond.faceValueExponent(), cashFlows.exponent(), 0.0);
+        assertFalse(cashFlows.next());
+        assertFalse(cashFlows.next());
+    }
+
+    @Test //A horizon stops the cursor at the first flow after it, and the PV of the flows up to a horizon past maturity is the all-in-price
+    void testHorizonStopsEarly() {
+        int horizon = (int) SETTLEMENT.plusMonths(12).toEpochDay();
+        CashFlowCursor cashFlows = cursor(horizon);
+        assertTrue(cashFlows.next());
+        assertEquals(LocalDate.parse("2024-09-30").toEpochDay(), cashFlows.date());
+        assertTrue(cashFlows.next());
+        assertEquals(LocalDate.parse("2025-03-30").toEpochDay(), cashFlows.date());
+        assertFalse(cashFlows.next());
+        assertFalse(cursor((int) SETTLEMENT.toEpochDay()).next());
+
+        Bond bond = new Bond(SETTLEMENT, MATURITY, LAST_COUPON, 0.0825, 0.095, 100, 365, 2);
+        double b = 1 + 0.095 / 2;
+        double expected = bond.couponPayment() / Math.pow(b, 137 / 365.0 * 2) + bond.couponPayment() / Math.pow(b, 318 / 365.0 * 2);
+        assertEquals(expected, bond.calculatePresentValueOfCashFlows(SETTLEMENT.plusMonths(12)), 1e-10);
+        assertEquals(0.0, bond.calculatePresentValueOfCashFlows(SETTLEMENT), 0.0);
+        assertEquals(bond.calculateAllInPrice(), bond.calculatePresentValueOfCashFlows(MATURITY), 0.0);
+        assertEquals(bond.calculateAllInPrice(), bond.calculatePresentValueOfCashFlows(MATURITY.plusYears(1)), 0.0);
+        assertEquals(bond.calculateAllInPrice() - 100 * Math.exp(-(MATURITY.toEpochDay() - SETTLEMENT.toEpochDay())
+                        * DiscountFactorTable.logDiscountRate(0.095, 2, 365)),
+                bond.calculatePresentValueOfCashFlows(MATURITY.minusDays(1)), 1e-9);
+    }
+
+    @Test //The batch pricer's horizon PVs agree exactly with Bond's under any convention
+    void testBatchPresentValuesMatchBond() {
+        int size = 200;
+        int settlement = (int) SETTLEMENT.toEpochDay();
+        int[] settlementDates = new int[size];
+        int[] maturityDates = new int[size];
+        int[] lastCouponDates = new int[size];
+        double[] couponRates = new double[size];
+        double[] yields = new double[size];
+        double[] nominals = new double[size];
+        for (int i = 0; i < size; i++) {
+            settlementDates[i] = settlement;
+            maturityDates[i] = settlement + 30 + i * 53;
+            lastCouponDates[i] = settlement - i % 90;
+            couponRates[i] = 0.05 + i * 0.0002;
+            yields[i] = 0.06 + i * 0.0001;
+            nominals[i] = 100 + i;
+        }
+        BondPortfolio portfolio = new BondPortfolio(settlementDates, maturityDates, lastCouponDates, couponRates, yields, nominals);
+        double[] presentValues = new double[size];
+        LocalDate horizon = SETTLEMENT.plusMonths(18);
+        new BondBatchPricer(DayCount.THIRTY_360, 4).presentValues(portfolio, (int) horizon.toEpochDay(), presentValues);
+        for (int i = 0; i < size; i++) {
+            Bond bond = new Bond(SETTLEMENT, LocalDate.ofEpochDay(maturityDates[i]), LocalDate.ofEpochDay(lastCouponDates[i]),
+                    couponRates[i], yields[i], nominals[i], DayCount.THIRTY_360, 4);
+            assertEquals(bond.calculatePresentValueOfCashFlows(horizon), presentValues[i], 0.0);
+        }
+    }
+
+    @Test //Once warm, horizon queries on a bond and on a portfolio create no objects
+    void testHorizonQueriesDoNotAllocate() {
+        Bond bond = new Bond(SETTLEMENT, MATURITY, LAST_COUPON, 0.0825, 0.095, 100, 365, 2);
+        LocalDate horizon = SETTLEMENT.plusMonths(12);
+        double total = 0.0;
+        for (int i = 0; i < 20_000; i++) {
+            total += bond.calculatePresentValueOfCashFlows(horizon);
+        }
+        long before = allocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            total += bond.calculatePresentValueOfCashFlows(horizon);
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue(total > 0);
+        assertTrue(allocated < 1_000, "Horizon queries allocated " + allocated + " bytes");
+
+        int settlement = (int) SETTLEMENT.toEpochDay();
+        int size = 1_000;
+        int[] settlementDates = new int[size];
+        int[] maturityDates = new int[size];
+        int[] lastCouponDates = new int[size];
+        double[] couponRates = new double[size];
+        double[] yields = new double[size];
+        double[] nominals = new double[size];
+        for (int i = 0; i < size; i++) {
+            settlementDates[i] = settlement;
+            maturityDates[i] = settlement + 30 + i * 11;
+            lastCouponDates[i] = settlement - i % 180;
+            couponRates[i] = 0.0825;
+            yields[i] = 0.095;
+            nominals[i] = 100;
+        }
+        BondPortfolio portfolio = new BondPortfolio(settlementDates, maturityDates, lastCouponDates, couponRates, yields, nominals);
+        BondBatchPricer pricer = new BondBatchPricer(365, 2);
+        double[] presentValues = new double[size];
+        for (int i = 0; i < 50; i++) {
+            pricer.presentValues(portfolio, (int) horizon.toEpochDay(), presentValues);
+        }
+        before = allocatedBytes();
+        for (int i = 0; i < 20; i++) {
+            pricer.presentValues(portfolio, (int) horizon.toEpochDay(), presentValues);
+        }
+        allocated = allocatedBytes() - before;
+        assertTrue(allocated < 1_000, "Portfolio horizon queries allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+class CouponScheduleRegistryTest {
+
+    private static int epochDay(String date) {
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+
+    @Test //Two positions in the same SAGB line must be handed the same interned schedule
+    void testBondsOfTheSameLineShareOneSchedule() {
+        Bond first = new Bond(LocalDate.parse("2017-02-07"), LocalDate.parse("2026-12-21"), LocalDate.parse("2016-12-21"), 0.105, 0.0875, 100, 365, 2);
+        Bond second = new Bond(LocalDate.parse("2017-02-07"), LocalDate.parse("2026-12-21"), LocalDate.parse("2016-12-21"), 0.105, 0.09, 1_000_000, 365, 2);
+
+        assertSame(first.generateCouponDates(), second.generateCouponDates());
+    }
+
+    @Test //The epoch-day schedule must match the dates produced by repeatedly adding 6 months with LocalDate
+    void testScheduleMatchesLocalDateStepping() {
+        CouponScheduleRegistry registry = new CouponScheduleRegistry(16);
+        List<LocalDate> couponDates = registry.schedule(epochDay("2024-03-31"), epochDay("2032-03-31"), 6).asLocalDates();
+
+        LocalDate expected = LocalDate.parse("2024-03-31").plusMonths(6);
+        for (LocalDate couponDate : couponDates) {
+            assertEquals(expected, couponDate);
+            expected = expected.plusMonths(6);
+        }
+        assertTrue(expected.isAfter(LocalDate.parse("2032-03-31")), "All coupon dates up to maturity should be generated.");
+        //Pinned to the original Bond schedule: once 2024-09-30 is reached the March coupons of R2032 fall on the 30th
+        assertEquals(LocalDate.parse("2025-03-30"), couponDates.get(1));
+        assertEquals(LocalDate.parse("2032-03-30"), couponDates.get(couponDates.size() - 1));
+    }
+
+    @Test //Once the capacity is reached the least recently used schedule is evicted and regenerated on the next request
+    void testLeastRecentlyUsedScheduleIsEvicted() {
+        CouponScheduleRegistry registry = new CouponScheduleRegistry(2);
+        CouponSchedule r186 = registry.schedule(epochDay("2016-12-21"), epochDay("2026-12-21"), 6);
+        CouponSchedule r2032 = registry.schedule(epochDay("2024-03-31"), epochDay("2032-03-31"), 6);
+        assertSame(r186, registry.schedule(epochDay("2016-12-21"), epochDay("2026-12-21"), 6));
+
+        registry.schedule(epochDay("2024-01-31"), epochDay("2030-01-31"), 6);
+
+        assertEquals(2, registry.size());
+        assertSame(r186, registry.schedule(epochDay("2016-12-21"), epochDay("2026-12-21"), 6));
+        assertNotSame(r2032, registry.schedule(epochDay("2024-03-31"), epochDay("2032-03-31"), 6));
+        assertEquals(2, registry.getHits());
+        assertEquals(4, registry.getMisses());
+    }
+}
@@ -0,0 +1,87 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CurvePricingTest {
+    private static final LocalDate SETTLEMENT = LocalDate.parse("2024-05-16");
+
+    private static Bond r2032() {
+        return new Bond(SETTLEMENT, LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"), 0.0825, 0.095, 100, 365, 2);
+    }
+
+    //Rate rising by 0.25% per year from 8% at settlement
+    private static double slopedRate(int epochDay) {
+        return 8.0 + 0.25 * (epochDay - SETTLEMENT.toEpochDay()) / 365.0;
+    }
+
+    private static final DiscountCurve SLOPED = (epochDays, out) -> {
+        for (int i = 0; i < epochDays.length; i++) {
+            out[i] = slopedRate(epochDays[i]);
+        }
+    };
+
+    @Test //Pricing off a flat curve at the yield to maturity must give the yield to maturity price
+    void testFlatCurveMatchesYieldPricing() {
+        Bond bond = r2032();
+        DiscountCurve flat = (epochDays, out) -> Arrays.fill(out, 0, epochDays.length, 9.5);
+        assertEquals(bond.calculateAllInPrice(), bond.calculateAllInPrice(flat), 1e-9);
+        assertEquals(bond.calculateCleanPrice(), bond.calculateCleanPrice(flat), 1e-9);
+    }
+
+    @Test //Each coupon and the nominal must be discounted at the curve rate for its own date
+    void testEachCashFlowDiscountedAtItsCurveRate() {
+        Bond bond = r2032();
+        double expected = 0.0;
+        for (LocalDate couponDate : bond.generateCouponDates()) {
+            double days = couponDate.toEpochDay() - SETTLEMENT.toEpochDay();
+            expected += 0.0825 / 2 * 100 / Math.pow(1 + slopedRate((int) couponDate.toEpochDay()) / 100 / 2, days / 365 * 2);
+        }
+        LocalDate maturity = bond.getMaturityDate();
+        double daysToMaturity = maturity.toEpochDay() - SETTLEMENT.toEpochDay();
+        expected += 100 / Math.pow(1 + slopedRate((int) maturity.toEpochDay()) / 100 / 2, daysToMaturity / 365 * 2);
+
+        assertEquals(expected, bond.calculateAllInPrice(SLOPED), 1e-9);
+    }
+
+    @Test //The cash-flow dates are requested from the curve in one sorted call, and a bond can be repriced against a new curve
+    void testOneSortedCurveCallPerPricing() {
+        Bond bond = r2032();
+        AtomicInteger calls = new AtomicInteger();
+        DiscountCurve counting = (epochDays, out) -> {
+            calls.incrementAndGet();
+            for (int i = 1; i < epochDays.length; i++) {
+                assertTrue(epochDays[i - 1] <= epochDays[i], "Cash-flow dates must be sorted.");
+            }
+            SLOPED.getRates(epochDays, out);
+        };
+        double price = bond.calculateAllInPrice(counting);
+        assertEquals(1, calls.get());
+
+        DiscountCurve shifted = (epochDays, out) -> {
+            SLOPED.getRates(epochDays, out);
+            for (int i = 0; i < epochDays.length; i++) {
+                out[i] += 1.0;
+            }
+        };
+        assertTrue(bond.calculateAllInPrice(shifted) < price, "Higher curve rates must lower the price.");
+    }
+
+    @Test //The batch pricer's curve mode must agree exactly with Bond
+    void testBatchCurvePricingAgreesWithBond() {
+        Bond bond = r2032();
+        BondPortfolio portfolio = new BondPortfolio(new int[]{(int) SETTLEMENT.toEpochDay()},
+                new int[]{(int) LocalDate.parse("2032-03-31").toEpochDay()}, new int[]{(int) LocalDate.parse("2024-03-31").toEpochDay()},
+                new double[]{0.0825}, new double[]{0.095}, new double[]{100});
+        double[] clean = new double[1];
+        double[] accrued = new double[1];
+        double[] allIn = new double[1];
+        new BondBatchPricer(365, 2).price(portfolio, SLOPED, clean, accrued, allIn);
+
+        assertEquals(bond.calculateAllInPrice(SLOPED), allIn[0], 0.0);
+        assertEquals(bond.calculateCleanPrice(SLOPED), clean[0], 0.0);
+        assertEquals(bond.calculateAccruedInterest(), accrued[0], 0.0);
+    }
+}
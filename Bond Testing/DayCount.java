@@ -0,0 +1,123 @@
+/** Day count convention of a bond - how a period between two dates is counted and how many of those counts make a year.
+ * count(start, end) is a whole number of day-count units and basis() is the number of units in a year, so a year fraction is
+ * count / basis and a discount factor stays exp(-count * rate), keyed in the DiscountFactorTable by (rate, count) as before.
+ * A convention is resolved once, when a Bond, BondBatchPricer or PortfolioRevaluer is built, and never switched on while pricing.
+ * Bond turns it into day counts and exponents once, before its pricing loops run. The batch pricers and CashFlowCursor still
+ * call count once per cash flow, a virtual call that the JIT can only inline while a single convention has been used at that
+ * call site - with several conventions in one process it stays a call, which is cheap next to the exp or pow per cash flow. */
+public abstract class DayCount {
+    //Actual/365 - SAGBs
+    public static final DayCount ACTUAL_365 = new Actual(365);
+    //Actual/360 - money market instruments
+    public static final DayCount ACTUAL_360 = new Actual(360);
+    //30/360 Bond Basis - corporate bonds
+    public static final DayCount THIRTY_360 = new Thirty360();
+    //Actual/Actual ISDA - days in leap years count 1/366 of a year and the other days 1/365
+    public static final DayCount ACTUAL_ACTUAL = new ActualActual();
+
+    private final double basis;
+
+    DayCount(double basis) {
+        this.basis = basis;
+    }
+
+    /** Function Objective: The Actual/basis convention, e.g. Actual/365 for SAGBs
+     * Used by the constructors that take the day count convention as a number of days in a year */
+    public static DayCount actual(double basis) {
+        if (!(basis > 0)) {
+            throw new IllegalArgumentException("Day count convention must be a positive number of days.");
+        }
+        if (basis == 365) {
+            return ACTUAL_365;
+        }
+        if (basis == 360) {
+            return ACTUAL_360;
+        }
+        return new Actual(basis);
+    }
+
+    /** Function Objective: Day-count units from start to end (epoch days), negative when end is before start */
+    public abstract int count(int start, int end);
+
+    /** Function Objective: Day-count units in a year */
+    public final double basis() {
+        return basis;
+    }
+
+    /** Function Objective: Years from start to end (epoch days) under this convention */
+    public final double yearFraction(int start, int end) {
+        double units = count(start, end);
+        return units / basis;
+    }
+
+    //Actual days over a fixed number of days in a year
+    static final class Actual extends DayCount {
+        Actual(double basis) {
+            super(basis);
+        }
+
+        @Override
+        public int count(int start, int end) {
+            return EpochDays.daysBetween(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return "Actual/" + (basis() == Math.rint(basis()) ? String.valueOf((long) basis()) : String.valueOf(basis()));
+        }
+    }
+
+    //Every month counts 30 days: a 31st start becomes the 30th, and a 31st end becomes the 30th when the start is on the 30th
+    static final class Thirty360 extends DayCount {
+        Thirty360() {
+            super(360);
+        }
+
+        @Override
+        public int count(int start, int end) {
+            int from = EpochDays.yearMonthDay(start);
+            int to = EpochDays.yearMonthDay(end);
+            int fromDay = Math.min(Math.floorMod(from, 100), 30);
+            int toDay = Math.floorMod(to, 100);
+            if (toDay == 31 && fromDay == 30) {
+                toDay = 30;
+            }
+            return 360 * (Math.floorDiv(to, 10_000) - Math.floorDiv(from, 10_000))
+                    + 30 * (Math.floorMod(to, 10_000) / 100 - Math.floorMod(from, 10_000) / 100) + toDay - fromDay;
+        }
+
+        @Override
+        public String toString() {
+            return "30/360";
+        }
+    }
+
+    //Units are 1/(365 * 366) of a year: a day in a leap year counts 365 units and any other day 366
+    static final class ActualActual extends DayCount {
+        ActualActual() {
+            super(365 * 366);
+        }
+
+        @Override
+        public int count(int start, int end) {
+            if (end < start) {
+                return -count(end, start);
+            }
+            int units = 0;
+            int year = EpochDays.year(start);
+            int from = start;
+            while (from < end) {
+                int to = Math.min(end, EpochDays.of(year + 1, 1, 1));
+                units += (to - from) * (EpochDays.isLeapYear(year) ? 365 : 366);
+                from = to;
+                year++;
+            }
+            return units;
+        }
+
+        @Override
+        public String toString() {
+            return "Actual/Actual";
+        }
+    }
+}
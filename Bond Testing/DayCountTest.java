@@ -0,0 +1,114 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+class DayCountTest {
+    private static final LocalDate SETTLEMENT = LocalDate.parse("2024-05-16");
+    private static final DayCount[] CONVENTIONS = {DayCount.ACTUAL_365, DayCount.ACTUAL_360, DayCount.THIRTY_360, DayCount.ACTUAL_ACTUAL};
+    private static final int[] FREQUENCIES = {1, 2, 4, 12};
+
+    private static int day(String date) {
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+
+    @Test //Actual conventions count calendar days, and the number-of-days constructors resolve to the shared conventions
+    void testActual() {
+        LocalDate maturity = LocalDate.parse("2032-03-31");
+        long days = ChronoUnit.DAYS.between(SETTLEMENT, maturity);
+        assertEquals(days, DayCount.ACTUAL_360.count((int) SETTLEMENT.toEpochDay(), (int) maturity.toEpochDay()));
+        assertEquals(days / 360.0, DayCount.ACTUAL_360.yearFraction((int) SETTLEMENT.toEpochDay(), (int) maturity.toEpochDay()), 0.0);
+        assertEquals(EpochDays.yearFraction(day("2024-03-31"), day("2024-05-16"), 365),
+                DayCount.ACTUAL_365.yearFraction(day("2024-03-31"), day("2024-05-16")), 0.0);
+        assertSame(DayCount.ACTUAL_365, DayCount.actual(365));
+        assertSame(DayCount.ACTUAL_360, DayCount.actual(360));
+        assertEquals(365.25, DayCount.actual(365.25).basis(), 0.0);
+        assertThrows(IllegalArgumentException.class, () -> DayCount.actual(0));
+    }
+
+    @Test //30/360 Bond Basis clamps a 31st start to the 30th, and a 31st end only when the start is on the 30th or 31st
+    void testThirty360() {
+        assertEquals(60, DayCount.THIRTY_360.count(day("2024-01-31"), day("2024-03-31")));
+        assertEquals(33, DayCount.THIRTY_360.count(day("2024-02-28"), day("2024-03-31")));
+        assertEquals(91, DayCount.THIRTY_360.count(day("2024-02-29"), day("2024-05-30")));
+        assertEquals(180, DayCount.THIRTY_360.count(day("2023-09-30"), day("2024-03-31")));
+        assertEquals(360 * 8 - 30 * 2 + 31 - 16, DayCount.THIRTY_360.count(day("2024-05-16"), day("2032-03-31")));
+        assertEquals(-60, DayCount.THIRTY_360.count(day("2024-03-31"), day("2024-01-31")));
+        assertEquals(0.5, DayCount.THIRTY_360.yearFraction(day("2024-03-31"), day("2024-09-30")), 0.0);
+    }
+
+    @Test //Actual/Actual ISDA counts days in leap years over 366 and the other days over 365
+    void testActualActual() {
+        assertEquals(61 / 365.0 + 121 / 366.0, DayCount.ACTUAL_ACTUAL.yearFraction(day("2003-11-01"), day("2004-05-01")), 1e-15);
+        assertEquals(1.0, DayCount.ACTUAL_ACTUAL.yearFraction(day("2024-01-01"), day("2025-01-01")), 0.0);
+        assertEquals(3.0, DayCount.ACTUAL_ACTUAL.yearFraction(day("2023-01-01"), day("2026-01-01")), 0.0);
+        assertEquals(-DayCount.ACTUAL_ACTUAL.count(day("2003-11-01"), day("2004-05-01")),
+                DayCount.ACTUAL_ACTUAL.count(day("2004-05-01"), day("2003-11-01")));
+        assertEquals(0, DayCount.ACTUAL_ACTUAL.count(day("2024-05-16"), day("2024-05-16")));
+    }
+
+    @Test //Coupons are 12 / frequency months apart and pay couponRate / frequency, and unsupported frequencies are rejected
+    void testCouponFrequencies() {
+        Bond quarterly = new Bond(SETTLEMENT, LocalDate.parse("2025-03-31"), LocalDate.parse("2024-03-31"), 0.08, 0.09, 100, DayCount.THIRTY_360, 4);
+        assertEquals(List.of(LocalDate.parse("2024-06-30"), LocalDate.parse("2024-09-30"), LocalDate.parse("2024-12-30"), LocalDate.parse("2025-03-30")),
+                quarterly.generateCouponDates());
+        assertEquals(2.0, quarterly.couponPayment(), 0.0);
+        assertEquals(12, new Bond(SETTLEMENT, LocalDate.parse("2025-04-30"), LocalDate.parse("2024-04-30"), 0.06, 0.07, 100, DayCount.ACTUAL_360, 12)
+                .generateCouponDates().size());
+        assertEquals(1, new Bond(SETTLEMENT, LocalDate.parse("2025-03-31"), LocalDate.parse("2024-03-31"), 0.06, 0.07, 100, DayCount.ACTUAL_ACTUAL, 1)
+                .generateCouponDates().size());
+        for (int frequency : new int[]{0, -2, 5, 24}) {
+            assertThrows(IllegalArgumentException.class, () -> new Bond(SETTLEMENT, LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"),
+                    0.08, 0.09, 100, DayCount.ACTUAL_365, frequency));
+            assertThrows(IllegalArgumentException.class, () -> new BondBatchPricer(DayCount.ACTUAL_365, frequency));
+        }
+    }
+
+    @Test //Under every convention and frequency the price is the sum of each cash flow over (1 + y / f)^(t * f), and the batch pricer agrees exactly
+    void testPricesUnderEveryConvention() {
+        LocalDate maturity = LocalDate.parse("2034-01-31");
+        LocalDate lastCoupon = LocalDate.parse("2024-01-31");
+        for (DayCount dayCount : CONVENTIONS) {
+            for (int frequency : FREQUENCIES) {
+                Bond bond = new Bond(SETTLEMENT, maturity, lastCoupon, 0.0875, 0.0925, 1_000_000, dayCount, frequency);
+                int settlementDay = (int) SETTLEMENT.toEpochDay();
+                double expected = 1_000_000 / Math.pow(1 + 0.0925 / frequency, dayCount.yearFraction(settlementDay, (int) maturity.toEpochDay()) * frequency);
+                for (LocalDate coupon = lastCoupon.plusMonths(12 / frequency); !coupon.isAfter(maturity); coupon = coupon.plusMonths(12 / frequency)) {
+                    expected += 0.0875 / frequency * 1_000_000 / Math.pow(1 + 0.0925 / frequency, dayCount.yearFraction(settlementDay, (int) coupon.toEpochDay()) * frequency);
+                }
+                String label = dayCount + " paying " + frequency + " a year";
+                assertEquals(expected, bond.calculateAllInPrice(), 1e-6, label);
+                assertEquals(0.0875 * dayCount.yearFraction((int) lastCoupon.toEpochDay(), settlementDay) * 1_000_000, bond.calculateAccruedInterest(), 0.0, label);
+
+                BondPortfolio portfolio = new BondPortfolio(new int[]{settlementDay}, new int[]{(int) maturity.toEpochDay()},
+                        new int[]{(int) lastCoupon.toEpochDay()}, new double[]{0.0875}, new double[]{0.0925}, new double[]{1_000_000});
+                double[] clean = new double[1];
+                double[] accrued = new double[1];
+                double[] allIn = new double[1];
+                new BondBatchPricer(dayCount, frequency).price(portfolio, clean, accrued, allIn);
+                assertEquals(bond.calculateAllInPrice(), allIn[0], 0.0, label);
+                assertEquals(bond.calculateCleanPrice(), clean[0], 0.0, label);
+                assertEquals(bond.calculateAccruedInterest(), accrued[0], 0.0, label);
+            }
+        }
+    }
+
+    @Test //The number-of-days constructors price exactly like the Actual/365 convention they resolve to
+    void testActual365MatchesDayCountConvention() {
+        Bond legacy = new Bond(SETTLEMENT, LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"), 0.0825, 0.095, 100, 365, 2);
+        Bond resolved = new Bond(SETTLEMENT, LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"), 0.0825, 0.095, 100, DayCount.ACTUAL_365, 2);
+        assertEquals(legacy.calculateAllInPrice(), resolved.calculateAllInPrice(), 0.0);
+        assertEquals(legacy.calculateAccruedInterest(), resolved.calculateAccruedInterest(), 0.0);
+        assertEquals(365, legacy.getDayCountConvention(), 0.0);
+        assertSame(DayCount.ACTUAL_365, legacy.getDayCount());
+
+        legacy.setDayCount(DayCount.THIRTY_360);
+        Bond thirty = new Bond(SETTLEMENT, LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"), 0.0825, 0.095, 100, DayCount.THIRTY_360, 2);
+        assertEquals(thirty.calculateAllInPrice(), legacy.calculateAllInPrice(), 0.0);
+        legacy.setCouponFrequency(4);
+        assertEquals(LocalDate.parse("2024-06-30"), legacy.generateCouponDates().get(0));
+        assertThrows(IllegalArgumentException.class, () -> legacy.setCouponFrequency(7));
+    }
+}
@@ -0,0 +1,13 @@
+/** Source of rates for discounting each cash flow of a bond off a curve instead of a single yield to maturity.
+ * Rates are in percent, as quoted on a YieldCurve, and are treated as zero rates compounded at the bond's coupon frequency.
+ * A YieldCurve plugs in directly through its bulk lookup: (epochDays, out) -> yieldCurve.getRates(epochDays, RateSide.MID, out) */
+@FunctionalInterface
+public interface DiscountCurve {
+    //Writes the rate for each of the ascending epochDays into out at the same index
+    void getRates(int[] epochDays, double[] out);
+
+    //A curve whose rates stay fixed from now on, for lookups that must all see the same curve - a curve that never changes is its own snapshot
+    default DiscountCurve snapshot() {
+        return this;
+    }
+}
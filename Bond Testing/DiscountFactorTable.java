@@ -0,0 +1,112 @@
+import java.util.Arrays;
+
+/** Cache of discount factors keyed by (log discount rate, day offset).
+ * With b = 1 + yield / frequency, the discount factor of a cash flow days away is
+ * b^-(days / dayCountConvention * frequency) = exp(-days * rate) where rate = ln(b) * frequency / dayCountConvention,
+ * so a yield costs a single log and each cash flow a single exp. Bonds priced at the same yield share coupon and
+ * maturity offsets, so scenario runs over a yield grid mostly find their factors in the table instead.
+ * Under other conventions than Actual/N, days is the DayCount count of the cash flow and dayCountConvention its basis().
+ * The table is a primitive open-addressing hash table with linear probing and a fixed capacity: when every slot a key
+ * may use is taken, whatever entry sits in its home slot is overwritten (no ages are kept), so memory never grows. Each
+ * thread has its own table, so lookups need no locking, and each pays 21 bytes a slot for it - about 344 KB at the
+ * default capacity. A cached factor is the exact value exp(-days * rate) would return, so results do not depend on
+ * whether a lookup hits. DiscountFactorBenchmark measures a lookup against a direct Math.exp. */
+public final class DiscountFactorTable {
+    //Capacity (rounded up to a power of two) of each thread's table, 0 turns caching off
+    private static final int CAPACITY = Integer.getInteger("bond.discountFactorTable.capacity", 1 << 14);
+    private static final int MAX_PROBES = 8;
+    private static final ThreadLocal<DiscountFactorTable> TABLES = ThreadLocal.withInitial(() -> new DiscountFactorTable(CAPACITY));
+
+    private final long[] rates;
+    private final int[] days;
+    private final double[] factors;
+    private final boolean[] used;
+    private final int mask;
+    private int size;
+    private long hits;
+    private long misses;
+
+    DiscountFactorTable(int capacity) {
+        int slots = capacity <= 0 ? 0 : Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.rates = new long[slots];
+        this.days = new int[slots];
+        this.factors = new double[slots];
+        this.used = new boolean[slots];
+        this.mask = slots - 1;
+    }
+
+    /** Function Objective: The table of the calling thread */
+    public static DiscountFactorTable current() {
+        return TABLES.get();
+    }
+
+    /** Function Objective: Continuously compounded discount rate per day of a yield compounded frequency times a year
+     * ln(1 + yield / frequency) * frequency / dayCountConvention */
+    public static double logDiscountRate(double yield, int frequency, double dayCountConvention) {
+        return Math.log(1 + yield / frequency) * frequency / dayCountConvention;
+    }
+
+    /** Function Objective: Discount factor exp(-days * logDiscountRate) of a cash flow days after settlement */
+    public double discountFactor(double logDiscountRate, int days) {
+        if (mask < 0) {
+            return Math.exp(-days * logDiscountRate);
+        }
+        long rate = Double.doubleToRawLongBits(logDiscountRate);
+        int home = hash(rate, days) & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (home + probe) & mask;
+            if (!used[slot]) {
+                return store(slot, rate, days, logDiscountRate, true);
+            }
+            if (rates[slot] == rate && this.days[slot] == days) {
+                hits++;
+                return factors[slot];
+            }
+        }
+        //Every slot within reach is taken - replace the entry in the home slot
+        return store(home, rate, days, logDiscountRate, false);
+    }
+
+    private double store(int slot, long rate, int days, double logDiscountRate, boolean newEntry) {
+        misses++;
+        double factor = Math.exp(-days * logDiscountRate);
+        rates[slot] = rate;
+        this.days[slot] = days;
+        factors[slot] = factor;
+        if (newEntry) {
+            used[slot] = true;
+            size++;
+        }
+        return factor;
+    }
+
+    private static int hash(long rate, int days) {
+        long h = rate * 0x9E3779B97F4A7C15L + days;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    //Removes every entry, the capacity is kept
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return factors.length;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
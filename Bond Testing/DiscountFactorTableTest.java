@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+class DiscountFactorTableTest {
+    @Test //exp(-days * rate) with one log per yield agrees with (1 + y/f)^-(days / 365 * f) to within rounding
+    void testMatchesPowerFormula() {
+        DiscountFactorTable table = new DiscountFactorTable(1024);
+        for (double yield : new double[]{0.0, 0.0875, 0.095, 0.25}) {
+            double rate = DiscountFactorTable.logDiscountRate(yield, 2, 365);
+            for (int days = 0; days < 12_000; days += 37) {
+                double expected = 1 / Math.pow(1 + yield / 2, days / 365.0 * 2);
+                assertEquals(expected, table.discountFactor(rate, days), expected * 1e-13);
+            }
+        }
+    }
+
+    @Test //A repeated (rate, days) key is served from the table with the same value, and the size never passes the capacity
+    void testHitsAndBoundedSize() {
+        DiscountFactorTable table = new DiscountFactorTable(100);
+        assertEquals(128, table.capacity());
+        double rate = DiscountFactorTable.logDiscountRate(0.095, 2, 365);
+        double first = table.discountFactor(rate, 182);
+        assertEquals(first, table.discountFactor(rate, 182), 0.0);
+        assertEquals(1, table.getHits());
+        assertEquals(1, table.getMisses());
+
+        for (int days = 0; days < 10_000; days++) {
+            assertEquals(Math.exp(-days * rate), table.discountFactor(rate, days), 0.0);
+        }
+        assertTrue(table.size() <= table.capacity());
+        table.clear();
+        assertEquals(0, table.size());
+
+        DiscountFactorTable disabled = new DiscountFactorTable(0);
+        assertEquals(Math.exp(-182 * rate), disabled.discountFactor(rate, 182), 0.0);
+        assertEquals(0, disabled.size());
+    }
+
+    @Test //Bonds at the same yield share discount factors, and a price does not depend on whether its factors were cached
+    void testBondsShareFactors() {
+        DiscountFactorTable table = DiscountFactorTable.current();
+        table.clear();
+        Bond first = new Bond(LocalDate.parse("2024-05-16"), LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"),
+                0.0825, 0.095, 100, 365, 2);
+        double price = first.calculateAllInPrice();
+        long misses = table.getMisses();
+        Bond second = new Bond(LocalDate.parse("2024-05-16"), LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"),
+                0.0825, 0.095, 100, 365, 2);
+        assertEquals(price, second.calculateAllInPrice(), 0.0);
+        assertEquals(misses, table.getMisses());
+    }
+}
@@ -0,0 +1,72 @@
+/** Date arithmetic on epoch days (the int returned by LocalDate.toEpochDay()).
+ * Pricing works with dates as plain ints, so schedules, day counts and year fractions are calculated without creating
+ * LocalDate or any other object. Every method gives the same result as the equivalent java.time operation. */
+public final class EpochDays {
+    private EpochDays() {
+    }
+
+    /** Epoch day of the given proleptic Gregorian date (same result as LocalDate.of(year, month, day).toEpochDay()) */
+    public static int of(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /** Adds months to an epoch day, clamping to the end of the month exactly like LocalDate.plusMonths() */
+    public static int plusMonths(int epochDay, int months) {
+        int date = yearMonthDay(epochDay);
+        int year = Math.floorDiv(date, 10_000);
+        int month = Math.floorMod(date, 10_000) / 100;
+        int day = Math.floorMod(date, 100);
+
+        int totalMonths = year * 12 + (month - 1) + months;
+        int newYear = Math.floorDiv(totalMonths, 12);
+        int newMonth = Math.floorMod(totalMonths, 12) + 1;
+        return of(newYear, newMonth, Math.min(day, lengthOfMonth(newYear, newMonth)));
+    }
+
+    /** Year, month and day of an epoch day packed as year * 10000 + month * 100 + day, e.g. 20240516 */
+    public static int yearMonthDay(int epochDay) {
+        int shifted = epochDay + 719468;
+        int era = Math.floorDiv(shifted, 146097);
+        int dayOfEra = shifted - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10_000 + month * 100 + day;
+    }
+
+    /** Year of an epoch day (same result as LocalDate.ofEpochDay(epochDay).getYear()) */
+    public static int year(int epochDay) {
+        return Math.floorDiv(yearMonthDay(epochDay), 10_000);
+    }
+
+    public static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    public static boolean isLeapYear(int year) {
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /** Number of days from start to end (same result as ChronoUnit.DAYS.between) */
+    public static int daysBetween(int start, int end) {
+        return end - start;
+    }
+
+    /** Actual/dayCountConvention year fraction from start to end, e.g. Actual/365 for SAGBs */
+    public static double yearFraction(int start, int end, double dayCountConvention) {
+        double days = end - start;
+        return days / dayCountConvention;
+    }
+}
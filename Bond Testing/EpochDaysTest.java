@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+class EpochDaysTest {
+    private static final double DAY_COUNT_CONVENTION = 365;
+    private static final int COUPON_FREQUENCY = 2;
+
+    //Bytes allocated so far by the current thread, as counted by the JVM
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    @Test //Coupon dates stepped as epoch days must match LocalDate.plusMonths, including the end-of-month clamp
+    void testPlusMonthsMatchesLocalDate() {
+        LocalDate start = LocalDate.parse("1999-01-01");
+        for (int i = 0; i < 20_000; i++) {
+            LocalDate date = start.plusDays(i);
+            for (int months : new int[]{-12, -1, 1, 3, 6, 12}) {
+                assertEquals(date.plusMonths(months).toEpochDay(), EpochDays.plusMonths((int) date.toEpochDay(), months));
+            }
+        }
+    }
+
+    @Test //Epoch days, calendar fields, month lengths, day counts and year fractions match java.time
+    void testMatchesJavaTime() {
+        LocalDate start = LocalDate.parse("1899-12-01");
+        for (int i = 0; i < 100_000; i++) {
+            LocalDate date = start.plusDays(i);
+            assertEquals(date.toEpochDay(), EpochDays.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            assertEquals(date.lengthOfMonth(), EpochDays.lengthOfMonth(date.getYear(), date.getMonthValue()));
+            assertEquals(date.isLeapYear(), EpochDays.isLeapYear(date.getYear()));
+            assertEquals(date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth(), EpochDays.yearMonthDay((int) date.toEpochDay()));
+            assertEquals(date.getYear(), EpochDays.year((int) date.toEpochDay()));
+        }
+        LocalDate settlement = LocalDate.parse("2024-05-16");
+        LocalDate maturity = LocalDate.parse("2032-03-31");
+        int settlementDay = (int) settlement.toEpochDay();
+        int maturityDay = (int) maturity.toEpochDay();
+        assertEquals(ChronoUnit.DAYS.between(settlement, maturity), EpochDays.daysBetween(settlementDay, maturityDay));
+        assertEquals(ChronoUnit.DAYS.between(settlement, maturity) / 365.0, EpochDays.yearFraction(settlementDay, maturityDay, 365), 0.0);
+        assertEquals(-46 / 365.0, EpochDays.yearFraction(settlementDay, settlementDay - 46, 365), 0.0);
+    }
+
+    @Test //Once the discount exponents are cached, a revaluation at a new yield creates no objects at all
+    void testRevaluationDoesNotAllocate() {
+        Bond bond = new Bond(LocalDate.parse("2024-05-16"), LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"),
+                0.0825, 0.095, 100, DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+        double total = 0.0;
+        for (int i = 0; i < 20_000; i++) {
+            bond.setYield(0.08 + i * 1e-7);
+            total += bond.calculateAllInPrice() + bond.calculateAccruedInterest();
+        }
+        long before = allocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            bond.setYield(0.08 + i * 1e-7);
+            total += bond.calculateAllInPrice() + bond.calculateAccruedInterest();
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue(total > 0);
+        //A single LocalDate per valuation would already be 240,000 bytes, the margin only covers the measurement itself
+        assertTrue(allocated < 1_000, "Revaluation allocated " + allocated + " bytes");
+    }
+
+    @Test //A first valuation looks up the shared schedule and builds its day counts and exponents as two primitive arrays, nothing per coupon
+    void testFirstValuationAllocatesOnlyTheExponents() {
+        LocalDate settlement = LocalDate.parse("2024-05-16");
+        LocalDate maturity = LocalDate.parse("2032-03-31");
+        LocalDate lastCoupon = LocalDate.parse("2024-03-31");
+        int size = 1_000;
+        Bond[] bonds = new Bond[2 * size];
+        for (int i = 0; i < bonds.length; i++) {
+            bonds[i] = new Bond(settlement, maturity, lastCoupon, 0.0825, 0.08 + i % 10 * 0.001, 100, DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+        }
+        //The first half warms up the code, the shared schedule and the thread's discount factors
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            total += bonds[i].calculateAllInPrice();
+        }
+        int coupons = bonds[0].generateCouponDates().size();
+        long before = allocatedBytes();
+        for (int i = size; i < bonds.length; i++) {
+            total += bonds[i].calculateAllInPrice();
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue(total > 0);
+        //A double[] and an int[] of one entry per coupon, each with a 16-byte header, and the 24-byte key of the schedule lookup -
+        //a LocalDate per coupon would add 24 bytes more each
+        long perBond = 16 + 8L * coupons + 16 + 4L * coupons + 24;
+        assertTrue(allocated < size * perBond + 10_000, "First valuations allocated " + allocated + " bytes, expected at most "
+                + size * perBond + " for the exponents and the schedule lookups");
+    }
+
+    @Test //Batch pricing steps every coupon date as an int, so pricing a portfolio creates no objects
+    void testBatchPricingDoesNotAllocate() {
+        int settlement = (int) LocalDate.parse("2024-05-16").toEpochDay();
+        int size = 1_000;
+        int[] settlementDates = new int[size];
+        int[] maturityDates = new int[size];
+        int[] lastCouponDates = new int[size];
+        double[] couponRates = new double[size];
+        double[] yields = new double[size];
+        double[] nominals = new double[size];
+        for (int i = 0; i < size; i++) {
+            settlementDates[i] = settlement;
+            maturityDates[i] = settlement + 30 + i * 7;
+            lastCouponDates[i] = settlement - i % 180;
+            couponRates[i] = 0.0825;
+            yields[i] = 0.095;
+            nominals[i] = 100;
+        }
+        BondPortfolio portfolio = new BondPortfolio(settlementDates, maturityDates, lastCouponDates, couponRates, yields, nominals);
+        BondBatchPricer pricer = new BondBatchPricer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+        double[] clean = new double[size];
+        double[] accrued = new double[size];
+        double[] allIn = new double[size];
+        for (int i = 0; i < 50; i++) {
+            pricer.price(portfolio, clean, accrued, allIn);
+        }
+        long before = allocatedBytes();
+        for (int i = 0; i < 20; i++) {
+            pricer.price(portfolio, clean, accrued, allIn);
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue(allocated < 1_000, "Batch pricing allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,106 @@
+/** Result of a PortfolioRevaluer run: the price of every row, the portfolio totals and the totals per maturity bucket.
+ * Bucket b holds the rows whose time to maturity is at least limit b - 1 years and less than limit b, the last bucket
+ * holds everything from the last limit on. */
+public final class PortfolioRevaluation {
+    private final double[] cleanPrices;
+    private final double[] accruedInterest;
+    private final double[] allInPrices;
+    private final double totalCleanPrice;
+    private final double totalAccruedInterest;
+    private final double totalAllInPrice;
+    private final double[] bucketLimits;
+    private final int[] bucketCounts;
+    private final double[] bucketCleanPrices;
+    private final double[] bucketAccruedInterest;
+    private final double[] bucketAllInPrices;
+    private final long elapsedNanos;
+
+    PortfolioRevaluation(double[] cleanPrices, double[] accruedInterest, double[] allInPrices,
+                         double totalCleanPrice, double totalAccruedInterest, double totalAllInPrice,
+                         double[] bucketLimits, int[] bucketCounts, double[] bucketCleanPrices,
+                         double[] bucketAccruedInterest, double[] bucketAllInPrices, long elapsedNanos) {
+        this.cleanPrices = cleanPrices;
+        this.accruedInterest = accruedInterest;
+        this.allInPrices = allInPrices;
+        this.totalCleanPrice = totalCleanPrice;
+        this.totalAccruedInterest = totalAccruedInterest;
+        this.totalAllInPrice = totalAllInPrice;
+        this.bucketLimits = bucketLimits;
+        this.bucketCounts = bucketCounts;
+        this.bucketCleanPrices = bucketCleanPrices;
+        this.bucketAccruedInterest = bucketAccruedInterest;
+        this.bucketAllInPrices = bucketAllInPrices;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double getCleanPrice(int row) {
+        return cleanPrices[row];
+    }
+
+    public double getAccruedInterest(int row) {
+        return accruedInterest[row];
+    }
+
+    public double getAllInPrice(int row) {
+        return allInPrices[row];
+    }
+
+    public double getTotalCleanPrice() {
+        return totalCleanPrice;
+    }
+
+    public double getTotalAccruedInterest() {
+        return totalAccruedInterest;
+    }
+
+    public double getTotalAllInPrice() {
+        return totalAllInPrice;
+    }
+
+    public int getBucketCount() {
+        return bucketCounts.length;
+    }
+
+    //Label of a bucket in years to maturity, e.g. "3-5y" or "20y+"
+    public String getBucketLabel(int bucket) {
+        String lower = bucket == 0 ? "0" : format(bucketLimits[bucket - 1]);
+        return bucket == bucketLimits.length ? lower + "y+" : lower + "-" + format(bucketLimits[bucket]) + "y";
+    }
+
+    public int getBucketSize(int bucket) {
+        return bucketCounts[bucket];
+    }
+
+    public double getBucketCleanPrice(int bucket) {
+        return bucketCleanPrices[bucket];
+    }
+
+    public double getBucketAccruedInterest(int bucket) {
+        return bucketAccruedInterest[bucket];
+    }
+
+    public double getBucketAllInPrice(int bucket) {
+        return bucketAllInPrices[bucket];
+    }
+
+    //Wall-clock time of the revaluation in nanoseconds
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    private static String format(double years) {
+        return years == Math.rint(years) ? Long.toString((long) years) : Double.toString(years);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("Total: Clean Price = %.2f, Accrued Interest = %.2f, All-in Price = %.2f%n",
+                totalCleanPrice, totalAccruedInterest, totalAllInPrice));
+        for (int b = 0; b < bucketCounts.length; b++) {
+            builder.append(String.format("%-8s %7d bonds: Clean Price = %.2f, Accrued Interest = %.2f, All-in Price = %.2f%n",
+                    getBucketLabel(b), bucketCounts[b], bucketCleanPrices[b], bucketAccruedInterest[b], bucketAllInPrices[b]));
+        }
+        return builder.toString();
+    }
+}
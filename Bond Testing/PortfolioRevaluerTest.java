@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class PortfolioRevaluerTest {
+    private static final double DAY_COUNT_CONVENTION = 365;
+    private static final int COUPON_FREQUENCY = 2;
+    private static final double[] BUCKET_LIMITS = {1, 3, 5, 7, 10, 20};
+
+    //A book of size random SAGB-like positions with maturities of up to 30 years
+    private static BondPortfolio portfolio(int size, long seed) {
+        Random random = new Random(seed);
+        int[] settlementDates = new int[size];
+        int[] maturityDates = new int[size];
+        int[] lastCouponDates = new int[size];
+        double[] couponRates = new double[size];
+        double[] yields = new double[size];
+        double[] nominals = new double[size];
+        int settlement = (int) LocalDate.parse("2024-05-16").toEpochDay();
+        for (int i = 0; i < size; i++) {
+            settlementDates[i] = settlement;
+            maturityDates[i] = settlement + 1 + random.nextInt(30 * 365);
+            lastCouponDates[i] = settlement - random.nextInt(182);
+            couponRates[i] = 0.05 + random.nextInt(800) / 10_000.0;
+            yields[i] = 0.06 + random.nextInt(600) / 10_000.0;
+            nominals[i] = 1_000 + random.nextInt(10_000_000);
+        }
+        return new BondPortfolio(settlementDates, maturityDates, lastCouponDates, couponRates, yields, nominals);
+    }
+
+    @Test //Totals must be bit-identical to the sequential path whatever the number of threads
+    void testParallelTotalsAreBitIdentical() {
+        BondPortfolio portfolio = portfolio(20_000, 42);
+        PortfolioRevaluation sequential = new PortfolioRevaluer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY).revalueSequential(portfolio);
+        for (int threads : new int[]{1, 2, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                PortfolioRevaluation parallel = new PortfolioRevaluer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY, pool, BUCKET_LIMITS).revalue(portfolio);
+                assertEquals(sequential.getTotalCleanPrice(), parallel.getTotalCleanPrice(), 0.0);
+                assertEquals(sequential.getTotalAccruedInterest(), parallel.getTotalAccruedInterest(), 0.0);
+                assertEquals(sequential.getTotalAllInPrice(), parallel.getTotalAllInPrice(), 0.0);
+                for (int b = 0; b < sequential.getBucketCount(); b++) {
+                    assertEquals(sequential.getBucketSize(b), parallel.getBucketSize(b));
+                    assertEquals(sequential.getBucketAllInPrice(b), parallel.getBucketAllInPrice(b), 0.0);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test //Each row is priced exactly as BondBatchPricer prices it, and the buckets add up to the totals
+    void testRowsAndBucketsAgreeWithBatchPricer() {
+        BondPortfolio portfolio = portfolio(5_000, 7);
+        double[] clean = new double[portfolio.size()];
+        double[] accrued = new double[portfolio.size()];
+        double[] allIn = new double[portfolio.size()];
+        new BondBatchPricer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY).price(portfolio, clean, accrued, allIn);
+
+        PortfolioRevaluation revaluation = new PortfolioRevaluer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY).revalue(portfolio);
+        double total = 0.0;
+        for (int i = 0; i < portfolio.size(); i++) {
+            assertEquals(clean[i], revaluation.getCleanPrice(i), 0.0);
+            assertEquals(accrued[i], revaluation.getAccruedInterest(i), 0.0);
+            assertEquals(allIn[i], revaluation.getAllInPrice(i), 0.0);
+            total += allIn[i];
+        }
+        assertEquals(total, revaluation.getTotalAllInPrice(), total * 1e-12);
+
+        int rows = 0;
+        double bucketTotal = 0.0;
+        for (int b = 0; b < revaluation.getBucketCount(); b++) {
+            rows += revaluation.getBucketSize(b);
+            bucketTotal += revaluation.getBucketAllInPrice(b);
+        }
+        assertEquals(portfolio.size(), rows);
+        assertEquals(revaluation.getTotalAllInPrice(), bucketTotal, total * 1e-12);
+        assertEquals("0-1y", revaluation.getBucketLabel(0));
+        assertEquals("20y+", revaluation.getBucketLabel(6));
+    }
+
+    @Test //The speedup is measured against bit-identical results, and invalid bucket limits are rejected
+    void testSpeedupAndInvalidInput() {
+        PortfolioRevaluer revaluer = new PortfolioRevaluer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+        assertTrue(revaluer.measureSpeedup(portfolio(10_000, 1), 3) > 0);
+        assertThrows(IllegalArgumentException.class, () -> revaluer.measureSpeedup(portfolio(10, 1), 0));
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioRevaluer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY,
+                ForkJoinPool.commonPool(), new double[]{5, 3}));
+    }
+}
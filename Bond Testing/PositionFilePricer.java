@@ -0,0 +1,340 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Streams a file of bond positions through parse, validate, price and write.
+ * Each input line holds settlement date, maturity date, last coupon date, coupon rate, yield to maturity and nominal,
+ * separated by commas, with dates as yyyy-MM-dd and rates as decimals (e.g. 2024-05-16,2032-03-31,2024-03-31,0.0825,0.095,100).
+ * A header line is skipped. Each output line holds the input line number, clean price, accrued interest and all-in price
+ * rounded to 4 decimal places.
+ * The file is read through a FileChannel into one fixed buffer, and parsed rows are priced in batches of BATCH_SIZE with
+ * BondBatchPricer, so memory stays the same whatever the size of the file. Dates and numbers are parsed straight from
+ * the bytes without creating a String, LocalDate or DateTimeFormatter per row.
+ * Rows that break the Bond constructor rules, or cannot be parsed, are rejected and counted, and do not stop the run. */
+public class PositionFilePricer {
+    static final int BATCH_SIZE = 4096;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_REJECTIONS_KEPT = 100;
+    //Longest text writeFixed writes: a sign, 18 digits, the point and 4 decimals
+    static final int MAX_FIXED_LENGTH = 24;
+    private static final int FIELDS = 6;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final byte[] HEADER = "line,clean_price,accrued_interest,all_in_price\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final BondBatchPricer pricer;
+
+    public PositionFilePricer(double dayCountConvention, int couponFrequency) {
+        this(DayCount.actual(dayCountConvention), couponFrequency);
+    }
+
+    public PositionFilePricer(DayCount dayCount, int couponFrequency) {
+        this.pricer = new BondBatchPricer(dayCount, couponFrequency);
+    }
+
+    /** Function Objective: Price every position in the input file and write the results to the output file */
+    public PositionFileSummary price(Path input, Path output) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE)) {
+            Run run = new Run(out);
+            run.output.put(HEADER);
+            byte[] bytes = new byte[BUFFER_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int lineNumber = 0;
+            int scanFrom = 0;
+            while (true) {
+                int read = in.read(buffer);
+                int limit = buffer.position();
+                int lineStart = 0;
+                for (int i = scanFrom; i < limit; i++) {
+                    if (bytes[i] == '\n') {
+                        run.line(bytes, lineStart, i, ++lineNumber);
+                        lineStart = i + 1;
+                    }
+                }
+                if (read < 0) {
+                    if (lineStart < limit) {
+                        run.line(bytes, lineStart, limit, ++lineNumber);
+                    }
+                    break;
+                }
+                if (lineStart == 0 && limit == bytes.length) {
+                    throw new IOException("Line " + (lineNumber + 1) + " is longer than " + BUFFER_SIZE + " bytes.");
+                }
+                //Moves the unfinished last line to the front of the buffer and reads the rest of it on the next pass
+                System.arraycopy(bytes, lineStart, bytes, 0, limit - lineStart);
+                buffer.position(limit - lineStart);
+                scanFrom = limit - lineStart;
+            }
+            run.priceBatch();
+            run.flush();
+            return new PositionFileSummary(run.linesRead, run.rowsPriced, run.rejectedCount, run.rejections, System.nanoTime() - start);
+        }
+    }
+
+    //State of one run: the batch being filled, the output buffer and the counts
+    private final class Run {
+        private final FileChannel channel;
+        private final ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+        private final int[] lineNumbers = new int[BATCH_SIZE];
+        private final int[] settlementDates = new int[BATCH_SIZE];
+        private final int[] maturityDates = new int[BATCH_SIZE];
+        private final int[] lastCouponDates = new int[BATCH_SIZE];
+        private final double[] couponRates = new double[BATCH_SIZE];
+        private final double[] yieldsToMaturity = new double[BATCH_SIZE];
+        private final double[] nominalValues = new double[BATCH_SIZE];
+        private final double[] cleanPrices = new double[BATCH_SIZE];
+        private final double[] accruedInterest = new double[BATCH_SIZE];
+        private final double[] allInPrices = new double[BATCH_SIZE];
+        private final int[] fieldEnds = new int[FIELDS];
+        private final List<String> rejections = new ArrayList<>();
+        private int batchSize;
+        private long linesRead;
+        private long rowsPriced;
+        private long rejectedCount;
+
+        Run(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void line(byte[] bytes, int start, int end, int lineNumber) throws IOException {
+            if (end > start && bytes[end - 1] == '\r') {
+                end--;
+            }
+            if (isBlank(bytes, start, end)) {
+                return;
+            }
+            //A first line that does not start with a digit is taken as the header
+            if (lineNumber == 1 && !isDigit(bytes[skipSpaces(bytes, start, end)])) {
+                return;
+            }
+            linesRead++;
+            int fields = 0;
+            for (int i = start; i < end; i++) {
+                if (bytes[i] == ',') {
+                    if (fields == FIELDS - 1) {
+                        reject(lineNumber, "Expected " + FIELDS + " fields but found more.");
+                        return;
+                    }
+                    fieldEnds[fields++] = i;
+                }
+            }
+            fieldEnds[fields++] = end;
+            if (fields != FIELDS) {
+                reject(lineNumber, "Expected " + FIELDS + " fields but found " + fields + ".");
+                return;
+            }
+            try {
+                int settlementDate = parseDate(bytes, start, fieldEnds[0]);
+                int maturityDate = parseDate(bytes, fieldEnds[0] + 1, fieldEnds[1]);
+                int lastCouponDate = parseDate(bytes, fieldEnds[1] + 1, fieldEnds[2]);
+                double couponRate = parseNumber(bytes, fieldEnds[2] + 1, fieldEnds[3]);
+                double yieldToMaturity = parseNumber(bytes, fieldEnds[3] + 1, fieldEnds[4]);
+                double nominalValue = parseNumber(bytes, fieldEnds[4] + 1, fieldEnds[5]);
+                BondPortfolio.validate(settlementDate, maturityDate, lastCouponDate, couponRate, yieldToMaturity, nominalValue);
+
+                lineNumbers[batchSize] = lineNumber;
+                settlementDates[batchSize] = settlementDate;
+                maturityDates[batchSize] = maturityDate;
+                lastCouponDates[batchSize] = lastCouponDate;
+                couponRates[batchSize] = couponRate;
+                yieldsToMaturity[batchSize] = yieldToMaturity;
+                nominalValues[batchSize] = nominalValue;
+            } catch (IllegalArgumentException e) {
+                reject(lineNumber, e.getMessage());
+                return;
+            }
+            if (++batchSize == BATCH_SIZE) {
+                priceBatch();
+            }
+        }
+
+        void priceBatch() throws IOException {
+            if (batchSize == 0) {
+                return;
+            }
+            //Every row was validated as it was parsed
+            BondPortfolio portfolio = batchSize == BATCH_SIZE
+                    ? BondPortfolio.ofValidatedRows(settlementDates, maturityDates, lastCouponDates, couponRates, yieldsToMaturity, nominalValues)
+                    : BondPortfolio.ofValidatedRows(Arrays.copyOf(settlementDates, batchSize), Arrays.copyOf(maturityDates, batchSize),
+                    Arrays.copyOf(lastCouponDates, batchSize), Arrays.copyOf(couponRates, batchSize),
+                    Arrays.copyOf(yieldsToMaturity, batchSize), Arrays.copyOf(nominalValues, batchSize));
+            pricer.price(portfolio, cleanPrices, accruedInterest, allInPrices);
+            for (int i = 0; i < batchSize; i++) {
+                //Room for the line number, three prices of at most MAX_FIXED_LENGTH bytes and the separators
+                if (output.remaining() < 128) {
+                    flush();
+                }
+                writeLong(output, lineNumbers[i]);
+                output.put((byte) ',');
+                writeFixed(output, cleanPrices[i]);
+                output.put((byte) ',');
+                writeFixed(output, accruedInterest[i]);
+                output.put((byte) ',');
+                writeFixed(output, allInPrices[i]);
+                output.put((byte) '\n');
+            }
+            rowsPriced += batchSize;
+            batchSize = 0;
+        }
+
+        void flush() throws IOException {
+            output.flip();
+            while (output.hasRemaining()) {
+                channel.write(output);
+            }
+            output.clear();
+        }
+
+        private void reject(int lineNumber, String reason) {
+            rejectedCount++;
+            if (rejections.size() < MAX_REJECTIONS_KEPT) {
+                rejections.add("Line " + lineNumber + ": " + reason);
+            }
+        }
+    }
+
+    /** Epoch day of a yyyy-MM-dd date held in bytes[start, end), surrounding spaces allowed */
+    static int parseDate(byte[] bytes, int start, int end) {
+        start = skipSpaces(bytes, start, end);
+        end = trimSpaces(bytes, start, end);
+        if (end - start != 10 || bytes[start + 4] != '-' || bytes[start + 7] != '-') {
+            throw new IllegalArgumentException("Dates must be in the format yyyy-MM-dd.");
+        }
+        int year = digits(bytes, start, start + 4);
+        int month = digits(bytes, start + 5, start + 7);
+        int day = digits(bytes, start + 8, start + 10);
+        if (month < 1 || month > 12 || day < 1 || day > EpochDays.lengthOfMonth(year, month)) {
+            throw new IllegalArgumentException("Invalid date " + new String(bytes, start, 10, StandardCharsets.US_ASCII) + ".");
+        }
+        return EpochDays.of(year, month, day);
+    }
+
+    /** Decimal number held in bytes[start, end), surrounding spaces allowed
+     * Plain decimals of up to 15 digits are parsed directly - the digits form an exact long and are divided by an exact
+     * power of ten, so the one rounding gives the same double as Double.parseDouble. Anything else (exponents, longer
+     * numbers) falls back to Double.parseDouble */
+    static double parseNumber(byte[] bytes, int start, int end) {
+        start = skipSpaces(bytes, start, end);
+        end = trimSpaces(bytes, start, end);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        boolean plain = true;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (isDigit(b)) {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                }
+                digits++;
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                plain = false;
+                break;
+            }
+        }
+        if (plain && digits > 0 && digits <= 15) {
+            double value = fractionDigits == 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        String text = new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+        double value;
+        try {
+            value = Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number " + text + ".");
+        }
+        //parseDouble also accepts NaN, Infinity and numbers too large for a double, none of which is a price input
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Invalid number " + text + ".");
+        }
+        return value;
+    }
+
+    /** Writes value rounded half up to 4 decimal places, e.g. 103.2500
+     * At most MAX_FIXED_LENGTH bytes are written, whatever the value, so callers can reserve room for a line up front */
+    static void writeFixed(ByteBuffer out, double value) {
+        //Beyond 1e14 the value times 10000 no longer fits the exact range of a double, so BigDecimal does the rounding.
+        //Beyond 1e18 the plain digits would run to hundreds of bytes, so those values are written in scientific notation
+        if (!(Math.abs(value) < 1e14)) {
+            String text = Math.abs(value) < 1e18
+                    ? new BigDecimal(value).setScale(4, RoundingMode.HALF_UP).toPlainString() : Double.toString(value);
+            out.put(text.getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        long scaled = Math.round(Math.abs(value) * 10_000);
+        if (value < 0 && scaled != 0) {
+            out.put((byte) '-');
+        }
+        writeLong(out, scaled / 10_000);
+        out.put((byte) '.');
+        long fraction = scaled % 10_000;
+        out.put((byte) ('0' + fraction / 1000));
+        out.put((byte) ('0' + fraction / 100 % 10));
+        out.put((byte) ('0' + fraction / 10 % 10));
+        out.put((byte) ('0' + fraction % 10));
+    }
+
+    //Writes a non-negative long in decimal
+    private static void writeLong(ByteBuffer out, long value) {
+        if (value >= 10) {
+            writeLong(out, value / 10);
+        }
+        out.put((byte) ('0' + value % 10));
+    }
+
+    private static int digits(byte[] bytes, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            if (!isDigit(bytes[i])) {
+                throw new IllegalArgumentException("Dates must be in the format yyyy-MM-dd.");
+            }
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isBlank(byte[] bytes, int start, int end) {
+        return skipSpaces(bytes, start, end) == end;
+    }
+
+    private static int skipSpaces(byte[] bytes, int start, int end) {
+        while (start < end && (bytes[start] == ' ' || bytes[start] == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimSpaces(byte[] bytes, int start, int end) {
+        while (end > start && (bytes[end - 1] == ' ' || bytes[end - 1] == '\t')) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+class PositionFilePricerTest {
+    private static final double DAY_COUNT_CONVENTION = 365;
+    private static final int COUPON_FREQUENCY = 2;
+
+    @TempDir
+    Path directory;
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test //The R186 and R2032 examples are priced as Bond prices them, and invalid rows are rejected without stopping the run
+    void testPricesValidRowsAndRejectsInvalidRows() throws IOException {
+        Path input = directory.resolve("positions.csv");
+        Path output = directory.resolve("prices.csv");
+        Files.writeString(input, "settlement_date,maturity_date,last_coupon_date,coupon_rate,yield,nominal\r\n"
+                + "2017-02-07,2026-12-21,2016-12-21,0.105,0.0875,100\r\n"
+                + "\r\n"
+                + "2026-12-21,2017-02-07,2016-12-21,0.105,0.0875,100\n"
+                + "2024-05-16, 2032-03-31 ,2024-03-31,0.0825,0.095,1000000\n"
+                + "2024-02-30,2032-03-31,2024-03-31,0.0825,0.095,100\n"
+                + "2024-05-16,2032-03-31,2024-03-31,0.0825,abc,100\n"
+                + "2024-05-16,2032-03-31,2024-03-31,0.0825,0.095\n"
+                + "2024-05-16,2032-03-31,2024-03-31,0.0825,9.5e-2,100");
+
+        PositionFileSummary summary = new PositionFilePricer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY).price(input, output);
+
+        assertEquals(7, summary.getLinesRead());
+        assertEquals(3, summary.getRowsPriced());
+        assertEquals(4, summary.getRowsRejected());
+        assertEquals(List.of("Line 4: Settlement date must be before maturity date.", "Line 6: Invalid date 2024-02-30.",
+                "Line 7: Invalid number abc.", "Line 8: Expected 6 fields but found 5."), summary.getRejections());
+
+        Bond r186 = new Bond(LocalDate.parse("2017-02-07"), LocalDate.parse("2026-12-21"), LocalDate.parse("2016-12-21"),
+                0.105, 0.0875, 100, DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+        Bond r2032 = new Bond(LocalDate.parse("2024-05-16"), LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"),
+                0.0825, 0.095, 1_000_000, DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+        Bond r2032Exponent = new Bond(LocalDate.parse("2024-05-16"), LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"),
+                0.0825, 0.095, 100, DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(List.of("line,clean_price,accrued_interest,all_in_price", expected(2, r186), expected(5, r2032), expected(9, r2032Exponent)), lines);
+    }
+
+    private static String expected(int line, Bond bond) {
+        return line + "," + String.format(java.util.Locale.US, "%.4f,%.4f,%.4f",
+                bond.calculateCleanPrice(), bond.calculateAccruedInterest(), bond.calculateAllInPrice());
+    }
+
+    @Test //A file much larger than the read buffer streams through in full, with lines split across buffer refills
+    void testStreamsLargeFile() throws IOException {
+        Path input = directory.resolve("large.csv");
+        Path output = directory.resolve("large-prices.csv");
+        int rows = 50_000;
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            builder.append("2024-05-16,2032-03-31,2024-03-31,0.0825,0.095,").append(100 + i).append('\n');
+        }
+        Files.writeString(input, builder);
+
+        PositionFileSummary summary = new PositionFilePricer(DAY_COUNT_CONVENTION, COUPON_FREQUENCY).price(input, output);
+
+        assertEquals(rows, summary.getRowsPriced());
+        assertEquals(0, summary.getRowsRejected());
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(rows + 1, lines.size());
+        Bond last = new Bond(LocalDate.parse("2024-05-16"), LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"),
+                0.0825, 0.095, 100 + rows - 1, DAY_COUNT_CONVENTION, COUPON_FREQUENCY);
+        assertEquals(expected(rows, last), lines.get(rows));
+    }
+
+    @Test //The hand-rolled parsers agree with LocalDate and Double.parseDouble
+    void testParsersMatchLibrary() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            String number = random.nextInt(2_000_000) - 1_000_000 + "." + random.nextInt(1_000_000_000);
+            byte[] bytes = ascii(number);
+            assertEquals(Double.parseDouble(number), PositionFilePricer.parseNumber(bytes, 0, bytes.length), 0.0, number);
+        }
+        for (String number : new String[]{"0.105", "100", "+7", "-0.5", "1e3", "12345678901234567890.5", " 0.0875 "}) {
+            byte[] bytes = ascii(number);
+            assertEquals(Double.parseDouble(number.trim()), PositionFilePricer.parseNumber(bytes, 0, bytes.length), 0.0, number);
+        }
+        LocalDate date = LocalDate.parse("1999-01-01");
+        for (int i = 0; i < 20_000; i++, date = date.plusDays(1)) {
+            byte[] bytes = ascii(date.toString());
+            assertEquals(date.toEpochDay(), PositionFilePricer.parseDate(bytes, 0, bytes.length));
+        }
+        assertThrows(IllegalArgumentException.class, () -> PositionFilePricer.parseDate(ascii("2024-13-01"), 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> PositionFilePricer.parseDate(ascii("2024/01/01"), 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> PositionFilePricer.parseNumber(ascii("1.2.3"), 0, 5));
+        for (String number : new String[]{"NaN", "Infinity", "-Infinity", "1e400"}) {
+            assertThrows(IllegalArgumentException.class, () -> PositionFilePricer.parseNumber(ascii(number), 0, number.length()), number);
+        }
+        assertThrows(IllegalArgumentException.class, () -> BondPortfolio.validate(0, 100, 0, Double.NaN, 0.09, 100));
+        assertThrows(IllegalArgumentException.class, () -> BondPortfolio.validate(0, 100, 0, 0.08, Double.POSITIVE_INFINITY, 100));
+        assertThrows(IllegalArgumentException.class, () -> BondPortfolio.validate(0, 100, 0, 0.08, 0.09, Double.NaN));
+    }
+
+    @Test //Prices are written with 4 decimal places, rounded half up
+    void testWriteFixed() {
+        ByteBuffer out = ByteBuffer.allocate(64);
+        for (double value : new double[]{0, 103.25, 1.23456, -2.00005, 0.00004, 123456789.98765}) {
+            out.clear();
+            PositionFilePricer.writeFixed(out, value);
+            assertEquals(String.format(java.util.Locale.US, "%.4f", value), new String(out.array(), 0, out.position(), StandardCharsets.US_ASCII));
+        }
+        //However large the value, no more than MAX_FIXED_LENGTH bytes are written
+        for (double value : new double[]{-9.99e17, 1e18, -Double.MAX_VALUE, Double.NaN, Double.NEGATIVE_INFINITY}) {
+            out.clear();
+            PositionFilePricer.writeFixed(out, value);
+            assertTrue(out.position() <= PositionFilePricer.MAX_FIXED_LENGTH, value + " took " + out.position() + " bytes");
+        }
+        out.clear();
+        PositionFilePricer.writeFixed(out, 123456789012345.5);
+        assertEquals("123456789012345.5000", new String(out.array(), 0, out.position(), StandardCharsets.US_ASCII));
+    }
+}
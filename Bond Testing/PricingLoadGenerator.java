@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/** Open-loop load generator for a PricingServer on localhost.
+ * Requests are spread over a number of connections, each sending at a fixed interval so that together they make the
+ * target rate. The workload is an even mix of PRICE, CURVE and RATE requests on random SAGB-like positions and dates, so
+ * two thirds of it goes through the server's curve batching.
+ * Latency is measured from the time a request was due to be sent, not the time it was actually written, so a server that
+ * falls behind shows its queueing delay in the percentiles instead of slowing the generator down (coordinated omission).
+ * Latencies go into the same log-linear histogram the pricing metrics use. */
+public class PricingLoadGenerator {
+    private static final LocalDate SETTLEMENT = LocalDate.parse("2024-05-16");
+
+    private final int port;
+    private final int connections;
+
+    public PricingLoadGenerator(int port, int connections) {
+        if (connections <= 0) {
+            throw new IllegalArgumentException("At least one connection is needed.");
+        }
+        this.port = port;
+        this.connections = connections;
+    }
+
+    /** Function Objective: Send requests at requestsPerSecond for durationMillis and report latency and throughput */
+    public Report run(int requestsPerSecond, long durationMillis) throws IOException, InterruptedException {
+        if (requestsPerSecond <= 0 || durationMillis <= 0) {
+            throw new IllegalArgumentException("Request rate and duration must be positive.");
+        }
+        long requestsPerConnection = Math.max(1, requestsPerSecond * durationMillis / 1000 / connections);
+        long intervalNanos = 1_000_000_000L * connections / requestsPerSecond;
+        PricingMetrics.LatencyHistogram latency = new PricingMetrics.LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        List<Socket> sockets = new ArrayList<>();
+        long start = System.nanoTime() + 10_000_000;
+        try {
+            for (int c = 0; c < connections; c++) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+                //Connections start a fraction of an interval apart, so their sends interleave instead of arriving together
+                long connectionStart = start + intervalNanos * c / connections;
+                byte[][] requests = requests(1024, c);
+                threads.add(new Thread(() -> send(socket, requests, requestsPerConnection, connectionStart, intervalNanos),
+                        "pricing-load-sender-" + c));
+                threads.add(new Thread(() -> receive(socket, requestsPerConnection, connectionStart, intervalNanos, latency, errors),
+                        "pricing-load-receiver-" + c));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Report(requestsPerSecond, latency.count(), errors.sum(), elapsed, latency.percentile(50),
+                latency.percentile(99), latency.percentile(99.9), latency.max());
+    }
+
+    //Writes request i of the connection once its due time has come
+    private static void send(Socket socket, byte[][] requests, long count, long start, long intervalNanos) {
+        try {
+            OutputStream out = socket.getOutputStream();
+            for (long i = 0; i < count; i++) {
+                long due = start + i * intervalNanos;
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                out.write(requests[(int) (i % requests.length)]);
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Load generator could not send: " + e.getMessage());
+        }
+    }
+
+    //Reads the responses in order and records each one's latency from the due time of its request
+    private static void receive(Socket socket, long count, long start, long intervalNanos,
+                                PricingMetrics.LatencyHistogram latency, LongAdder errors) {
+        try {
+            InputStream in = socket.getInputStream();
+            byte[] bytes = new byte[1 << 16];
+            long received = 0;
+            boolean lineStart = true;
+            while (received < count) {
+                int read = in.read(bytes);
+                if (read < 0) {
+                    break;
+                }
+                long now = System.nanoTime();
+                for (int i = 0; i < read; i++) {
+                    if (lineStart && bytes[i] == 'E') {
+                        errors.increment();
+                    }
+                    lineStart = bytes[i] == '\n';
+                    if (lineStart) {
+                        latency.record(now - (start + received * intervalNanos));
+                        received++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Load generator could not receive: " + e.getMessage());
+        }
+    }
+
+    //An even mix of PRICE, CURVE and RATE requests on random positions settling on the same day
+    static byte[][] requests(int size, long seed) {
+        Random random = new Random(seed);
+        byte[][] requests = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            LocalDate maturity = SETTLEMENT.plusDays(180 + random.nextInt(25 * 365));
+            LocalDate lastCoupon = maturity.minusMonths(6);
+            while (lastCoupon.isAfter(SETTLEMENT)) {
+                lastCoupon = lastCoupon.minusMonths(6);
+            }
+            double couponRate = 0.06 + random.nextInt(500) / 10_000.0;
+            String request;
+            if (i % 3 == 0) {
+                request = String.format(Locale.US, "PRICE %s,%s,%s,%.4f,%.4f,100%n", SETTLEMENT, maturity, lastCoupon,
+                        couponRate, 0.07 + random.nextInt(500) / 10_000.0);
+            } else if (i % 3 == 1) {
+                request = String.format(Locale.US, "CURVE %s,%s,%s,%.4f,100%n", SETTLEMENT, maturity, lastCoupon, couponRate);
+            } else {
+                request = "RATE " + maturity + "\n";
+            }
+            requests[i] = request.getBytes(StandardCharsets.US_ASCII);
+        }
+        return requests;
+    }
+
+    /** Latency and throughput of one run, latencies in nanoseconds */
+    public static final class Report {
+        private final int targetRate;
+        private final long responses;
+        private final long errors;
+        private final long elapsedNanos;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        Report(int targetRate, long responses, long errors, long elapsedNanos, long p50, long p99, long p999, long max) {
+            this.targetRate = targetRate;
+            this.responses = responses;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public long getResponses() {
+            return responses;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getThroughput() {
+            return responses / (elapsedNanos / 1e9);
+        }
+
+        public long getP50Nanos() {
+            return p50;
+        }
+
+        public long getP99Nanos() {
+            return p99;
+        }
+
+        public long getP999Nanos() {
+            return p999;
+        }
+
+        public long getMaxNanos() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "target %,d req/s: %,d responses (%d errors), %,.0f req/s, "
+                            + "p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+                    targetRate, responses, errors, getThroughput(), p50 / 1e3, p99 / 1e3, p999 / 1e3, max / 1e3);
+        }
+    }
+}
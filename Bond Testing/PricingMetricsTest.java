@@ -0,0 +1,137 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+class PricingMetricsTest {
+    //Runs the main method of a class in a new JVM with metrics switched on and returns what it printed
+    static String runWithMetrics(Class<?> main) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-Dpricing.metrics=true", "-cp", System.getProperty("java.class.path"), main.getName())
+                .redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.US_ASCII).trim();
+        assertEquals(0, process.waitFor(), output);
+        return output;
+    }
+
+    @Test //Percentiles are within the histogram's 1/32 resolution of the exact values, and max is exact
+    void testHistogramPercentiles() {
+        PricingMetrics.LatencyHistogram histogram = new PricingMetrics.LatencyHistogram();
+        assertEquals(0, histogram.percentile(99));
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos);
+        }
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        assertEquals(50_000, histogram.percentile(50), 50_000 / 32.0);
+        assertEquals(99_000, histogram.percentile(99), 99_000 / 32.0);
+        assertEquals(100_000, histogram.percentile(100));
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+    }
+
+    @Test //Values recorded from many threads at once land in different stripes and are all counted when the stripes are merged
+    void testConcurrentRecording() throws Exception {
+        PricingMetrics.LatencyHistogram histogram = new PricingMetrics.LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (long nanos = 1; nanos <= 10_000; nanos++) {
+                    histogram.record(nanos);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80_000, histogram.count());
+        assertEquals(10_000, histogram.max());
+        assertEquals(5_000, histogram.percentile(50), 5_000 / 32.0);
+    }
+
+    @Test //Every value falls in a bucket whose highest value is at least the value and less than 1/32 above it
+    void testBucketBounds() {
+        for (long value = 0; value < 1L << 20; value += 1 + value / 7) {
+            long highest = PricingMetrics.LatencyHistogram.highestValue(PricingMetrics.LatencyHistogram.bucket(value));
+            assertTrue(highest >= value && highest - value <= value / 32, "value " + value + " reported as " + highest);
+        }
+    }
+
+    @Test //Counters, the schedule cache hit rate and the text dump, also read through JMX
+    void testCountersDumpAndJmx() throws Exception {
+        CouponScheduleRegistry registry = new CouponScheduleRegistry(16);
+        PricingMetrics metrics = new PricingMetrics(registry);
+        int lastCoupon = (int) LocalDate.parse("2024-03-31").toEpochDay();
+        int maturity = (int) LocalDate.parse("2032-03-31").toEpochDay();
+        registry.schedule(lastCoupon, maturity, 6);
+        registry.schedule(lastCoupon, maturity, 6);
+        registry.schedule(lastCoupon, maturity, 6);
+        registry.schedule(lastCoupon, maturity, 6);
+        metrics.valuation(1_200);
+        metrics.cachedValuation();
+        metrics.cachedValuation();
+        metrics.batchRows(4096);
+
+        assertEquals(1, metrics.getValuations());
+        assertEquals(2, metrics.getCachedValuations());
+        assertEquals(4096, metrics.getBatchRowsPriced());
+        assertEquals(0.75, metrics.getScheduleCacheHitRate(), 0.0);
+        assertTrue(metrics.dump().contains("valuations 1, cached reads 2, batch rows priced 4096"));
+
+        ObjectName name = new ObjectName("pricing:type=BondValuation,name=PricingMetricsTest");
+        metrics.register(name.toString());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(1L, server.getAttribute(name, "Valuations"));
+            assertEquals(0.75, (Double) server.getAttribute(name, "ScheduleCacheHitRate"), 0.0);
+            server.invoke(name, "reset", null, null);
+            assertEquals(0, metrics.getValuations());
+            assertEquals(3, metrics.getScheduleCacheHits());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test //With metrics on, a Bond counts one valuation and then cached reads - checked in a JVM started with -Dpricing.metrics=true
+    void testBondRecordsValuations() throws Exception {
+        assertEquals("valuations 1, cached reads 2", runWithMetrics(BondValuations.class));
+    }
+
+    @Test //With metrics off (the default) a Bond records nothing
+    void testBondRecordsNothingWhenOff() {
+        PricingMetrics metrics = PricingMetrics.shared();
+        long valuations = metrics.getValuations();
+        long cached = metrics.getCachedValuations();
+        BondValuations.price();
+        int expected = PricingMetrics.ENABLED ? 1 : 0;
+        assertEquals(valuations + expected, metrics.getValuations());
+        assertEquals(cached + 2 * expected, metrics.getCachedValuations());
+    }
+
+    //Prices a Bond once and reads it twice more, then prints what the shared metrics recorded
+    static final class BondValuations {
+        static void price() {
+            Bond bond = new Bond(LocalDate.parse("2024-05-16"), LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"),
+                    0.0825, 0.095, 100, 365, 2);
+            bond.calculateCleanPrice();
+            bond.calculateAllInPrice();
+            bond.calculateAccruedInterest();
+        }
+
+        public static void main(String[] args) {
+            price();
+            PricingMetrics metrics = PricingMetrics.shared();
+            System.out.println("valuations " + metrics.getValuations() + ", cached reads " + metrics.getCachedValuations());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class PricingServerTest {
+    private static final LocalDate SETTLEMENT = LocalDate.parse("2024-05-16");
+
+    //Curve rising by slope% per year from start% at settlement
+    private static DiscountCurve slopedCurve(double start, double slope) {
+        return (epochDays, out) -> {
+            for (int i = 0; i < epochDays.length; i++) {
+                out[i] = start + slope * (epochDays[i] - SETTLEMENT.toEpochDay()) / 365.0;
+            }
+        };
+    }
+
+    private static String fixed(double value) {
+        return String.format(Locale.US, "%.4f", value);
+    }
+
+    //Sends all the requests in one write and reads one response line per request
+    private static List<String> exchange(int port, String... requests) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write((String.join("\n", requests) + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            List<String> responses = new ArrayList<>();
+            for (int i = 0; i < requests.length; i++) {
+                responses.add(in.readLine());
+            }
+            return responses;
+        }
+    }
+
+    @Test //Pipelined PRICE, CURVE and RATE requests are answered in order with the prices of Bond and the rates of the curve
+    void testRequestsMatchBondAndCurve() throws IOException {
+        DiscountCurve curve = slopedCurve(8.0, 0.2);
+        try (PricingServer server = PricingServer.start(0, curve)) {
+            List<String> responses = exchange(server.getPort(),
+                    "PRICE 2024-05-16,2032-03-31,2024-03-31,0.0825,0.095,100",
+                    "CURVE 2024-05-16,2032-03-31,2024-03-31,0.0825,100",
+                    "RATE 2030-06-01",
+                    "PRICE 2024-05-16,2024-04-01,2024-03-31,0.0825,0.095,100",
+                    "CURVE 2024-05-16,2032-03-31",
+                    "RATE 2030-13-01",
+                    "QUOTE R2032");
+            Bond bond = new Bond(SETTLEMENT, LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"), 0.0825, 0.095, 100, 365, 2);
+            assertEquals("OK " + fixed(bond.calculateCleanPrice()) + "," + fixed(bond.calculateAccruedInterest()) + ","
+                    + fixed(bond.calculateAllInPrice()), responses.get(0));
+            assertEquals("OK " + fixed(bond.calculateCleanPrice(curve)) + "," + fixed(bond.calculateAccruedInterest()) + ","
+                    + fixed(bond.calculateAllInPrice(curve)), responses.get(1));
+            double[] rate = new double[1];
+            curve.getRates(new int[]{(int) LocalDate.parse("2030-06-01").toEpochDay()}, rate);
+            assertEquals("OK " + fixed(rate[0]), responses.get(2));
+            assertEquals("ERROR Settlement date must be before maturity date.", responses.get(3));
+            assertEquals("ERROR Expected 5 fields but found 2.", responses.get(4));
+            assertTrue(responses.get(5).startsWith("ERROR Invalid date"));
+            assertTrue(responses.get(6).startsWith("ERROR Unknown request"));
+            assertEquals(7, server.getRequests());
+        }
+    }
+
+    @Test //Concurrent clients all get the rates of the curve, requests share batches, and a new curve is picked up
+    void testConcurrentRateRequestsAndCurveSwap() throws Exception {
+        DiscountCurve curve = slopedCurve(8.0, 0.2);
+        try (PricingServer server = PricingServer.start(0, curve)) {
+            ExecutorService clients = Executors.newFixedThreadPool(8);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int c = 0; c < 8; c++) {
+                int client = c;
+                results.add(clients.submit(() -> {
+                    String[] requests = new String[200];
+                    for (int i = 0; i < requests.length; i++) {
+                        requests[i] = "RATE " + SETTLEMENT.plusDays(30L * i + client);
+                    }
+                    List<String> responses = exchange(server.getPort(), requests);
+                    double[] rate = new double[1];
+                    for (int i = 0; i < requests.length; i++) {
+                        curve.getRates(new int[]{(int) SETTLEMENT.plusDays(30L * i + client).toEpochDay()}, rate);
+                        if (!responses.get(i).equals("OK " + fixed(rate[0]))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+            clients.shutdown();
+            assertEquals(1600, server.getRequests());
+
+            server.setCurve(slopedCurve(5.0, 0.0));
+            assertEquals(List.of("OK 5.0000"), exchange(server.getPort(), "RATE 2040-01-01"));
+        }
+    }
+
+    @Test //Requests that queue up while the batching thread is busy are all answered from one batch
+    void testQueuedRequestsShareOneBatch() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DiscountCurve sloped = slopedCurve(8.0, 0.2);
+        DiscountCurve blocking = (epochDays, out) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sloped.getRates(epochDays, out);
+        };
+        try (PricingServer server = PricingServer.start(0, blocking)) {
+            ExecutorService clients = Executors.newFixedThreadPool(8);
+            List<Future<List<String>>> results = new ArrayList<>();
+            results.add(clients.submit(() -> exchange(server.getPort(), "RATE 2030-06-01")));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            for (int c = 1; c < 8; c++) {
+                String request = "RATE " + SETTLEMENT.plusYears(c);
+                results.add(clients.submit(() -> exchange(server.getPort(), request)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (server.getQueuedCurveRequests() < 7 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<List<String>> result : results) {
+                assertTrue(result.get().get(0).startsWith("OK "));
+            }
+            clients.shutdown();
+            assertEquals(8, server.getRequests());
+            assertEquals(2, server.getCurveBatches());
+        }
+    }
+
+    @Test //The example curve bootstrapped from the SAGB strip reprices every bond of the strip through CURVE requests
+    void testExampleCurveRepricesItsStrip() throws IOException {
+        List<Bond> strip = PricingServer.exampleStrip();
+        DiscountCurve curve = new ZeroCurveBootstrapper(strip);
+        try (PricingServer server = PricingServer.start(0, curve)) {
+            String[] requests = new String[strip.size()];
+            for (int i = 0; i < strip.size(); i++) {
+                Bond bond = strip.get(i);
+                requests[i] = "CURVE " + bond.getSettlementDate() + "," + bond.getMaturityDate() + "," + bond.getLastCouponDate()
+                        + "," + bond.getCouponRate() + "," + bond.getFaceValue();
+            }
+            List<String> responses = exchange(server.getPort(), requests);
+            for (int i = 0; i < strip.size(); i++) {
+                Bond bond = strip.get(i);
+                assertEquals("OK " + fixed(bond.calculateCleanPrice()) + "," + fixed(bond.calculateAccruedInterest()) + ","
+                        + fixed(bond.calculateAllInPrice()), responses.get(i), "Bond maturing " + bond.getMaturityDate());
+            }
+        }
+    }
+
+    @Test //Each batch prices off a fresh snapshot of a bootstrapped curve, so a quote tick reaches the next CURVE request
+    void testCurveRequestsFollowQuoteTicks() throws IOException {
+        List<Bond> strip = PricingServer.exampleStrip();
+        ZeroCurveBootstrapper curve = new ZeroCurveBootstrapper(strip);
+        Bond r2032 = strip.get(2);
+        String request = "CURVE " + r2032.getSettlementDate() + "," + r2032.getMaturityDate() + "," + r2032.getLastCouponDate()
+                + "," + r2032.getCouponRate() + "," + r2032.getFaceValue();
+        try (PricingServer server = PricingServer.start(0, curve)) {
+            assertEquals("OK " + fixed(r2032.calculateCleanPrice()) + "," + fixed(r2032.calculateAccruedInterest()) + ","
+                    + fixed(r2032.calculateAllInPrice()), exchange(server.getPort(), request).get(0));
+            curve.setYield(r2032, 0.105);
+            r2032.setYield(0.105);
+            assertEquals("OK " + fixed(r2032.calculateCleanPrice()) + "," + fixed(r2032.calculateAccruedInterest()) + ","
+                    + fixed(r2032.calculateAllInPrice()), exchange(server.getPort(), request).get(0));
+            assertEquals(2, server.getCurveBatches());
+        }
+    }
+
+    @Test //The load generator gets an answer to every request it sends, and reports ordered percentiles
+    void testLoadGeneratorReportsEveryResponse() throws Exception {
+        try (PricingServer server = PricingServer.start(0, slopedCurve(8.0, 0.2))) {
+            PricingLoadGenerator.Report report = new PricingLoadGenerator(server.getPort(), 4).run(4_000, 500);
+            assertEquals(2_000, report.getResponses());
+            assertEquals(0, report.getErrors());
+            assertEquals(2_000, server.getRequests());
+            //CURVE and RATE requests make up two thirds of the mix and all go through the batching thread
+            assertTrue(server.getCurveBatches() > 0);
+            assertTrue(report.getP50Nanos() > 0);
+            assertTrue(report.getP50Nanos() <= report.getP99Nanos());
+            assertTrue(report.getP99Nanos() <= report.getMaxNanos());
+            assertTrue(report.getThroughput() > 0);
+        }
+    }
+}
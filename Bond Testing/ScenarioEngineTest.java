@@ -0,0 +1,121 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class ScenarioEngineTest {
+    private static final LocalDate SETTLEMENT = LocalDate.parse("2024-05-16");
+
+    //size random SAGB-like bonds with maturities of up to 30 years
+    private static List<Bond> bonds(int size, long seed) {
+        Random random = new Random(seed);
+        List<Bond> bonds = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            bonds.add(new Bond(SETTLEMENT, SETTLEMENT.plusDays(1 + random.nextInt(30 * 365)), SETTLEMENT.minusDays(random.nextInt(182)),
+                    0.05 + random.nextInt(800) / 10_000.0, 0.06 + random.nextInt(600) / 10_000.0, 100, 365, 2));
+        }
+        return bonds;
+    }
+
+    //Curve rising by slope% per year from start% at settlement
+    private static DiscountCurve slopedCurve(double start, double slope) {
+        return (epochDays, out) -> {
+            for (int i = 0; i < epochDays.length; i++) {
+                out[i] = start + slope * (epochDays[i] - SETTLEMENT.toEpochDay()) / 365.0;
+            }
+        };
+    }
+
+    @Test //Each scenario price must equal the bond's own all-in-price at the shifted yield, and the bonds must be left as they were
+    void testYieldShiftsMatchRepricedBonds() {
+        List<Bond> bonds = bonds(50, 3);
+        double[] basePrices = new double[bonds.size()];
+        for (int b = 0; b < bonds.size(); b++) {
+            basePrices[b] = bonds.get(b).calculateAllInPrice();
+        }
+        double[][] shifts = ScenarioEngine.parallelShifts(bonds.size(), -0.01, -0.0001, 0.0, 0.0001, 0.02);
+        ScenarioPrices prices = new ScenarioEngine().priceYieldShifts(bonds, shifts);
+        assertEquals(5, prices.getScenarioCount());
+        assertEquals(50, prices.getBondCount());
+        for (int s = 0; s < shifts.length; s++) {
+            for (int b = 0; b < bonds.size(); b++) {
+                Bond bond = bonds.get(b);
+                Bond shifted = new Bond(SETTLEMENT, bond.getMaturityDate(), bond.getLastCouponDate(), bond.getCouponRate(),
+                        bond.getYieldToMaturity() + shifts[s][b], bond.getFaceValue(), 365, 2);
+                assertEquals(shifted.calculateAllInPrice(), prices.getAllInPrice(s, b), 0.0);
+                assertEquals(shifted.calculateCleanPrice(), prices.getCleanPrice(s, b), 1e-12);
+            }
+        }
+        for (int b = 0; b < bonds.size(); b++) {
+            assertEquals(basePrices[b], bonds.get(b).calculateAllInPrice(), 0.0);
+            assertEquals(basePrices[b], prices.getAllInPrice(2, b), 0.0);
+        }
+    }
+
+    @Test //Each curve scenario price must equal calculateAllInPrice(curve) of the bond
+    void testCurveScenariosMatchCurvePricing() {
+        List<Bond> bonds = bonds(40, 11);
+        List<DiscountCurve> curves = new ArrayList<>();
+        for (int s = 0; s < 20; s++) {
+            curves.add(slopedCurve(7.5 + s * 0.1, 0.05 * s - 0.5));
+        }
+        ScenarioPrices prices = new ScenarioEngine().priceCurves(bonds, curves);
+        for (int s = 0; s < curves.size(); s++) {
+            for (int b = 0; b < bonds.size(); b++) {
+                assertEquals(bonds.get(b).calculateAllInPrice(curves.get(s)), prices.getAllInPrice(s, b), 0.0);
+            }
+        }
+    }
+
+    @Test //The price matrix must not depend on the number of threads
+    void testResultsIndependentOfThreadCount() {
+        List<Bond> bonds = bonds(200, 5);
+        double[] shortShifts = new double[100];
+        double[] longShifts = new double[100];
+        for (int s = 0; s < 100; s++) {
+            shortShifts[s] = (s - 50) * 0.0001;
+            longShifts[s] = (50 - s) * 0.0001;
+        }
+        double[][] shifts = ScenarioEngine.twistShifts(bonds, 2, 10, shortShifts, longShifts);
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            ScenarioPrices expected = new ScenarioEngine(single).priceYieldShifts(bonds, shifts);
+            ScenarioPrices actual = new ScenarioEngine(several).priceYieldShifts(bonds, shifts);
+            for (int s = 0; s < shifts.length; s++) {
+                assertArrayEquals(expected.getAllInPrices(s), actual.getAllInPrices(s), 0.0);
+                assertEquals(expected.getTotalAllInPrice(s), actual.getTotalAllInPrice(s), 0.0);
+            }
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test //Twists move short bonds by the short shift, long bonds by the long shift and interpolate in between
+    void testTwistShifts() {
+        List<Bond> bonds = List.of(
+                new Bond(SETTLEMENT, SETTLEMENT.plusYears(1), SETTLEMENT, 0.08, 0.09, 100, 365, 2),
+                new Bond(SETTLEMENT, SETTLEMENT.plusDays(6 * 365), SETTLEMENT, 0.08, 0.09, 100, 365, 2),
+                new Bond(SETTLEMENT, SETTLEMENT.plusYears(25), SETTLEMENT, 0.08, 0.09, 100, 365, 2));
+        double[][] shifts = ScenarioEngine.twistShifts(bonds, 2, 10, new double[]{-0.01}, new double[]{0.01});
+        assertEquals(-0.01, shifts[0][0], 0.0);
+        assertEquals(0.0, shifts[0][1], 1e-15);
+        assertEquals(0.01, shifts[0][2], 0.0);
+    }
+
+    @Test //Scenario matrices of the wrong shape and shifts that push a yield past -frequency are rejected
+    void testInvalidScenarios() {
+        List<Bond> bonds = bonds(3, 1);
+        ScenarioEngine engine = new ScenarioEngine();
+        assertThrows(IllegalArgumentException.class, () -> engine.priceYieldShifts(bonds, new double[][]{{0.01, 0.01}}));
+        assertThrows(IllegalArgumentException.class, () -> engine.priceYieldShifts(bonds, ScenarioEngine.parallelShifts(3, -3.0)));
+        assertThrows(IllegalArgumentException.class, () -> ScenarioEngine.twistShifts(bonds, 10, 2, new double[1], new double[1]));
+        assertThrows(IllegalArgumentException.class, () -> ScenarioEngine.twistShifts(bonds, 2, 10, new double[1], new double[2]));
+        assertEquals(0, engine.priceYieldShifts(bonds, new double[0][]).getScenarioCount());
+    }
+}
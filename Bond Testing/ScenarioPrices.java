@@ -0,0 +1,59 @@
+/** Result of a ScenarioEngine run: the price of every bond in every scenario.
+ * Accrued interest does not depend on the yield or the curve, so it is held once per bond and the clean price of a
+ * scenario is its all-in-price minus the bond's accrued interest. */
+public final class ScenarioPrices {
+    private final int scenarioCount;
+    private final double[] accruedInterest;
+    //Scenario-major: the prices of scenario s are at s * bondCount ... (s + 1) * bondCount - 1
+    private final double[] allInPrices;
+    private final long elapsedNanos;
+
+    ScenarioPrices(int scenarioCount, double[] accruedInterest, double[] allInPrices, long elapsedNanos) {
+        this.scenarioCount = scenarioCount;
+        this.accruedInterest = accruedInterest;
+        this.allInPrices = allInPrices;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getScenarioCount() {
+        return scenarioCount;
+    }
+
+    public int getBondCount() {
+        return accruedInterest.length;
+    }
+
+    public double getAllInPrice(int scenario, int bond) {
+        return allInPrices[scenario * accruedInterest.length + bond];
+    }
+
+    public double getCleanPrice(int scenario, int bond) {
+        return getAllInPrice(scenario, bond) - accruedInterest[bond];
+    }
+
+    public double getAccruedInterest(int bond) {
+        return accruedInterest[bond];
+    }
+
+    //Sum of the all-in-prices of every bond in one scenario, added up in bond order
+    public double getTotalAllInPrice(int scenario) {
+        double total = 0.0;
+        int from = scenario * accruedInterest.length;
+        for (int b = 0; b < accruedInterest.length; b++) {
+            total += allInPrices[from + b];
+        }
+        return total;
+    }
+
+    //All-in-prices of one scenario as a new array indexed by bond
+    public double[] getAllInPrices(int scenario) {
+        double[] prices = new double[accruedInterest.length];
+        System.arraycopy(allInPrices, scenario * accruedInterest.length, prices, 0, prices.length);
+        return prices;
+    }
+
+    //Wall-clock time of the run in nanoseconds
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
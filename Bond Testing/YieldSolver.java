@@ -0,0 +1,232 @@
+/** Price-to-yield inverse of Bond.
+ * Solves for the yield to maturity that reproduces a quoted clean or all-in price. Newton's method is used with the
+ * analytic derivative of the price, and Brent's method takes over on a bracketed interval whenever Newton leaves the
+ * valid yield range or fails to converge. Each iteration works off the bond's cached discount exponents with a
+ * single log per yield, so solving allocates nothing.
+ * A solver keeps running statistics and is therefore not thread-safe, use one instance per thread. */
+public class YieldSolver {
+    private static final int MAX_NEWTON_ITERATIONS = 20;
+
+    private final double tolerance;
+    private final int maxIterations;
+
+    //Convergence statistics
+    private long solveCount;
+    private long totalIterations;
+    private long brentFallbackCount;
+    private long failureCount;
+    private int lastIterations;
+
+    //Price and derivative of the most recent evaluation, kept in fields so evaluate() needs no result object
+    private double price;
+    private double derivative;
+
+    public YieldSolver() {
+        this(1e-12, 200);
+    }
+
+    public YieldSolver(double tolerance, int maxIterations) {
+        if (tolerance <= 0 || maxIterations <= 0) {
+            throw new IllegalArgumentException("Tolerance and maximum iterations must be positive.");
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**Function Objective: Implied yield to maturity for a quoted clean price
+     * The clean price is converted to the all-in price by adding accrued interest, which does not depend on the yield */
+    public double solveFromCleanPrice(Bond bond, double cleanPrice) {
+        return solveFromAllInPrice(bond, cleanPrice + bond.calculateAccruedInterest());
+    }
+
+    /**Function Objective: Implied yield to maturity for a quoted all-in (dirty) price */
+    public double solveFromAllInPrice(Bond bond, double allInPrice) {
+        if (!(allInPrice > 0)) {
+            throw new IllegalArgumentException("Price must be positive.");
+        }
+        double[] exponents = bond.couponExponents();
+        double faceValueExponent = bond.faceValueExponent();
+        double couponPayment = bond.couponPayment();
+        double nominal = bond.nominal();
+        int frequency = bond.frequency();
+        //The price tends to infinity as 1 + y / f tends to zero, so every yield above this floor is admissible
+        double minimumYield = -frequency * (1 - 1e-9);
+        double priceTolerance = tolerance * allInPrice;
+
+        solveCount++;
+        int iterations = 0;
+
+        //Newton's method starting from the coupon rate, which is the yield of a bond priced at par
+        double yield = couponPayment * frequency / nominal;
+        if (!(yield > minimumYield) || Double.isInfinite(yield)) {
+            yield = 0.0;
+        }
+        while (iterations < MAX_NEWTON_ITERATIONS && iterations < maxIterations) {
+            iterations++;
+            evaluate(yield, exponents, faceValueExponent, couponPayment, nominal, frequency, true);
+            double error = price - allInPrice;
+            if (Math.abs(error) <= priceTolerance) {
+                return converged(iterations, yield);
+            }
+            double step = error / derivative;
+            double next = yield - step;
+            if (!(next > minimumYield) || Double.isNaN(next)) {
+                break;
+            }
+            yield = next;
+            if (Math.abs(step) <= tolerance * Math.max(1.0, Math.abs(yield))) {
+                return converged(iterations, yield);
+            }
+        }
+
+        //Brent's method on a bracket [low, high] with price(low) > target > price(high) - price always falls as the yield rises
+        brentFallbackCount++;
+        double low = Math.min(0.0, yield);
+        double high = Math.max(1.0, yield);
+        double fLow = evaluate(low, exponents, faceValueExponent, couponPayment, nominal, frequency, false) - allInPrice;
+        double fHigh = evaluate(high, exponents, faceValueExponent, couponPayment, nominal, frequency, false) - allInPrice;
+        while (fLow < 0 && iterations < maxIterations) {
+            iterations++;
+            high = low;
+            fHigh = fLow;
+            low = (low + minimumYield) / 2;
+            fLow = evaluate(low, exponents, faceValueExponent, couponPayment, nominal, frequency, false) - allInPrice;
+        }
+        while (fHigh > 0 && iterations < maxIterations) {
+            iterations++;
+            low = high;
+            fLow = fHigh;
+            high *= 2;
+            fHigh = evaluate(high, exponents, faceValueExponent, couponPayment, nominal, frequency, false) - allInPrice;
+        }
+        if (fLow < 0 || fHigh > 0) {
+            return failed(iterations, "No yield reproduces a price of " + allInPrice + ".");
+        }
+        return brent(low, high, fLow, fHigh, allInPrice, priceTolerance, iterations,
+                exponents, faceValueExponent, couponPayment, nominal, frequency);
+    }
+
+    private double brent(double a, double b, double fa, double fb, double target, double priceTolerance, int iterations,
+                         double[] exponents, double faceValueExponent, double couponPayment, double nominal, int frequency) {
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+        while (iterations < maxIterations) {
+            iterations++;
+            if ((fb > 0 && fc > 0) || (fb < 0 && fc < 0)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double step = 2 * Math.ulp(b) + 0.5 * tolerance;
+            double midpoint = 0.5 * (c - b);
+            if (Math.abs(fb) <= priceTolerance || Math.abs(midpoint) <= step) {
+                return converged(iterations, b);
+            }
+            if (Math.abs(e) >= step && Math.abs(fa) > Math.abs(fb)) {
+                //Inverse quadratic interpolation, or the secant method when only two points are distinct
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * midpoint * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * midpoint * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * midpoint * q - Math.abs(step * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = midpoint;
+                    e = d;
+                }
+            } else {
+                d = midpoint;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > step ? d : Math.copySign(step, midpoint);
+            fb = evaluate(b, exponents, faceValueExponent, couponPayment, nominal, frequency, false) - target;
+        }
+        return failed(iterations, "Yield solver did not converge within " + maxIterations + " iterations.");
+    }
+
+    /* Function Objective: All-in price at the given yield, and optionally its derivative with respect to the yield
+     * With b = 1 + y/f every discount factor is b^-exponent = exp(-exponent * ln b), so a single log serves all cash flows
+     * dP/dy = -sum(cash flow * exponent * discount factor) / (f * b) */
+    private double evaluate(double yield, double[] exponents, double faceValueExponent, double couponPayment,
+                            double nominal, int frequency, boolean withDerivative) {
+        double base = 1 + yield / frequency;
+        double logBase = Math.log(base);
+        double faceDiscountFactor = Math.exp(-faceValueExponent * logBase);
+        double value = nominal * faceDiscountFactor;
+        double weighted = nominal * faceValueExponent * faceDiscountFactor;
+        for (double exponent : exponents) {
+            double discountFactor = Math.exp(-exponent * logBase);
+            value += couponPayment * discountFactor;
+            weighted += couponPayment * exponent * discountFactor;
+        }
+        price = value;
+        if (withDerivative) {
+            derivative = -weighted / (frequency * base);
+        }
+        return value;
+    }
+
+    private double converged(int iterations, double yield) {
+        lastIterations = iterations;
+        totalIterations += iterations;
+        return yield;
+    }
+
+    private double failed(int iterations, String message) {
+        lastIterations = iterations;
+        totalIterations += iterations;
+        failureCount++;
+        throw new ArithmeticException(message);
+    }
+
+    public long getSolveCount() {
+        return solveCount;
+    }
+
+    public long getTotalIterations() {
+        return totalIterations;
+    }
+
+    public double getAverageIterations() {
+        return solveCount == 0 ? 0.0 : (double) totalIterations / solveCount;
+    }
+
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    public long getBrentFallbackCount() {
+        return brentFallbackCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+}
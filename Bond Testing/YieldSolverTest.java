@@ -0,0 +1,66 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+class YieldSolverTest {
+
+    private static Bond r186(double yieldToMaturity) {
+        return new Bond(LocalDate.parse("2017-02-07"), LocalDate.parse("2026-12-21"), LocalDate.parse("2016-12-21"), 0.105, yieldToMaturity, 100, 365, 2);
+    }
+
+    private static Bond r2032(double yieldToMaturity) {
+        return new Bond(LocalDate.parse("2024-05-16"), LocalDate.parse("2032-03-31"), LocalDate.parse("2024-03-31"), 0.0825, yieldToMaturity, 1_000_000, 365, 2);
+    }
+
+    @Test //Solving from the clean price produced by Bond must give back the yield the price was computed with
+    void testCleanPriceRoundTrip() {
+        YieldSolver solver = new YieldSolver();
+        for (double yieldToMaturity : new double[]{0.0, 0.01, 0.0875, 0.095, 0.15, 0.4}) {
+            Bond bond = r186(yieldToMaturity);
+            assertEquals(yieldToMaturity, solver.solveFromCleanPrice(bond, bond.calculateCleanPrice()), 1e-10);
+            bond = r2032(yieldToMaturity);
+            assertEquals(yieldToMaturity, solver.solveFromCleanPrice(bond, bond.calculateCleanPrice()), 1e-10);
+        }
+        assertEquals(12, solver.getSolveCount());
+        assertEquals(0, solver.getFailureCount());
+        assertTrue(solver.getAverageIterations() < 10, "Newton with an analytic derivative should converge in a few iterations.");
+    }
+
+    @Test //Solving from the all-in price must give back the yield the price was computed with
+    void testAllInPriceRoundTrip() {
+        YieldSolver solver = new YieldSolver();
+        Bond bond = r2032(0.095);
+        assertEquals(0.095, solver.solveFromAllInPrice(bond, bond.calculateAllInPrice()), 1e-10);
+        assertTrue(solver.getLastIterations() > 0);
+    }
+
+    @Test //When a Newton step leaves the admissible yield range the bracketed Brent fallback must still find the yield
+    void testBrentFallback() {
+        YieldSolver solver = new YieldSolver();
+        Bond bond = r186(0.0875);
+        //A price far above par implies a strongly negative yield, the first Newton step from the coupon rate overshoots it
+        double yieldToMaturity = solver.solveFromAllInPrice(bond, 5_000);
+
+        assertEquals(1, solver.getBrentFallbackCount());
+        assertTrue(yieldToMaturity < 0, "A price of 5000 on a 10.5% coupon bond implies a negative yield.");
+        assertEquals(5_000, allInPrice(bond, yieldToMaturity), 1e-8);
+    }
+
+    //Reference all-in price at any yield, written out with Math.pow as in Bond because the Bond constructor rejects negative yields
+    private static double allInPrice(Bond bond, double yieldToMaturity) {
+        double price = 100 / Math.pow(1 + yieldToMaturity / 2, (double) (bond.getMaturityDate().toEpochDay() - bond.getSettlementDate().toEpochDay()) / 365 * 2);
+        for (LocalDate couponDate : bond.generateCouponDates()) {
+            double days = couponDate.toEpochDay() - bond.getSettlementDate().toEpochDay();
+            price += 0.105 / 2 * 100 / Math.pow(1 + yieldToMaturity / 2, days / 365 * 2);
+        }
+        return price;
+    }
+
+    @Test //Prices that cannot be produced by any yield are rejected
+    void testInvalidPrice() {
+        YieldSolver solver = new YieldSolver();
+        assertThrows(IllegalArgumentException.class, () -> solver.solveFromAllInPrice(r186(0.0875), 0));
+        assertThrows(IllegalArgumentException.class, () -> solver.solveFromAllInPrice(r186(0.0875), -10));
+    }
+}
@@ -0,0 +1,253 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Zero curve bootstrapped from SAGB quotes.
+ * Each bond puts a pillar on its maturity date, and the zero rate of each pillar is solved, shortest maturity first, so that
+ * pricing the bond off the curve with calculateAllInPrice(DiscountCurve) gives back its quoted all-in price. Between pillars
+ * the zero rate is interpolated linearly on epoch days, before the first pillar it is flat and after the last pillar it is
+ * extrapolated flat, as on a YieldCurve. Rates are in percent, compounded at the bonds' coupon frequency.
+ * Pillar k only depends on pillars 0 to k - 1, so when a quote changes only that bond's pillar and the longer ones are solved
+ * again. Quote changes just mark the curve from that pillar on as stale, and the stale tail is solved on the next read, so a
+ * burst of ticks between two reads costs one re-bootstrap from the shortest bond that ticked.
+ * Each pillar is solved with Newton's method on the analytic derivative, kept inside a bracket that bisection falls back on.
+ * The bonds' schedules and discount exponents are reused on every solve. Methods are synchronized, so quote updates and reads
+ * may come from different threads. */
+public class ZeroCurveBootstrapper implements DiscountCurve {
+    private static final int MAX_ITERATIONS = 200;
+    private static final double TOLERANCE = 1e-12;
+    //Highest zero rate in percent the bracket may grow to before a quote is declared unreachable
+    private static final double MAX_RATE = 1e5;
+
+    private final Bond[] bonds;
+    private final Map<Bond, Integer> pillarOfBond = new IdentityHashMap<>();
+    private final int[] pillarDates;
+    private final double[] zeroRates;
+    private final double[] targetAllInPrices;
+    private final int frequency;
+    private final double minimumRate;
+    //Reusable buffer for the zero rates of one bond's cash flows
+    private double[] rates;
+    //Index of the first pillar that has to be solved again, pillarDates.length when the curve is up to date
+    private int staleFrom;
+    private long pillarsSolved;
+
+    /** Function Objective: Curve through the given bonds, each quoted at its own yield to maturity
+     * The bonds must share a settlement date and coupon frequency and mature on different dates */
+    public ZeroCurveBootstrapper(List<Bond> bonds) {
+        if (bonds.isEmpty()) {
+            throw new IllegalArgumentException("At least one bond is needed to bootstrap a curve.");
+        }
+        Bond[] sorted = bonds.toArray(new Bond[0]);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.cashFlowDates()[a.cashFlowDates().length - 1],
+                b.cashFlowDates()[b.cashFlowDates().length - 1]));
+        this.bonds = sorted;
+        this.pillarDates = new int[sorted.length];
+        this.zeroRates = new double[sorted.length];
+        this.targetAllInPrices = new double[sorted.length];
+        this.frequency = sorted[0].frequency();
+        //Below this rate 1 + rate / 100 / frequency is no longer positive
+        this.minimumRate = -100.0 * frequency * (1 - 1e-9);
+        int settlementDay = sorted[0].settlementDay();
+        int maxCashFlows = 0;
+        for (int k = 0; k < sorted.length; k++) {
+            Bond bond = sorted[k];
+            if (bond.settlementDay() != settlementDay || bond.frequency() != frequency) {
+                throw new IllegalArgumentException("All bonds must have the same settlement date and coupon frequency.");
+            }
+            int[] cashFlowDates = bond.cashFlowDates();
+            pillarDates[k] = cashFlowDates[cashFlowDates.length - 1];
+            if (k > 0 && pillarDates[k] == pillarDates[k - 1]) {
+                throw new IllegalArgumentException("Two bonds mature on " + LocalDate.ofEpochDay(pillarDates[k]) + ".");
+            }
+            if (pillarOfBond.put(bond, k) != null) {
+                throw new IllegalArgumentException("A bond is given more than once.");
+            }
+            targetAllInPrices[k] = bond.allInPriceAtYield(bond.yield());
+            maxCashFlows = Math.max(maxCashFlows, cashFlowDates.length);
+        }
+        this.rates = new double[maxCashFlows];
+        this.staleFrom = 0;
+    }
+
+    /** Function Objective: Quote a bond at a clean price, accrued interest is added to get the all-in price it must reprice to */
+    public synchronized void setCleanPrice(Bond bond, double cleanPrice) {
+        setAllInPrice(bond, cleanPrice + bond.calculateAccruedInterest());
+    }
+
+    /** Function Objective: Quote a bond at a yield to maturity, the curve must reprice it to its all-in price at that yield */
+    public synchronized void setYield(Bond bond, double yield) {
+        if (!(1 + yield / frequency > 0)) {
+            throw new IllegalArgumentException("Yield must be greater than minus the coupon frequency.");
+        }
+        setAllInPrice(bond, bond.allInPriceAtYield(yield));
+    }
+
+    private void setAllInPrice(Bond bond, double allInPrice) {
+        Integer pillar = pillarOfBond.get(bond);
+        if (pillar == null) {
+            throw new IllegalArgumentException("The bond is not on this curve.");
+        }
+        if (!(allInPrice > 0)) {
+            throw new IllegalArgumentException("Price must be positive.");
+        }
+        targetAllInPrices[pillar] = allInPrice;
+        staleFrom = Math.min(staleFrom, pillar);
+    }
+
+    /** Function Objective: Zero rates in percent for the ascending epochDays, written into out at the same index */
+    @Override
+    public synchronized void getRates(int[] epochDays, double[] out) {
+        bootstrap();
+        for (int i = 0; i < epochDays.length; i++) {
+            out[i] = rate(epochDays[i], pillarDates.length - 1, zeroRates[pillarDates.length - 1]);
+        }
+    }
+
+    /** Function Objective: Frozen copy of the curve as it stands now, solved up to date first
+     * Quote changes made afterwards do not move the copy, so every lookup on it sees the same zero rates */
+    @Override
+    public synchronized DiscountCurve snapshot() {
+        bootstrap();
+        //The pillar dates never change after construction, only the rates are copied
+        int[] dates = pillarDates;
+        double[] frozenRates = zeroRates.clone();
+        int last = dates.length - 1;
+        return (epochDays, out) -> {
+            for (int i = 0; i < epochDays.length; i++) {
+                out[i] = rate(dates, frozenRates, epochDays[i], last, frozenRates[last]);
+            }
+        };
+    }
+
+    public synchronized double getZeroRate(LocalDate date) {
+        bootstrap();
+        return rate((int) date.toEpochDay(), pillarDates.length - 1, zeroRates[pillarDates.length - 1]);
+    }
+
+    public int getPillarCount() {
+        return pillarDates.length;
+    }
+
+    public LocalDate getPillarDate(int pillar) {
+        return LocalDate.ofEpochDay(pillarDates[pillar]);
+    }
+
+    public synchronized double getPillarRate(int pillar) {
+        bootstrap();
+        return zeroRates[pillar];
+    }
+
+    //Number of pillar solves since construction - a tick on one bond re-solves only its pillar and the longer ones
+    public synchronized long getPillarsSolved() {
+        return pillarsSolved;
+    }
+
+    //Solves the stale pillars, shortest first
+    private void bootstrap() {
+        for (int k = staleFrom; k < pillarDates.length; k++) {
+            zeroRates[k] = solve(k);
+            pillarsSolved++;
+        }
+        staleFrom = pillarDates.length;
+    }
+
+    /* Function Objective: Zero rate of pillar k that reprices bond k
+     * Cash flows up to pillar k - 1 have fixed rates, each later one moves with the pillar rate z by its interpolation weight */
+    private double solve(int k) {
+        Bond bond = bonds[k];
+        int[] cashFlowDates = bond.cashFlowDates();
+        double target = targetAllInPrices[k];
+        double lower = minimumRate;
+        double upper = Double.NaN;
+        double z = k > 0 ? zeroRates[k - 1] : bond.yield() * 100;
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            for (int i = 0; i < cashFlowDates.length; i++) {
+                rates[i] = rate(cashFlowDates[i], k, z);
+            }
+            double error = bond.allInPriceAtRates(rates) - target;
+            if (Math.abs(error) <= TOLERANCE * target) {
+                return z;
+            }
+            //The price falls as the pillar rate rises, so the error's sign tells which side of the root z is on
+            if (error > 0) {
+                lower = z;
+            } else {
+                upper = z;
+            }
+            double next = z - error / derivative(bond, cashFlowDates, k, z);
+            if (Double.isNaN(upper)) {
+                //No rate above the root found yet - Newton may only move up, otherwise step up by at least 1%
+                if (!(next > z) || next > MAX_RATE) {
+                    next = Math.min(MAX_RATE, z + Math.max(1.0, Math.abs(z)));
+                }
+                if (z >= MAX_RATE) {
+                    throw new IllegalStateException("No zero rate reprices the bond maturing on " + getPillarDate(k) + ".");
+                }
+            } else if (!(next > lower && next < upper)) {
+                next = (lower + upper) / 2;
+            }
+            if (Math.abs(next - z) <= TOLERANCE * Math.max(1.0, Math.abs(z))) {
+                return next;
+            }
+            z = next;
+        }
+        throw new IllegalStateException("The zero rate of the bond maturing on " + getPillarDate(k) + " did not converge.");
+    }
+
+    //Derivative of bond k's all-in price with respect to the rate z of pillar k
+    private double derivative(Bond bond, int[] cashFlowDates, int k, double z) {
+        double[] exponents = bond.couponExponents();
+        double couponPayment = bond.couponPayment();
+        double derivative = 0.0;
+        for (int i = 0; i <= exponents.length; i++) {
+            double weight = weight(cashFlowDates[i], k);
+            if (weight == 0) {
+                continue;
+            }
+            double exponent = i < exponents.length ? exponents[i] : bond.faceValueExponent();
+            double cashFlow = i < exponents.length ? couponPayment : bond.nominal();
+            double base = 1 + rates[i] / 100 / frequency;
+            derivative -= weight * cashFlow * exponent * Math.pow(base, -exponent - 1) / (100 * frequency);
+        }
+        return derivative;
+    }
+
+    //How much the rate on date moves when pillar k moves, given the pillars before k are fixed
+    private double weight(int date, int k) {
+        if (k == 0 || date >= pillarDates[k]) {
+            return 1.0;
+        }
+        if (date <= pillarDates[k - 1]) {
+            return 0.0;
+        }
+        return (double) (date - pillarDates[k - 1]) / (pillarDates[k] - pillarDates[k - 1]);
+    }
+
+    /* Function Objective: Zero rate on date using pillars 0 to last, with pillar last at rate lastRate
+     * Rate = Rate(Lower pillar) + [(Date - Lower pillar) x (higher rate - lower rate)/(days between the pillars)], flat outside the pillars */
+    private double rate(int date, int last, double lastRate) {
+        return rate(pillarDates, zeroRates, date, last, lastRate);
+    }
+
+    private static double rate(int[] pillarDates, double[] zeroRates, int date, int last, double lastRate) {
+        if (date >= pillarDates[last]) {
+            return lastRate;
+        }
+        int index = Arrays.binarySearch(pillarDates, 0, last + 1, date);
+        if (index >= 0) {
+            return zeroRates[index];
+        }
+        int higher = -index - 1;
+        //Before the first pillar the curve is flat at pillar 0, which is the trial rate while pillar 0 itself is being solved
+        if (higher == 0) {
+            return last == 0 ? lastRate : zeroRates[0];
+        }
+        double higherRate = higher == last ? lastRate : zeroRates[higher];
+        long totalDays = pillarDates[higher] - pillarDates[higher - 1];
+        long daysToTarget = date - pillarDates[higher - 1];
+        return zeroRates[higher - 1] + (daysToTarget * (higherRate - zeroRates[higher - 1]) / totalDays);
+    }
+}
@@ -0,0 +1,126 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+class ZeroCurveBootstrapperTest {
+    private static final LocalDate SETTLEMENT = LocalDate.parse("2024-05-16");
+
+    //An upward sloping SAGB strip: one bond every 18 months out to 30 years, last coupons within the past half year
+    private static List<Bond> strip() {
+        List<Bond> bonds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            LocalDate maturity = SETTLEMENT.plusMonths(6 + 18L * i).plusDays(i);
+            LocalDate lastCoupon = maturity.minusMonths(6L * (1 + 3 * i));
+            while (lastCoupon.isAfter(SETTLEMENT)) {
+                lastCoupon = lastCoupon.minusMonths(6);
+            }
+            bonds.add(new Bond(SETTLEMENT, maturity, lastCoupon, 0.08 + i * 0.001, 0.085 + i * 0.001, 100, 365, 2));
+        }
+        return bonds;
+    }
+
+    @Test //Every bond priced off the bootstrapped curve must give back its all-in price at its own yield
+    void testCurveRepricesEveryBond() {
+        List<Bond> bonds = strip();
+        ZeroCurveBootstrapper curve = new ZeroCurveBootstrapper(bonds);
+        assertEquals(20, curve.getPillarCount());
+        for (Bond bond : bonds) {
+            assertEquals(bond.calculateAllInPrice(), bond.calculateAllInPrice(curve), 1e-9);
+        }
+        for (int i = 1; i < curve.getPillarCount(); i++) {
+            assertTrue(curve.getPillarDate(i).isAfter(curve.getPillarDate(i - 1)));
+            assertTrue(curve.getPillarRate(i) > curve.getPillarRate(i - 1));
+        }
+        assertEquals(20, curve.getPillarsSolved());
+    }
+
+    @Test //A single bond paying only its maturity flow has a zero rate equal to its yield
+    void testSingleCashFlowBondZeroRateIsItsYield() {
+        Bond bond = new Bond(SETTLEMENT, LocalDate.parse("2024-09-01"), LocalDate.parse("2024-03-01"), 0.08, 0.09, 100, 365, 2);
+        ZeroCurveBootstrapper curve = new ZeroCurveBootstrapper(List.of(bond));
+        assertEquals(9.0, curve.getPillarRate(0), 1e-9);
+        assertEquals(9.0, curve.getZeroRate(LocalDate.parse("2030-01-01")), 1e-9);
+    }
+
+    @Test //The coupons of the shortest bond move with the first pillar, so a front bond with several coupons is repriced and re-quoting it changes nothing
+    void testShortestBondWithSeveralCouponsIsRepriced() {
+        List<Bond> bonds = List.of(
+                new Bond(SETTLEMENT, LocalDate.parse("2027-03-31"), LocalDate.parse("2024-03-31"), 0.08, 0.09, 100, 365, 2),
+                new Bond(SETTLEMENT, LocalDate.parse("2030-03-31"), LocalDate.parse("2024-03-31"), 0.085, 0.095, 100, 365, 2),
+                new Bond(SETTLEMENT, LocalDate.parse("2035-03-31"), LocalDate.parse("2024-03-31"), 0.09, 0.1, 100, 365, 2));
+        ZeroCurveBootstrapper curve = new ZeroCurveBootstrapper(bonds);
+        for (Bond bond : bonds) {
+            assertEquals(bond.calculateAllInPrice(), bond.calculateAllInPrice(curve), 1e-9);
+        }
+        double frontRate = curve.getPillarRate(0);
+        curve.setYield(bonds.get(0), 0.09);
+        assertEquals(frontRate, curve.getPillarRate(0), 1e-9);
+        assertEquals(bonds.get(0).calculateAllInPrice(), bonds.get(0).calculateAllInPrice(curve), 1e-9);
+    }
+
+    @Test //Quote changes re-solve only the pillar of the shortest bond that ticked and the longer ones, and the curve reprices the new quotes
+    void testQuoteChangeResolvesOnlyTheTail() {
+        List<Bond> bonds = strip();
+        ZeroCurveBootstrapper curve = new ZeroCurveBootstrapper(bonds);
+        double shortRate = curve.getPillarRate(4);
+        assertEquals(20, curve.getPillarsSolved());
+
+        Bond ticked = bonds.get(15);
+        curve.setYield(ticked, ticked.getYieldToMaturity() + 0.001);
+        curve.setCleanPrice(bonds.get(17), bonds.get(17).calculateCleanPrice() - 0.5);
+        assertEquals(20, curve.getPillarsSolved());
+        assertEquals(shortRate, curve.getPillarRate(4), 0.0);
+        assertEquals(25, curve.getPillarsSolved());
+
+        Bond shifted = new Bond(SETTLEMENT, ticked.getMaturityDate(), ticked.getLastCouponDate(), ticked.getCouponRate(),
+                ticked.getYieldToMaturity() + 0.001, 100, 365, 2);
+        assertEquals(shifted.calculateAllInPrice(), ticked.calculateAllInPrice(curve), 1e-9);
+        assertEquals(bonds.get(17).calculateAllInPrice() - 0.5, bonds.get(17).calculateAllInPrice(curve), 1e-9);
+        assertEquals(bonds.get(16).calculateAllInPrice(), bonds.get(16).calculateAllInPrice(curve), 1e-9);
+        assertEquals(bonds.get(3).calculateAllInPrice(), bonds.get(3).calculateAllInPrice(curve), 1e-9);
+        assertEquals(25, curve.getPillarsSolved());
+    }
+
+    @Test //A snapshot gives the curve's rates as they were when it was taken, whatever quotes tick afterwards
+    void testSnapshotIsFrozen() {
+        List<Bond> bonds = strip();
+        ZeroCurveBootstrapper curve = new ZeroCurveBootstrapper(bonds);
+        int[] dates = new int[300];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = (int) SETTLEMENT.toEpochDay() - 30 + 40 * i;
+        }
+        double[] before = new double[dates.length];
+        curve.getRates(dates, before);
+        DiscountCurve snapshot = curve.snapshot();
+        assertSame(snapshot, snapshot.snapshot());
+
+        curve.setYield(bonds.get(0), 0.12);
+        double[] after = new double[dates.length];
+        curve.getRates(dates, after);
+        assertNotEquals(before[dates.length - 1], after[dates.length - 1], 1e-6);
+        double[] frozen = new double[dates.length];
+        snapshot.getRates(dates, frozen);
+        assertArrayEquals(before, frozen, 0.0);
+        assertEquals(bonds.get(5).calculateAllInPrice(), bonds.get(5).calculateAllInPrice(snapshot), 1e-9);
+    }
+
+    @Test //Bonds that cannot share one curve, and quotes for bonds not on the curve, are rejected
+    void testInvalidInputs() {
+        Bond bond = new Bond(SETTLEMENT, LocalDate.parse("2030-01-31"), LocalDate.parse("2024-01-31"), 0.08, 0.09, 100, 365, 2);
+        Bond sameMaturity = new Bond(SETTLEMENT, LocalDate.parse("2030-01-31"), LocalDate.parse("2024-01-31"), 0.1, 0.09, 100, 365, 2);
+        Bond otherSettlement = new Bond(SETTLEMENT.plusDays(1), LocalDate.parse("2032-01-31"), LocalDate.parse("2024-01-31"), 0.08, 0.09, 100, 365, 2);
+        Bond annual = new Bond(SETTLEMENT, LocalDate.parse("2032-01-31"), LocalDate.parse("2024-01-31"), 0.08, 0.09, 100, 365, 1);
+        assertThrows(IllegalArgumentException.class, () -> new ZeroCurveBootstrapper(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new ZeroCurveBootstrapper(List.of(bond, sameMaturity)));
+        assertThrows(IllegalArgumentException.class, () -> new ZeroCurveBootstrapper(List.of(bond, otherSettlement)));
+        assertThrows(IllegalArgumentException.class, () -> new ZeroCurveBootstrapper(List.of(bond, annual)));
+
+        ZeroCurveBootstrapper curve = new ZeroCurveBootstrapper(List.of(bond));
+        assertThrows(IllegalArgumentException.class, () -> curve.setYield(sameMaturity, 0.09));
+        assertThrows(IllegalArgumentException.class, () -> curve.setCleanPrice(bond, -200));
+        assertThrows(IllegalArgumentException.class, () -> curve.setYield(bond, -3));
+    }
+}
@@ -0,0 +1,150 @@
+//Interpolates the rates of one side of a YieldCurve between two adjacent pillars
+//Any coefficients are calculated in the constructor so a query is the YieldCurve's binary search plus one polynomial evaluation
+abstract class CurveInterpolator {
+    final int[] dates;
+    final double[] rates;
+
+    CurveInterpolator(int[] dates, double[] rates) {
+        this.dates = dates;
+        this.rates = rates;
+    }
+
+    //Rate on the epoch day date, which lies strictly between pillar lower and pillar lower + 1
+    abstract double interpolate(int lower, int date);
+
+    //Rate = Rate(Lower date) + [(Input date - Lower date) x (higher rate - lower rate)/(sum of days between lower and higher date)]
+    static final class Linear extends CurveInterpolator {
+        Linear(int[] dates, double[] rates) {
+            super(dates, rates);
+        }
+
+        @Override
+        double interpolate(int lower, int date) {
+            long totalDays = dates[lower + 1] - dates[lower]; //calculates the total number of days between lower date and the higher date
+            long daysToTarget = date - dates[lower];
+            double lowerRateValue = rates[lower];
+            double higherRateValue = rates[lower + 1];
+            return lowerRateValue + (daysToTarget * (higherRateValue - lowerRateValue) / totalDays);
+        }
+    }
+
+    //The discount factor is exp(-rate x time), so interpolating log discount factors linearly means interpolating rate x time linearly
+    //Time is counted in days from the first pillar, the day count and percentage scaling cancel out when dividing back by time
+    //The curve has no valuation date, so rate x time is 0 at the first pillar and cannot anchor the first segment - it would
+    //collapse to the second pillar's rate. The first segment interpolates the rate linearly instead, which is continuous with the next one
+    static final class LogLinearDiscount extends CurveInterpolator {
+        private final double[] rateTimesDays;
+
+        LogLinearDiscount(int[] dates, double[] rates) {
+            super(dates, rates);
+            rateTimesDays = new double[dates.length];
+            for (int i = 0; i < dates.length; i++) {
+                rateTimesDays[i] = rates[i] * (dates[i] - dates[0]);
+            }
+        }
+
+        @Override
+        double interpolate(int lower, int date) {
+            double weight = (double) (date - dates[lower]) / (dates[lower + 1] - dates[lower]);
+            if (lower == 0) {
+                return rates[0] + weight * (rates[1] - rates[0]);
+            }
+            double interpolated = rateTimesDays[lower] + weight * (rateTimesDays[lower + 1] - rateTimesDays[lower]);
+            return interpolated / (date - dates[0]);
+        }
+    }
+
+    //Piecewise cubic: Rate = rate(lower) + b x s + c x s^2 + d x s^3 with s the days since the lower pillar
+    static final class Cubic extends CurveInterpolator {
+        private final double[] b;
+        private final double[] c;
+        private final double[] d;
+
+        private Cubic(int[] dates, double[] rates, double[] b, double[] c, double[] d) {
+            super(dates, rates);
+            this.b = b;
+            this.c = c;
+            this.d = d;
+        }
+
+        @Override
+        double interpolate(int lower, int date) {
+            double s = date - dates[lower];
+            return rates[lower] + s * (b[lower] + s * (c[lower] + s * d[lower]));
+        }
+
+        //Fritsch-Carlson monotone cubic Hermite: slopes at the pillars are weighted harmonic means of the neighbouring secants,
+        //and zero where the curve changes direction, so the interpolated rate always stays between the two pillar rates
+        static Cubic monotone(int[] dates, double[] rates) {
+            int segments = Math.max(dates.length - 1, 0);
+            double[] width = new double[segments];
+            double[] secant = new double[segments];
+            for (int k = 0; k < segments; k++) {
+                width[k] = dates[k + 1] - dates[k];
+                secant[k] = (rates[k + 1] - rates[k]) / width[k];
+            }
+            double[] slope = new double[dates.length];
+            if (segments > 0) {
+                slope[0] = secant[0];
+                slope[segments] = secant[segments - 1];
+            }
+            for (int k = 1; k < segments; k++) {
+                if (secant[k - 1] * secant[k] <= 0) {
+                    slope[k] = 0;
+                } else {
+                    double w1 = 2 * width[k] + width[k - 1];
+                    double w2 = width[k] + 2 * width[k - 1];
+                    slope[k] = (w1 + w2) / (w1 / secant[k - 1] + w2 / secant[k]);
+                }
+            }
+            double[] b = new double[segments];
+            double[] c = new double[segments];
+            double[] d = new double[segments];
+            for (int k = 0; k < segments; k++) {
+                b[k] = slope[k];
+                c[k] = (3 * secant[k] - 2 * slope[k] - slope[k + 1]) / width[k];
+                d[k] = (slope[k] + slope[k + 1] - 2 * secant[k]) / (width[k] * width[k]);
+            }
+            return new Cubic(dates, rates, b, c, d);
+        }
+
+        //Natural cubic spline: the second derivatives at the pillars solve a tridiagonal system (Thomas algorithm) with zero at both ends
+        static Cubic naturalSpline(int[] dates, double[] rates) {
+            int n = dates.length;
+            int segments = Math.max(n - 1, 0);
+            double[] width = new double[segments];
+            double[] secant = new double[segments];
+            for (int k = 0; k < segments; k++) {
+                width[k] = dates[k + 1] - dates[k];
+                secant[k] = (rates[k + 1] - rates[k]) / width[k];
+            }
+            double[] secondDerivative = new double[n];
+            if (n > 2) {
+                double[] diagonal = new double[n];
+                double[] rhs = new double[n];
+                for (int k = 1; k < n - 1; k++) {
+                    diagonal[k] = 2 * (width[k - 1] + width[k]);
+                    rhs[k] = 6 * (secant[k] - secant[k - 1]);
+                }
+                //Forward elimination then back substitution on the interior pillars
+                for (int k = 2; k < n - 1; k++) {
+                    double factor = width[k - 1] / diagonal[k - 1];
+                    diagonal[k] -= factor * width[k - 1];
+                    rhs[k] -= factor * rhs[k - 1];
+                }
+                for (int k = n - 2; k >= 1; k--) {
+                    secondDerivative[k] = (rhs[k] - width[k] * secondDerivative[k + 1]) / diagonal[k];
+                }
+            }
+            double[] b = new double[segments];
+            double[] c = new double[segments];
+            double[] d = new double[segments];
+            for (int k = 0; k < segments; k++) {
+                b[k] = secant[k] - width[k] * (2 * secondDerivative[k] + secondDerivative[k + 1]) / 6;
+                c[k] = secondDerivative[k] / 2;
+                d[k] = (secondDerivative[k + 1] - secondDerivative[k]) / (6 * width[k]);
+            }
+            return new Cubic(dates, rates, b, c, d);
+        }
+    }
+}
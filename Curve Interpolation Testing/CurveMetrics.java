@@ -0,0 +1,245 @@
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+//Counters and a latency histogram for YieldCurve lookups, exposed through JMX (pricing:type=YieldCurve) and as plain text
+//Metrics are switched on with -Dpricing.metrics=true. ENABLED is a static final constant, so when it is off the JIT removes every
+//recording call from getRate and getRates and the lookups cost exactly what they did without metrics.
+//Counters are LongAdders, so threads recording at the same time do not contend on one memory location.
+public final class CurveMetrics implements CurveMetricsMXBean {
+    public static final boolean ENABLED = Boolean.getBoolean("pricing.metrics");
+    private static final CurveMetrics SHARED = new CurveMetrics();
+
+    static {
+        if (ENABLED) {
+            SHARED.register("pricing:type=YieldCurve");
+        }
+    }
+
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder interpolations = new LongAdder();
+    private final LongAdder extrapolations = new LongAdder();
+    private final LongAdder outOfRange = new LongAdder();
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+
+    public static CurveMetrics shared() {
+        return SHARED;
+    }
+
+    //Registers these metrics with the platform MBean server under the given name
+    void register(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(name));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the curve metrics as " + name + ".", e);
+        }
+    }
+
+    void exactHit() {
+        exactHits.increment();
+    }
+
+    void interpolation() {
+        interpolations.increment();
+    }
+
+    void extrapolation() {
+        extrapolations.increment();
+    }
+
+    void outOfRange() {
+        outOfRange.increment();
+    }
+
+    void lookup(long nanos) {
+        lookupLatency.record(nanos);
+    }
+
+    @Override
+    public long getExactHits() {
+        return exactHits.sum();
+    }
+
+    @Override
+    public long getInterpolations() {
+        return interpolations.sum();
+    }
+
+    @Override
+    public long getExtrapolations() {
+        return extrapolations.sum();
+    }
+
+    @Override
+    public long getOutOfRangeErrors() {
+        return outOfRange.sum();
+    }
+
+    @Override
+    public long getLookupCount() {
+        return lookupLatency.count();
+    }
+
+    @Override
+    public long getLookupLatencyP50Nanos() {
+        return lookupLatency.percentile(50);
+    }
+
+    @Override
+    public long getLookupLatencyP99Nanos() {
+        return lookupLatency.percentile(99);
+    }
+
+    @Override
+    public long getLookupLatencyP999Nanos() {
+        return lookupLatency.percentile(99.9);
+    }
+
+    @Override
+    public long getLookupLatencyMaxNanos() {
+        return lookupLatency.max();
+    }
+
+    @Override
+    public String getSummary() {
+        return dump();
+    }
+
+    @Override
+    public void reset() {
+        exactHits.reset();
+        interpolations.reset();
+        extrapolations.reset();
+        outOfRange.reset();
+        lookupLatency.reset();
+    }
+
+    //Plain text dump of every metric
+    public String dump() {
+        return String.format(Locale.US, "YieldCurve lookups (metrics %s)%n"
+                        + "  exact hits %d, interpolations %d, extrapolations %d, out of range %d%n"
+                        + "  getRate latency: count %d, p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns%n",
+                ENABLED ? "on" : "off", getExactHits(), getInterpolations(), getExtrapolations(), getOutOfRangeErrors(),
+                getLookupCount(), getLookupLatencyP50Nanos(), getLookupLatencyP99Nanos(), getLookupLatencyP999Nanos(),
+                getLookupLatencyMaxNanos());
+    }
+
+    @Override
+    public String toString() {
+        return dump();
+    }
+
+    //HdrHistogram-style log-linear histogram of latencies in nanoseconds with a fixed footprint
+    //Values below 2^SUB_BUCKET_BITS get a bucket each; above that every power of two is split into 2^SUB_BUCKET_BITS equal buckets,
+    //so a recorded value is off by at most 1/32 (about 3%). Values above 2^MAX_EXPONENT ns (about 18 minutes) are clamped.
+    //Counts are striped by thread and merged when read, so lookups on many threads do not contend on one array.
+    //The bond module keeps its own copy in PricingMetrics, as the benchmark build compiles both modules together.
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int MAX_EXPONENT = 40;
+        private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+        private static final int BUCKETS = bucket(MAX_VALUE) + 1;
+        //A power of two, so a thread picks its stripe with a mask
+        private static final int STRIPES = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2, 16);
+
+        //Each thread records into the stripe its id hashes to, so concurrent threads rarely touch the same counts;
+        //readers merge the stripes. The number of values recorded is the sum of the buckets, so there is no separate count
+        private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+        private final AtomicLong max = new AtomicLong();
+
+        LatencyHistogram() {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new AtomicLongArray(BUCKETS);
+            }
+        }
+
+        void record(long nanos) {
+            long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+            stripes[stripe(Thread.currentThread().getId())].incrementAndGet(bucket(value));
+            //Only a new maximum writes, so the common case is a single volatile read
+            if (value > max.get()) {
+                max.accumulateAndGet(value, Math::max);
+            }
+        }
+
+        //Fibonacci hashing spreads consecutive thread ids over the stripes
+        private static int stripe(long threadId) {
+            return (int) ((threadId * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+        }
+
+        static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+        }
+
+        //Highest value that falls into the bucket, as HdrHistogram reports percentiles
+        static long highestValue(int bucket) {
+            if (bucket < 2 * SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+            long sub = bucket - ((long) shift << SUB_BUCKET_BITS);
+            return ((sub + 1) << shift) - 1;
+        }
+
+        //Count of the bucket summed over the stripes
+        private long count(int bucket) {
+            long n = 0;
+            for (AtomicLongArray stripe : stripes) {
+                n += stripe.get(bucket);
+            }
+            return n;
+        }
+
+        long count() {
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                n += count(i);
+            }
+            return n;
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        //Smallest bucket value at or below which the given percentage of the recorded values lie, 0 when nothing is recorded
+        long percentile(double percent) {
+            long[] counts = new long[BUCKETS];
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = count(i);
+                n += counts[i];
+            }
+            if (n == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(percent / 100 * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(highestValue(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for (AtomicLongArray stripe : stripes) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    stripe.set(i, 0);
+                }
+            }
+            max.set(0);
+        }
+    }
+}
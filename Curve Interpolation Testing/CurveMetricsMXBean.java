@@ -0,0 +1,24 @@
+//Attributes and operations of CurveMetrics shown in JMX consoles
+public interface CurveMetricsMXBean {
+    long getExactHits();
+
+    long getInterpolations();
+
+    long getExtrapolations();
+
+    long getOutOfRangeErrors();
+
+    long getLookupCount();
+
+    long getLookupLatencyP50Nanos();
+
+    long getLookupLatencyP99Nanos();
+
+    long getLookupLatencyP999Nanos();
+
+    long getLookupLatencyMaxNanos();
+
+    String getSummary();
+
+    void reset();
+}
@@ -0,0 +1,149 @@
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CurveMetricsTest {
+    private static final String[] DATES = {"2024-05-17", "2024-08-15", "2024-11-13", "2025-02-11", "2025-05-12", "2025-08-10", "2025-11-08", "2026-02-06", "2026-05-07"};
+    private static final double[] BID_RATES = {4.5, 5.0, 6.0, 7.2, 7.6, 8.1, 9.0, 10.0, 11.3};
+    private static final double[] ASK_RATES = {4.55, 5.05, 6.05, 7.25, 7.65, 8.15, 9.05, 10.05, 11.35};
+
+    //Runs the main method of a class in a new JVM with metrics switched on and returns what it printed
+    static String runWithMetrics(Class<?> main) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-Dpricing.metrics=true", "-cp", System.getProperty("java.class.path"), main.getName())
+                .redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.US_ASCII).trim();
+        Assertions.assertEquals(0, process.waitFor(), output);
+        return output;
+    }
+
+    /**Objective of the test:
+     * Percentiles of the latency histogram are within its 1/32 resolution of the exact values, and the maximum is exact
+     */
+    @Test
+    void testHistogramPercentiles() {
+        CurveMetrics.LatencyHistogram histogram = new CurveMetrics.LatencyHistogram();
+        for (long nanos = 1; nanos <= 10_000; nanos++) {
+            histogram.record(nanos);
+        }
+        histogram.record(5_000_000);
+        Assertions.assertEquals(10_001, histogram.count());
+        Assertions.assertEquals(5_000_000, histogram.max());
+        Assertions.assertEquals(5_000, histogram.percentile(50), 5_000 / 32.0);
+        Assertions.assertEquals(9_900, histogram.percentile(99), 9_900 / 32.0);
+        Assertions.assertEquals(5_000_000, histogram.percentile(100));
+    }
+
+    /**Objective of the test:
+     * Lookups recorded from many threads at once land in different stripes of the histogram and are all counted when merged
+     */
+    @Test
+    void testConcurrentRecording() throws Exception {
+        CurveMetrics.LatencyHistogram histogram = new CurveMetrics.LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (long nanos = 1; nanos <= 10_000; nanos++) {
+                    histogram.record(nanos);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(80_000, histogram.count());
+        Assertions.assertEquals(10_000, histogram.max());
+        Assertions.assertEquals(5_000, histogram.percentile(50), 5_000 / 32.0);
+    }
+
+    /**Objective of the test:
+     * The outcome counters add up, appear in the text dump and can be read and reset through JMX
+     */
+    @Test
+    void testCountersDumpAndJmx() throws Exception {
+        CurveMetrics metrics = new CurveMetrics();
+        metrics.exactHit();
+        metrics.interpolation();
+        metrics.interpolation();
+        metrics.extrapolation();
+        metrics.outOfRange();
+        metrics.lookup(250);
+        Assertions.assertTrue(metrics.dump().contains("exact hits 1, interpolations 2, extrapolations 1, out of range 1"));
+
+        ObjectName name = new ObjectName("pricing:type=YieldCurve,name=CurveMetricsTest");
+        metrics.register(name.toString());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Assertions.assertEquals(2L, server.getAttribute(name, "Interpolations"));
+            Assertions.assertEquals(1L, server.getAttribute(name, "LookupCount"));
+            server.invoke(name, "reset", null, null);
+            Assertions.assertEquals(0, metrics.getInterpolations());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    /**Objective of the test:
+     * With metrics on, getRate and getRates count exact hits, interpolations, extrapolations and out of range dates -
+     * checked in a JVM started with -Dpricing.metrics=true
+     */
+    @Test
+    void testYieldCurveRecordsOutcomes() throws Exception {
+        Assertions.assertEquals("exact hits 2, interpolations 2, extrapolations 1, out of range 1, lookups 4",
+                runWithMetrics(CurveLookups.class));
+    }
+
+    /**Objective of the test:
+     * With metrics off (the default) nothing is recorded and the rates are unchanged
+     */
+    @Test
+    void testYieldCurveRecordsNothingWhenOff() {
+        CurveMetrics metrics = CurveMetrics.shared();
+        long exact = metrics.getExactHits();
+        long interpolated = metrics.getInterpolations();
+        long extrapolated = metrics.getExtrapolations();
+        long outOfRange = metrics.getOutOfRangeErrors();
+        long lookups = metrics.getLookupCount();
+
+        CurveLookups.lookUp();
+
+        int on = CurveMetrics.ENABLED ? 1 : 0;
+        Assertions.assertEquals(exact + 2 * on, metrics.getExactHits());
+        Assertions.assertEquals(interpolated + 2 * on, metrics.getInterpolations());
+        Assertions.assertEquals(extrapolated + on, metrics.getExtrapolations());
+        Assertions.assertEquals(outOfRange + on, metrics.getOutOfRangeErrors());
+        Assertions.assertEquals(lookups + 4 * on, metrics.getLookupCount());
+    }
+
+    //Looks up an exact pillar, an interpolated date, an extrapolated date, a date before the curve and a bulk pair of dates,
+    //then prints what the shared metrics recorded
+    static final class CurveLookups {
+        static void lookUp() {
+            YieldCurve curve = new YieldCurve(DATES, BID_RATES, ASK_RATES);
+            Assertions.assertEquals(4.5, curve.getRate(LocalDate.parse("2024-05-17"), RateSide.BID), 0.0);
+            curve.getRate(LocalDate.parse("2024-06-17"), RateSide.BID);
+            curve.getRate(LocalDate.parse("2027-01-01"), RateSide.BID);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> curve.getRate(LocalDate.parse("2024-01-01"), RateSide.BID));
+            int[] dates = {(int) LocalDate.parse("2024-08-15").toEpochDay(), (int) LocalDate.parse("2024-09-15").toEpochDay()};
+            curve.getRates(dates, RateSide.MID, new double[2]);
+        }
+
+        public static void main(String[] args) {
+            lookUp();
+            CurveMetrics metrics = CurveMetrics.shared();
+            System.out.println("exact hits " + metrics.getExactHits() + ", interpolations " + metrics.getInterpolations()
+                    + ", extrapolations " + metrics.getExtrapolations() + ", out of range " + metrics.getOutOfRangeErrors()
+                    + ", lookups " + metrics.getLookupCount());
+        }
+    }
+}
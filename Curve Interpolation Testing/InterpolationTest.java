@@ -0,0 +1,111 @@
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class InterpolationTest {
+    private static final String[] DATES = {"2024-05-17", "2024-08-15", "2024-11-13", "2025-02-11", "2025-05-12", "2025-08-10", "2025-11-08", "2026-02-06", "2026-05-07"};
+    private static final double[] BID_RATES = {4.5, 5.0, 6.0, 7.2, 7.6, 8.1, 9.0, 10.0, 11.3};
+    private static final double[] ASK_RATES = {4.55, 5.05, 6.05, 7.25, 7.65, 8.15, 9.05, 10.05, 11.35};
+
+    private static int epochDay(String date) {
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+
+    /**Objective of the test:
+     * Linear interpolation stays the default scheme
+     */
+    @Test
+    void testLinearIsDefault() {
+        YieldCurve defaultCurve = new YieldCurve(DATES, BID_RATES, ASK_RATES);
+        YieldCurve linearCurve = new YieldCurve(DATES, BID_RATES, ASK_RATES, Interpolation.LINEAR);
+        Assertions.assertEquals(Interpolation.LINEAR, defaultCurve.getInterpolation());
+        for (int day = epochDay("2024-05-17"); day < epochDay("2026-06-01"); day++) {
+            Assertions.assertEquals(linearCurve.getRate(day, RateSide.MID), defaultCurve.getRate(day, RateSide.MID), 0.0);
+        }
+    }
+
+    /**Objective of the test:
+     * Every scheme returns the pillar rates on the pillar dates, is continuous into and out of each pillar, keeps flat extrapolation
+     * and gives the same results through the bulk lookup
+     */
+    @Test
+    void testEverySchemeHonoursPillars() {
+        for (Interpolation interpolation : Interpolation.values()) {
+            YieldCurve curve = new YieldCurve(DATES, BID_RATES, ASK_RATES, interpolation);
+            for (int i = 0; i < DATES.length; i++) {
+                int pillar = epochDay(DATES[i]);
+                Assertions.assertEquals(BID_RATES[i], curve.getRate(pillar, RateSide.BID), 0.0);
+                if (i > 0) {
+                    Assertions.assertEquals(BID_RATES[i], curve.getRate(pillar - 1, RateSide.BID), 0.1, interpolation + " is not continuous at " + DATES[i]);
+                }
+                if (i < DATES.length - 1) {
+                    Assertions.assertEquals(BID_RATES[i], curve.getRate(pillar + 1, RateSide.BID), 0.1, interpolation + " is not continuous after " + DATES[i]);
+                }
+            }
+            Assertions.assertEquals(11.3, curve.getRate(LocalDate.parse("2027-01-01"), RateSide.BID), 0.0);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> curve.getRate(LocalDate.parse("2024-01-01"), RateSide.BID));
+
+            int[] days = new int[720];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = epochDay("2024-05-17") + i;
+            }
+            double[] out = new double[days.length];
+            curve.getRates(days, RateSide.ASK, out);
+            for (int i = 0; i < days.length; i++) {
+                Assertions.assertEquals(curve.getRate(days[i], RateSide.ASK), out[i], 0.0);
+            }
+        }
+    }
+
+    /**Objective of the test:
+     * The monotone cubic never overshoots - every interpolated rate lies between the rates of the two surrounding pillars
+     */
+    @Test
+    void testMonotoneCubicDoesNotOvershoot() {
+        String[] dates = {"2024-01-01", "2024-04-01", "2024-07-01", "2024-10-01", "2025-01-01"};
+        double[] rates = {5.0, 5.0, 8.0, 8.1, 6.0};
+        YieldCurve curve = new YieldCurve(dates, rates, rates, Interpolation.MONOTONE_CUBIC);
+        for (int i = 0; i + 1 < dates.length; i++) {
+            double low = Math.min(rates[i], rates[i + 1]);
+            double high = Math.max(rates[i], rates[i + 1]);
+            for (int day = epochDay(dates[i]); day <= epochDay(dates[i + 1]); day++) {
+                double rate = curve.getRate(day, RateSide.BID);
+                Assertions.assertTrue(rate >= low - 1e-12 && rate <= high + 1e-12, "Rate " + rate + " overshoots [" + low + ", " + high + "]");
+            }
+        }
+    }
+
+    /**Objective of the test:
+     * Both cubic schemes reproduce rates that are exactly linear in time
+     */
+    @Test
+    void testCubicSchemesReproduceLinearRates() {
+        String[] dates = {"2024-01-01", "2024-03-01", "2024-07-15", "2025-01-01"};
+        double[] rates = new double[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            rates[i] = 4.0 + 0.01 * (epochDay(dates[i]) - epochDay(dates[0]));
+        }
+        for (Interpolation interpolation : new Interpolation[]{Interpolation.MONOTONE_CUBIC, Interpolation.NATURAL_CUBIC_SPLINE}) {
+            YieldCurve curve = new YieldCurve(dates, rates, rates, interpolation);
+            for (int day = epochDay(dates[0]); day <= epochDay(dates[3]); day++) {
+                Assertions.assertEquals(4.0 + 0.01 * (day - epochDay(dates[0])), curve.getRate(day, RateSide.MID), 1e-9);
+            }
+        }
+    }
+
+    /**Objective of the test:
+     * Log-linear interpolation of discount factors means rate x time (time from the first pillar) is linear between pillars
+     */
+    @Test
+    void testLogLinearDiscountFactors() {
+        YieldCurve curve = new YieldCurve(DATES, BID_RATES, ASK_RATES, Interpolation.LOG_LINEAR_DISCOUNT);
+        int start = epochDay(DATES[0]);
+        int lower = epochDay(DATES[1]);
+        int higher = epochDay(DATES[2]);
+        int date = epochDay("2024-10-01");
+        double weight = (double) (date - lower) / (higher - lower);
+        double expected = (5.0 * (lower - start) + weight * (6.0 * (higher - start) - 5.0 * (lower - start))) / (date - start);
+        Assertions.assertEquals(expected, curve.getRate(date, RateSide.BID), 1e-12);
+    }
+}
@@ -0,0 +1,109 @@
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LiveYieldCurveTest {
+    private static final String[] DATES = {"2024-05-17", "2024-08-15", "2024-11-13", "2025-02-11", "2025-05-12", "2025-08-10", "2025-11-08", "2026-02-06", "2026-05-07"};
+    private static final double[] BID_RATES = {4.5, 5.0, 6.0, 7.2, 7.6, 8.1, 9.0, 10.0, 11.3};
+    private static final double[] ASK_RATES = {4.55, 5.05, 6.05, 7.25, 7.65, 8.15, 9.05, 10.05, 11.35};
+
+    private static int epochDay(String date) {
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+
+    /**Objective of the test:
+     * An update is visible in the new snapshot and the version moves on, while a snapshot taken before it is left unchanged
+     */
+    @Test
+    void testUpdateLeavesOldSnapshotUnchanged() {
+        LiveYieldCurve live = new LiveYieldCurve(new YieldCurve(DATES, BID_RATES, ASK_RATES));
+        YieldCurve before = live.snapshot();
+        Assertions.assertEquals(0, live.getVersion());
+
+        YieldCurve after = live.updatePillar(LocalDate.parse("2024-11-13"), 6.5, 6.6);
+        Assertions.assertSame(after, live.snapshot());
+        Assertions.assertEquals(1, after.getVersion());
+        Assertions.assertEquals(6.5, after.getRate(LocalDate.parse("2024-11-13"), RateSide.BID), 0.0);
+        Assertions.assertEquals(6.55, after.getRate(LocalDate.parse("2024-11-13"), RateSide.MID), 1e-12);
+        Assertions.assertEquals(6.0, before.getRate(LocalDate.parse("2024-11-13"), RateSide.BID), 0.0);
+        Assertions.assertEquals(0, before.getVersion());
+    }
+
+    /**Objective of the test:
+     * A pillar on a new date is inserted in date order, before the first pillar as well as between pillars, and the
+     * updated curve gives the same rates as a curve constructed with that pillar from the start
+     */
+    @Test
+    void testInsertedPillarMatchesConstructedCurve() {
+        LiveYieldCurve live = new LiveYieldCurve(new YieldCurve(DATES, BID_RATES, ASK_RATES, Interpolation.NATURAL_CUBIC_SPLINE));
+        live.updatePillar(LocalDate.parse("2025-01-01"), 7.0, 7.1);
+        live.updatePillar(LocalDate.parse("2024-02-01"), 4.0, 4.1);
+
+        String[] dates = {"2024-02-01", "2024-05-17", "2024-08-15", "2024-11-13", "2025-01-01", "2025-02-11", "2025-05-12", "2025-08-10", "2025-11-08", "2026-02-06", "2026-05-07"};
+        double[] bids = {4.0, 4.5, 5.0, 6.0, 7.0, 7.2, 7.6, 8.1, 9.0, 10.0, 11.3};
+        double[] asks = {4.1, 4.55, 5.05, 6.05, 7.1, 7.25, 7.65, 8.15, 9.05, 10.05, 11.35};
+        YieldCurve expected = new YieldCurve(dates, bids, asks, Interpolation.NATURAL_CUBIC_SPLINE);
+        YieldCurve actual = live.snapshot();
+        Assertions.assertEquals(2, actual.getVersion());
+        Assertions.assertEquals(Interpolation.NATURAL_CUBIC_SPLINE, actual.getInterpolation());
+        for (int day = epochDay("2024-02-01"); day < epochDay("2026-06-01"); day++) {
+            for (RateSide side : RateSide.values()) {
+                Assertions.assertEquals(expected.getRate(day, side), actual.getRate(day, side), 0.0);
+            }
+        }
+    }
+
+    /**Objective of the test:
+     * Concurrent writers never lose an update - every update produces exactly one new version - and readers always see
+     * a consistent curve, here one where every ask rate is the bid rate plus 0.05
+     */
+    @Test
+    void testConcurrentUpdatesAreNeitherLostNorTorn() throws InterruptedException {
+        LiveYieldCurve live = new LiveYieldCurve(new YieldCurve(DATES, BID_RATES, ASK_RATES));
+        int writers = 4;
+        int updatesPerWriter = 2_000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> readerError = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            int[] pillars = new int[DATES.length];
+            for (int i = 0; i < DATES.length; i++) {
+                pillars[i] = epochDay(DATES[i]);
+            }
+            while (writing.get()) {
+                YieldCurve snapshot = live.snapshot();
+                for (int pillar : pillars) {
+                    double spread = snapshot.getRate(pillar, RateSide.ASK) - snapshot.getRate(pillar, RateSide.BID);
+                    if (Math.abs(spread - 0.05) > 1e-9) {
+                        readerError.set("Inconsistent snapshot at version " + snapshot.getVersion());
+                    }
+                }
+            }
+        });
+        reader.start();
+
+        Thread[] threads = new Thread[writers];
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads[w] = new Thread(() -> {
+                for (int u = 0; u < updatesPerWriter; u++) {
+                    int pillar = epochDay(DATES[(writer + u) % DATES.length]);
+                    double bid = 5.0 + writer + u * 1e-4;
+                    live.updatePillar(pillar, bid, bid + 0.05);
+                }
+            });
+            threads[w].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writing.set(false);
+        reader.join();
+
+        Assertions.assertNull(readerError.get());
+        Assertions.assertEquals((long) writers * updatesPerWriter, live.getVersion());
+    }
+}
@@ -0,0 +1,20 @@
+//Side of the curve a rate is read from - the mid rate is the average of the bid and ask rates
+public enum RateSide {
+    BID,
+    ASK,
+    MID;
+
+    //Converts the user's rate type (bid, ask or mid in any case) to a RateSide without allocating a lower-case copy of the string
+    public static RateSide fromString(String rateType) {
+        if ("bid".equalsIgnoreCase(rateType)) {
+            return BID;
+        }
+        if ("ask".equalsIgnoreCase(rateType)) {
+            return ASK;
+        }
+        if ("mid".equalsIgnoreCase(rateType)) {
+            return MID;
+        }
+        throw new IllegalArgumentException("Rate type must be 'bid', 'ask', or 'mid'.");
+    }
+}
@@ -0,0 +1,382 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+//An append-only history of daily yield curves kept in a memory-mapped file, for back-testing against the curve of any past day
+//The data file holds each curve's pillars (dates as epoch days, then bid and ask rates) one record after the other, and a small
+//index file next to it (same name plus ".idx") holds one fixed-width entry per curve: its as-of date, pillar count and record offset.
+//Opening a history only maps the two files, nothing is read onto the heap. An as-of query is a binary search over the mapped index
+//for the last curve on or before the as-of date, then a binary search over that curve's mapped pillars.
+//LINEAR histories interpolate straight from the mapped pillars; other schemes need their coefficients, so the queried curve is built
+//as a YieldCurve and kept until a query asks for another one. Either way each rate is the same as the stored curve's getRate.
+//Both files are little-endian on every platform. They are mapped read-write with room to spare past the last curve, and only
+//re-mapped (at twice the size) when an append runs out of room. An append writes its record and index entry straight into the
+//mapping and publishes the new curve count in one volatile write, so readers on other threads always see a complete history.
+//The record is forced to disk before its index entry is written, so after a crash an index entry never points to a record that
+//did not reach the disk - at worst the last curves are missing. Entries only reach the disk when the OS writes them back or
+//force() is called. The zero-filled room left at the end of the files is skipped when a history is opened.
+public final class YieldCurveHistory implements Closeable {
+    private static final int MAGIC = 0x59434853; //"YCHS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    //Index entry: as-of epoch day (int), pillar count (int), record offset in the data file (long)
+    private static final int ENTRY_SIZE = 16;
+    //Smallest mappings, so the first appends to a new history do not each grow the files
+    private static final int MIN_DATA_MAPPING = 1 << 16;
+    private static final int MIN_INDEX_MAPPING = 1 << 12;
+
+    private final Path dataFile;
+    private final FileChannel data;
+    private final FileChannel index;
+    private final Interpolation interpolation;
+    private volatile Mapping mapping;
+    //End of the last record in the data file, only used by append
+    private long dataEnd;
+    //Last curve built for a non-linear query, with the position of its index entry
+    private volatile BuiltCurve lastBuilt;
+
+    private YieldCurveHistory(Path dataFile, FileChannel data, FileChannel index, Interpolation interpolation) throws IOException {
+        this.dataFile = dataFile;
+        this.data = data;
+        this.index = index;
+        this.interpolation = interpolation;
+        long dataSize = data.size();
+        long indexSize = index.size();
+        Mapping mapped = map(dataSize, indexSize, (int) ((indexSize - HEADER_SIZE) / ENTRY_SIZE));
+        //Entries past the last curve are the zeros of room mapped ahead - every real record starts after the data file's header
+        int size = mapped.size;
+        while (size > 0 && mapped.recordOffset(size - 1) == 0) {
+            size--;
+        }
+        //Records are appended in order, so the last one ending inside the data file means every one does
+        this.dataEnd = size == 0 ? HEADER_SIZE : mapped.recordOffset(size - 1) + (long) recordSize(mapped.pillarCount(size - 1));
+        if (dataEnd > dataSize) {
+            throw new IOException(dataFile + " is truncated or corrupt.");
+        }
+        this.mapping = new Mapping(mapped.data, mapped.index, size);
+    }
+
+    //Creates an empty history whose curves interpolate with the given scheme - existing files of the same name are replaced
+    public static YieldCurveHistory create(Path file, Interpolation interpolation) throws IOException {
+        FileChannel data = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel index = null;
+        try {
+            index = FileChannel.open(indexFile(file), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            writeFully(data, header(interpolation.code()), 0);
+            writeFully(index, header(0), 0);
+            return new YieldCurveHistory(file, data, index, interpolation);
+        } catch (IOException | RuntimeException e) {
+            data.close();
+            if (index != null) {
+                index.close();
+            }
+            throw e;
+        }
+    }
+
+    //Opens a history written earlier by create() - more curves can still be appended to it
+    public static YieldCurveHistory open(Path file) throws IOException {
+        FileChannel data = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel index = null;
+        try {
+            index = FileChannel.open(indexFile(file), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int scheme = readHeader(data, file);
+            readHeader(index, indexFile(file));
+            Interpolation interpolation = Interpolation.fromCode(scheme);
+            if (interpolation == null) {
+                throw new IOException(file + " has an unknown interpolation scheme.");
+            }
+            //An index file that does not end on a whole entry is cut back to whole entries
+            long entries = (index.size() - HEADER_SIZE) / ENTRY_SIZE;
+            index.truncate(HEADER_SIZE + entries * ENTRY_SIZE);
+            return new YieldCurveHistory(file, data, index, interpolation);
+        } catch (IOException | RuntimeException e) {
+            data.close();
+            if (index != null) {
+                index.close();
+            }
+            throw e;
+        }
+    }
+
+    private static Path indexFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    //Appends the curve of the given as-of date - as-of dates must be appended in ascending order without repeats
+    public void append(LocalDate asOfDate, YieldCurve curve) throws IOException {
+        append((int) asOfDate.toEpochDay(), curve);
+    }
+
+    public synchronized void append(int asOfDay, YieldCurve curve) throws IOException {
+        Mapping current = mapping;
+        if (current.size > 0 && asOfDay <= current.asOfDay(current.size - 1)) {
+            throw new IllegalArgumentException("Curves must be appended in ascending order of as-of date.");
+        }
+        int[] dates = curve.pillarDates();
+        double[] bidRates = curve.pillarBidRates();
+        double[] askRates = curve.pillarAskRates();
+        int pillars = dates.length;
+
+        long offset = align(dataEnd);
+        long recordEnd = offset + recordSize(pillars);
+        long entry = HEADER_SIZE + (long) current.size * ENTRY_SIZE;
+        if (recordEnd > current.data.capacity() || entry + ENTRY_SIZE > current.index.capacity()) {
+            current = map(grow(current.data.capacity(), recordEnd), grow(current.index.capacity(), entry + ENTRY_SIZE), current.size);
+        }
+        //Readers only look at the curves a published mapping counts, so the room past them can be written in place
+        ByteBuffer buffer = current.data;
+        int record = (int) offset;
+        for (int i = 0; i < pillars; i++) {
+            buffer.putInt(record + i * Integer.BYTES, dates[i]);
+            buffer.putDouble(record + bidOffset(pillars) + i * Double.BYTES, bidRates[i]);
+            buffer.putDouble(record + bidOffset(pillars) + (pillars + i) * Double.BYTES, askRates[i]);
+        }
+
+        //The record reaches the disk before the index entry is written, so no entry can point to a torn curve after a crash
+        current.data.force(record, (int) (recordEnd - offset));
+        current.index.putInt((int) entry, asOfDay).putInt((int) entry + 4, pillars).putLong((int) entry + 8, offset);
+        dataEnd = recordEnd;
+        mapping = new Mapping(current.data, current.index, current.size + 1);
+    }
+
+    //Mapping size for at least required bytes - double the current one, so a history of n curves is only re-mapped log(n) times
+    private long grow(long capacity, long required) throws IOException {
+        long grown = Math.max(capacity, 1);
+        while (grown < required) {
+            grown *= 2;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IOException(dataFile + " is larger than 2 GB.");
+        }
+        return Math.min(grown, Integer.MAX_VALUE);
+    }
+
+    //Number of curves in the history
+    public int size() {
+        return mapping.size;
+    }
+
+    //As-of date of the curve at the given position, curves are in ascending order of as-of date
+    public LocalDate getAsOfDate(int position) {
+        Mapping current = mapping;
+        if (position < 0 || position >= current.size) {
+            throw new IndexOutOfBoundsException("Position " + position + " is outside the history of " + current.size + " curves.");
+        }
+        return LocalDate.ofEpochDay(current.asOfDay(position));
+    }
+
+    public Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    //Rate on date for the side of the curve, taken from the latest curve with an as-of date on or before asOfDate
+    public double getRate(LocalDate asOfDate, LocalDate date, RateSide side) {
+        return getRate((int) asOfDate.toEpochDay(), (int) date.toEpochDay(), side);
+    }
+
+    //Same as above with both dates given as epoch days
+    public double getRate(int asOfDay, int epochDay, RateSide side) {
+        Mapping current = mapping;
+        int position = current.find(asOfDay);
+        if (interpolation != Interpolation.LINEAR) {
+            return builtCurve(current, position).getRate(epochDay, side);
+        }
+        int pillars = current.pillarCount(position);
+        int record = current.recordOffset(position);
+        ByteBuffer buffer = current.data;
+        //Binary search over the mapped pillar dates, exactly as YieldCurve does over its array
+        int low = 0;
+        int high = pillars - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int pillarDate = buffer.getInt(record + middle * Integer.BYTES);
+            if (pillarDate < epochDay) {
+                low = middle + 1;
+            } else if (pillarDate > epochDay) {
+                high = middle - 1;
+            } else {
+                return rate(buffer, record, pillars, middle, side);
+            }
+        }
+        int higher = low;
+        if (higher == 0) {
+            throw new IllegalArgumentException("Date is before the first available date.");
+        }
+        if (higher == pillars) {
+            return rate(buffer, record, pillars, pillars - 1, side);
+        }
+        //Rate = Rate(Lower date) + [(Input date - Lower date) x (higher rate - lower rate)/(sum of days between lower and higher date)]
+        int lower = higher - 1;
+        int lowerDate = buffer.getInt(record + lower * Integer.BYTES);
+        long totalDays = buffer.getInt(record + higher * Integer.BYTES) - lowerDate;
+        long daysToTarget = epochDay - lowerDate;
+        double lowerRateValue = rate(buffer, record, pillars, lower, side);
+        double higherRateValue = rate(buffer, record, pillars, higher, side);
+        return lowerRateValue + (daysToTarget * (higherRateValue - lowerRateValue) / totalDays);
+    }
+
+    //The latest curve with an as-of date on or before asOfDate, copied onto the heap as a YieldCurve
+    public YieldCurve getCurve(LocalDate asOfDate) {
+        Mapping current = mapping;
+        return builtCurve(current, current.find((int) asOfDate.toEpochDay()));
+    }
+
+    private YieldCurve builtCurve(Mapping current, int position) {
+        BuiltCurve built = lastBuilt;
+        if (built != null && built.position == position) {
+            return built.curve;
+        }
+        int pillars = current.pillarCount(position);
+        int record = current.recordOffset(position);
+        int[] dates = new int[pillars];
+        double[] bidRates = new double[pillars];
+        double[] askRates = new double[pillars];
+        for (int i = 0; i < pillars; i++) {
+            dates[i] = current.data.getInt(record + i * Integer.BYTES);
+            bidRates[i] = current.data.getDouble(record + bidOffset(pillars) + i * Double.BYTES);
+            askRates[i] = current.data.getDouble(record + bidOffset(pillars) + (pillars + i) * Double.BYTES);
+        }
+        YieldCurve curve = new YieldCurve(dates, bidRates, askRates, interpolation, 0);
+        lastBuilt = new BuiltCurve(position, curve);
+        return curve;
+    }
+
+    //Rate of one pillar for the side of the curve - mid is (bid + ask) / 2, as YieldCurve calculates it
+    private static double rate(ByteBuffer buffer, int record, int pillars, int pillar, RateSide side) {
+        int bid = record + bidOffset(pillars) + pillar * Double.BYTES;
+        int ask = bid + pillars * Double.BYTES;
+        return switch (side) {
+            case BID -> buffer.getDouble(bid);
+            case ASK -> buffer.getDouble(ask);
+            case MID -> (buffer.getDouble(bid) + buffer.getDouble(ask)) / 2;
+        };
+    }
+
+    //Maps both files read-write to at least the given sizes (and at least the minimum mappings), extending the files with zeros
+    private Mapping map(long dataSize, long indexSize, int size) throws IOException {
+        if (dataSize > Integer.MAX_VALUE || indexSize > Integer.MAX_VALUE) {
+            throw new IOException(dataFile + " is larger than 2 GB.");
+        }
+        MappedByteBuffer dataBuffer = mapFile(data, Math.max(dataSize, MIN_DATA_MAPPING));
+        MappedByteBuffer indexBuffer = mapFile(index, Math.max(indexSize, MIN_INDEX_MAPPING));
+        return new Mapping(dataBuffer, indexBuffer, size);
+    }
+
+    private static MappedByteBuffer mapFile(FileChannel channel, long size) throws IOException {
+        if (channel.size() < size) {
+            //Writing the last byte extends the file, mapping past its end is left unspecified by FileChannel.map
+            writeFully(channel, ByteBuffer.allocate(1), size - 1);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    //Record layout: pillar dates, padding to 8 bytes, bid rates, ask rates
+    private static int bidOffset(int pillars) {
+        return (int) align((long) pillars * Integer.BYTES);
+    }
+
+    private static int recordSize(int pillars) {
+        return bidOffset(pillars) + 2 * pillars * Double.BYTES;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static ByteBuffer header(int scheme) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(scheme).putInt(0).flip();
+        return header;
+    }
+
+    //Checks the magic number and version and returns the third header field
+    private static int readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.size() < HEADER_SIZE || channel.read(header, 0) < HEADER_SIZE
+                || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException(file + " is not a version " + VERSION + " yield curve history.");
+        }
+        return header.getInt(8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    //Writes both files through to disk
+    public void force() throws IOException {
+        Mapping current = mapping;
+        current.data.force();
+        current.index.force();
+        data.force(false);
+        index.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            data.close();
+        } finally {
+            index.close();
+        }
+    }
+
+    //View of both files at one point in time - the buffers may be shared with later mappings, but the curves counted by size never change
+    private static final class Mapping {
+        final MappedByteBuffer data;
+        final MappedByteBuffer index;
+        final int size;
+
+        Mapping(MappedByteBuffer data, MappedByteBuffer index, int size) {
+            this.data = data;
+            this.index = index;
+            this.size = size;
+        }
+
+        int asOfDay(int position) {
+            return index.getInt(HEADER_SIZE + position * ENTRY_SIZE);
+        }
+
+        int pillarCount(int position) {
+            return index.getInt(HEADER_SIZE + position * ENTRY_SIZE + 4);
+        }
+
+        int recordOffset(int position) {
+            return (int) index.getLong(HEADER_SIZE + position * ENTRY_SIZE + 8);
+        }
+
+        //Position of the last curve with an as-of date on or before asOfDay
+        int find(int asOfDay) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (asOfDay(middle) <= asOfDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            if (high < 0) {
+                throw new IllegalArgumentException("As-of date is before the first curve in the history.");
+            }
+            return high;
+        }
+    }
+
+    private record BuiltCurve(int position, YieldCurve curve) {
+    }
+}
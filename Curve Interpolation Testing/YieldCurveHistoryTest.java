@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class YieldCurveHistoryTest {
+    private static final String[] DATES = {"2024-05-17", "2024-08-15", "2024-11-13", "2025-02-11", "2025-05-12", "2025-08-10", "2025-11-08", "2026-02-06", "2026-05-07"};
+    private static final double[] BID_RATES = {4.5, 5.0, 6.0, 7.2, 7.6, 8.1, 9.0, 10.0, 11.3};
+    private static final double[] ASK_RATES = {4.55, 5.05, 6.05, 7.25, 7.65, 8.15, 9.05, 10.05, 11.35};
+    private static final LocalDate FIRST_DAY = LocalDate.parse("2020-01-01");
+
+    @TempDir
+    Path directory;
+
+    //The curve of day n of the history: the example curve with every rate moved up by n basis points
+    private static YieldCurve dailyCurve(int day, Interpolation interpolation) {
+        double[] bids = new double[BID_RATES.length];
+        double[] asks = new double[ASK_RATES.length];
+        for (int i = 0; i < bids.length; i++) {
+            bids[i] = BID_RATES[i] + day * 0.01;
+            asks[i] = ASK_RATES[i] + day * 0.01;
+        }
+        return new YieldCurve(DATES, bids, asks, interpolation);
+    }
+
+    /**Objective of the test:
+     * A history reopened from disk answers every as-of query with exactly the rate of the stored curve, for exact pillars,
+     * interpolated dates and dates past the last pillar, on every side - and a date between two as-of dates uses the earlier curve
+     */
+    @Test
+    void testAsOfQueriesMatchStoredCurves() throws IOException {
+        Path file = directory.resolve("curves.bin");
+        try (YieldCurveHistory history = YieldCurveHistory.create(file, Interpolation.LINEAR)) {
+            for (int day = 0; day < 1_000; day += 2) {
+                history.append(FIRST_DAY.plusDays(day), dailyCurve(day, Interpolation.LINEAR));
+            }
+        }
+        try (YieldCurveHistory history = YieldCurveHistory.open(file)) {
+            Assertions.assertEquals(500, history.size());
+            Assertions.assertEquals(Interpolation.LINEAR, history.getInterpolation());
+            Assertions.assertEquals(FIRST_DAY.plusDays(998), history.getAsOfDate(499));
+            for (int day = 0; day < 1_000; day += 37) {
+                YieldCurve expected = dailyCurve(day - day % 2, Interpolation.LINEAR);
+                LocalDate asOf = FIRST_DAY.plusDays(day);
+                for (LocalDate date = LocalDate.parse("2024-05-17"); date.isBefore(LocalDate.parse("2026-08-01")); date = date.plusDays(11)) {
+                    for (RateSide side : RateSide.values()) {
+                        Assertions.assertEquals(expected.getRate(date, side), history.getRate(asOf, date, side), 0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**Objective of the test:
+     * Histories with a non-linear scheme keep it when reopened and give the same rates as a curve built with that scheme,
+     * and getCurve returns the stored pillars
+     */
+    @Test
+    void testNonLinearSchemeAndGetCurve() throws IOException {
+        Path file = directory.resolve("cubic.bin");
+        try (YieldCurveHistory history = YieldCurveHistory.create(file, Interpolation.MONOTONE_CUBIC)) {
+            for (int day = 0; day < 10; day++) {
+                history.append(FIRST_DAY.plusDays(day), dailyCurve(day, Interpolation.MONOTONE_CUBIC));
+            }
+        }
+        try (YieldCurveHistory history = YieldCurveHistory.open(file)) {
+            Assertions.assertEquals(Interpolation.MONOTONE_CUBIC, history.getInterpolation());
+            for (int day = 0; day < 10; day++) {
+                YieldCurve expected = dailyCurve(day, Interpolation.MONOTONE_CUBIC);
+                for (LocalDate date = LocalDate.parse("2024-05-17"); date.isBefore(LocalDate.parse("2026-05-07")); date = date.plusDays(13)) {
+                    Assertions.assertEquals(expected.getRate(date, RateSide.MID), history.getRate(FIRST_DAY.plusDays(day), date, RateSide.MID), 0.0);
+                }
+                YieldCurve stored = history.getCurve(FIRST_DAY.plusDays(day));
+                Assertions.assertEquals(expected.getRate(LocalDate.parse("2025-02-11"), RateSide.ASK), stored.getRate(LocalDate.parse("2025-02-11"), RateSide.ASK), 0.0);
+            }
+        }
+    }
+
+    /**Objective of the test:
+     * Curves can be appended to a reopened history, and out-of-order as-of dates, as-of dates before the first curve and
+     * dates before the first pillar are rejected
+     */
+    @Test
+    void testAppendAfterReopenAndInvalidQueries() throws IOException {
+        Path file = directory.resolve("append.bin");
+        try (YieldCurveHistory history = YieldCurveHistory.create(file, Interpolation.LINEAR)) {
+            history.append(FIRST_DAY, dailyCurve(0, Interpolation.LINEAR));
+        }
+        try (YieldCurveHistory history = YieldCurveHistory.open(file)) {
+            history.append(FIRST_DAY.plusDays(1), dailyCurve(1, Interpolation.LINEAR));
+            Assertions.assertEquals(2, history.size());
+            Assertions.assertEquals(4.51, history.getRate(FIRST_DAY.plusDays(5), LocalDate.parse("2024-05-17"), RateSide.BID), 1e-12);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> history.append(FIRST_DAY.plusDays(1), dailyCurve(2, Interpolation.LINEAR)));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> history.getRate(FIRST_DAY.minusDays(1), LocalDate.parse("2024-05-17"), RateSide.BID));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> history.getRate(FIRST_DAY, LocalDate.parse("2024-05-16"), RateSide.BID));
+        }
+    }
+
+    /**Objective of the test:
+     * Appends write into room mapped ahead, so the files only grow in doubling steps, each appended curve can be read straight away,
+     * and the unused room at the end of the files is skipped when the history is reopened and appended to
+     */
+    @Test
+    void testAppendsGrowTheMappingInSteps() throws IOException {
+        Path file = directory.resolve("growth.bin");
+        try (YieldCurveHistory history = YieldCurveHistory.create(file, Interpolation.LINEAR)) {
+            for (int day = 0; day < 500; day++) {
+                history.append(FIRST_DAY.plusDays(day), dailyCurve(day, Interpolation.LINEAR));
+                Assertions.assertEquals(dailyCurve(day, Interpolation.LINEAR).getRate(LocalDate.parse("2025-01-01"), RateSide.MID),
+                        history.getRate(FIRST_DAY.plusDays(day), LocalDate.parse("2025-01-01"), RateSide.MID), 0.0);
+            }
+        }
+        //500 records of 9 pillars take 92,016 bytes of data and 8,016 bytes of index
+        Assertions.assertEquals(1 << 17, Files.size(file));
+        Assertions.assertEquals(1 << 13, Files.size(directory.resolve("growth.bin.idx")));
+        try (YieldCurveHistory history = YieldCurveHistory.open(file)) {
+            Assertions.assertEquals(500, history.size());
+            history.append(FIRST_DAY.plusDays(500), dailyCurve(500, Interpolation.LINEAR));
+            Assertions.assertEquals(501, history.size());
+            Assertions.assertEquals(FIRST_DAY.plusDays(499), history.getAsOfDate(499));
+        }
+        try (YieldCurveHistory history = YieldCurveHistory.open(file)) {
+            Assertions.assertEquals(501, history.size());
+            Assertions.assertEquals(dailyCurve(499, Interpolation.LINEAR).getRate(LocalDate.parse("2025-01-01"), RateSide.BID),
+                    history.getRate(FIRST_DAY.plusDays(499), LocalDate.parse("2025-01-01"), RateSide.BID), 0.0);
+        }
+    }
+
+    /**Objective of the test:
+     * A file that is not a curve history is refused, and an index entry cut short by a crash is dropped
+     */
+    @Test
+    void testRejectsForeignFilesAndDropsPartialEntry() throws IOException {
+        Path foreign = directory.resolve("foreign.bin");
+        Files.write(foreign, new byte[64]);
+        Files.write(directory.resolve("foreign.bin.idx"), new byte[64]);
+        Assertions.assertThrows(IOException.class, () -> YieldCurveHistory.open(foreign));
+
+        Path file = directory.resolve("partial.bin");
+        try (YieldCurveHistory history = YieldCurveHistory.create(file, Interpolation.LINEAR)) {
+            history.append(FIRST_DAY, dailyCurve(0, Interpolation.LINEAR));
+        }
+        Path index = directory.resolve("partial.bin.idx");
+        Files.write(index, new byte[7], StandardOpenOption.APPEND);
+        try (YieldCurveHistory history = YieldCurveHistory.open(file)) {
+            Assertions.assertEquals(1, history.size());
+        }
+    }
+}
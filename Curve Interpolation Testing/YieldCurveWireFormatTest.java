@@ -0,0 +1,82 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class YieldCurveWireFormatTest {
+    private static final String[] DATES = {"2024-05-17", "2024-08-15", "2024-11-13", "2025-02-11", "2025-05-12", "2025-08-10", "2025-11-08", "2026-02-06", "2026-05-07"};
+    private static final double[] BID_RATES = {4.5, 5.0, 6.0, 7.2, 7.6, 8.1, 9.0, 10.0, 11.3};
+    private static final double[] ASK_RATES = {4.55, 5.05, 6.05, 7.25, 7.65, 8.15, 9.05, 10.05, 11.35};
+
+    /**Objective of the test:
+     * A decoded curve keeps the scheme and gives exactly the rates of the encoded curve on every side, pillars can be read
+     * in place, and two curves written one after the other are read back in order
+     */
+    @Test
+    void testRoundTripKeepsEveryRate() {
+        YieldCurve linear = new YieldCurve(DATES, BID_RATES, ASK_RATES);
+        YieldCurve cubic = new YieldCurve(DATES, BID_RATES, ASK_RATES, Interpolation.MONOTONE_CUBIC);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(2 * YieldCurveWireFormat.size(DATES.length));
+        YieldCurveWireFormat.encode(linear, buffer);
+        YieldCurveWireFormat.encode(cubic, buffer);
+        Assertions.assertFalse(buffer.hasRemaining());
+        buffer.flip();
+
+        Assertions.assertEquals(9, YieldCurveWireFormat.pillarCount(buffer));
+        Assertions.assertEquals(LocalDate.parse("2024-11-13").toEpochDay(), YieldCurveWireFormat.pillarDate(buffer, 2));
+        Assertions.assertEquals(7.25, YieldCurveWireFormat.askRate(buffer, 3), 0.0);
+        YieldCurve[] decoded = {YieldCurveWireFormat.decode(buffer), YieldCurveWireFormat.decode(buffer)};
+        YieldCurve[] expected = {linear, cubic};
+        Assertions.assertFalse(buffer.hasRemaining());
+        for (int c = 0; c < 2; c++) {
+            Assertions.assertEquals(expected[c].getInterpolation(), decoded[c].getInterpolation());
+            for (LocalDate date = LocalDate.parse("2024-05-17"); date.isBefore(LocalDate.parse("2026-08-01")); date = date.plusDays(7)) {
+                for (RateSide side : RateSide.values()) {
+                    Assertions.assertEquals(expected[c].getRate(date, side), decoded[c].getRate(date, side), 0.0);
+                }
+            }
+        }
+    }
+
+    /**Objective of the test:
+     * The layout is fixed and little-endian: header, pillar dates padded to 8 bytes, then the bid and the ask rates
+     */
+    @Test
+    void testLayout() {
+        YieldCurve curve = new YieldCurve(DATES, BID_RATES, ASK_RATES, Interpolation.NATURAL_CUBIC_SPLINE);
+        ByteBuffer buffer = ByteBuffer.allocate(YieldCurveWireFormat.size(DATES.length));
+        YieldCurveWireFormat.encode(curve, buffer);
+        Assertions.assertEquals(16 + 40 + 9 * 16, buffer.position());
+        //The caller's buffer keeps its own (big-endian) byte order
+        Assertions.assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+        ByteBuffer raw = ByteBuffer.wrap(buffer.array()).order(ByteOrder.LITTLE_ENDIAN);
+        Assertions.assertEquals(3, raw.getInt(4));
+        Assertions.assertEquals(9, raw.getInt(8));
+        Assertions.assertEquals(LocalDate.parse("2024-05-17").toEpochDay(), raw.getInt(16));
+        Assertions.assertEquals(0, raw.getInt(52));
+        Assertions.assertEquals(4.5, raw.getDouble(56), 0.0);
+        Assertions.assertEquals(4.55, raw.getDouble(56 + 9 * 8), 0.0);
+    }
+
+    /**Objective of the test:
+     * Foreign and truncated messages, unknown schemes, unsorted pillars and too small buffers are rejected
+     */
+    @Test
+    void testInvalidMessages() {
+        YieldCurve curve = new YieldCurve(DATES, BID_RATES, ASK_RATES);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> YieldCurveWireFormat.encode(curve, ByteBuffer.allocate(100)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> YieldCurveWireFormat.decode(ByteBuffer.allocate(400)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(YieldCurveWireFormat.size(DATES.length));
+        YieldCurveWireFormat.encode(curve, buffer);
+        buffer.flip();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> YieldCurveWireFormat.decode(buffer.duplicate().limit(buffer.limit() - 8)));
+        buffer.putInt(4, 99);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> YieldCurveWireFormat.decode(buffer.duplicate()));
+        buffer.putInt(4, 0);
+        buffer.putInt(20, buffer.getInt(16));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> YieldCurveWireFormat.decode(buffer.duplicate()));
+    }
+}
@@ -84,6 +84,77 @@ class YieldCurveTest {
         Assertions.assertEquals("Rate type must be 'bid', 'ask', or 'mid'.", exception.getMessage());
     }
 
+    /**Objective of the test:
+     * The epoch day overload must return exactly what the LocalDate overload returns on every path (exact, interpolated and extrapolated)
+     */
+    @Test
+    void testEpochDayOverload() {
+        for (String rateType : new String[]{"bid", "ask", "mid"}) {
+            for (LocalDate date = parse("2024-05-17", formatter); date.isBefore(parse("2026-08-01", formatter)); date = date.plusDays(1)) {
+                Assertions.assertEquals(yieldCurve.getRate(date, rateType), yieldCurve.getRate((int) date.toEpochDay(), rateType), 0.0);
+            }
+        }
+        Executable executable = () -> yieldCurve.getRate((int) parse("2024-05-16", formatter).toEpochDay(), "bid");
+        Assertions.assertThrows(IllegalArgumentException.class, executable);
+    }
 
+    /**Objective of the test:
+     * Pillars may be given in any order, and when a date is repeated the last rates given for it are used
+     */
+    @Test
+    void testUnsortedAndRepeatedDates() {
+        YieldCurve unsorted = new YieldCurve(new String[]{"2024-11-13", "2024-05-17", "2024-08-15", "2024-05-17"},
+                new double[]{6.0, 1.0, 5.0, 4.5}, new double[]{6.05, 1.05, 5.05, 4.55});
+        LocalDate date = parse("2024-10-01", formatter);
+        Assertions.assertEquals(yieldCurve.getRate(date, "mid"), unsorted.getRate(date, "mid"), 0.0);
+        Assertions.assertEquals(4.5, unsorted.getRate(parse("2024-05-17", formatter), "bid"), 0.0);
+    }
+
+    /**Objective of the test:
+     * The RateSide overloads must return exactly what the String overloads return, and the rate type is not case-sensitive
+     */
+    @Test
+    void testRateSideOverloads() {
+        for (String date : new String[]{"2024-08-15", "2024-10-01", "2027-01-01"}) {
+            LocalDate localDate = parse(date, formatter);
+            Assertions.assertEquals(yieldCurve.getRate(localDate, "bid"), yieldCurve.getRate(localDate, RateSide.BID), 0.0);
+            Assertions.assertEquals(yieldCurve.getRate(localDate, "ask"), yieldCurve.getRate(localDate, RateSide.ASK), 0.0);
+            Assertions.assertEquals(yieldCurve.getRate(localDate, "mid"), yieldCurve.getRate(localDate, RateSide.MID), 0.0);
+        }
+        Assertions.assertEquals(RateSide.BID, RateSide.fromString("BID"));
+        Assertions.assertEquals(RateSide.MID, RateSide.fromString("Mid"));
+    }
+
+    /**Objective of the test:
+     * The bulk lookup over a sorted vector of dates (with repeats, pillar dates and dates past the curve) must match getRate date by date
+     */
+    @Test
+    void testBulkRatesMatchSingleLookups() {
+        int first = (int) parse("2024-05-17", formatter).toEpochDay();
+        int[] epochDays = new int[800];
+        for (int i = 0; i < epochDays.length; i++) {
+            epochDays[i] = first + i - i % 3;
+        }
+        double[] out = new double[epochDays.length];
+        for (RateSide side : RateSide.values()) {
+            yieldCurve.getRates(epochDays, side, out);
+            for (int i = 0; i < epochDays.length; i++) {
+                Assertions.assertEquals(yieldCurve.getRate(epochDays[i], side), out[i], 0.0);
+            }
+        }
+    }
+
+    /**Objective of the test:
+     * The bulk lookup rejects unsorted dates and dates before the curve, like getRate does
+     */
+    @Test
+    void testBulkRatesInvalidInput() {
+        int date = (int) parse("2024-10-01", formatter).toEpochDay();
+        double[] out = new double[2];
+        Assertions.assertThrows(IllegalArgumentException.class, () -> yieldCurve.getRates(new int[]{date, date - 1}, RateSide.MID, out));
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> yieldCurve.getRates(new int[]{date - 365, date}, RateSide.MID, out));
+        Assertions.assertEquals("Date is before the first available date.", exception.getMessage());
+    }
 }
 
@@ -0,0 +1,44 @@
+//Interpolation scheme used between the pillars of a YieldCurve - the scheme is chosen per curve and LINEAR is the default
+//Each scheme has a fixed code that curve messages and history files store, so reordering or adding schemes never changes a stored curve
+public enum Interpolation {
+    //Linear on the rate between the two nearest pillars
+    LINEAR(0),
+    //Linear on the log of the discount factor, i.e. rate x time is linear, with time measured from the first pillar of the curve
+    //Between the first two pillars, where rate x time has no anchor, the rate is linear
+    LOG_LINEAR_DISCOUNT(1),
+    //Monotone (Fritsch-Carlson) cubic Hermite - smooth, and never overshoots the pillar rates
+    MONOTONE_CUBIC(2),
+    //Natural cubic spline - twice differentiable, with zero curvature at the first and last pillars
+    NATURAL_CUBIC_SPLINE(3);
+
+    private final int code;
+
+    Interpolation(int code) {
+        this.code = code;
+    }
+
+    //Code of the scheme in curve messages and history files
+    int code() {
+        return code;
+    }
+
+    //Scheme with the given code, or null for a code no scheme has
+    static Interpolation fromCode(int code) {
+        for (Interpolation interpolation : values()) {
+            if (interpolation.code == code) {
+                return interpolation;
+            }
+        }
+        return null;
+    }
+
+    //Builds the interpolator for one side of the curve, all coefficients are calculated here once
+    CurveInterpolator create(int[] dates, double[] rates) {
+        return switch (this) {
+            case LINEAR -> new CurveInterpolator.Linear(dates, rates);
+            case LOG_LINEAR_DISCOUNT -> new CurveInterpolator.LogLinearDiscount(dates, rates);
+            case MONOTONE_CUBIC -> CurveInterpolator.Cubic.monotone(dates, rates);
+            case NATURAL_CUBIC_SPLINE -> CurveInterpolator.Cubic.naturalSpline(dates, rates);
+        };
+    }
+}
@@ -0,0 +1,40 @@
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReference;
+
+//A yield curve whose pillars can be updated while it is being read
+//Every update builds a new immutable YieldCurve (copy-on-write) and publishes it with an atomic reference swap, so pricing threads
+//take a consistent snapshot without locking while a feed thread applies updates. Each snapshot carries a version number so a
+//consumer can record exactly which curve a price was calculated from.
+public class LiveYieldCurve {
+    private final AtomicReference<YieldCurve> current;
+
+    public LiveYieldCurve(YieldCurve initialCurve) {
+        this.current = new AtomicReference<>(initialCurve);
+    }
+
+    //The latest published curve - it never changes, so all reads against it are consistent with each other
+    public YieldCurve snapshot() {
+        return current.get();
+    }
+
+    public long getVersion() {
+        return current.get().getVersion();
+    }
+
+    //Updates the bid and ask rates of the pillar on the given date (adding the pillar if needed) and returns the new snapshot
+    public YieldCurve updatePillar(LocalDate date, double bidRate, double askRate) {
+        return updatePillar((int) date.toEpochDay(), bidRate, askRate);
+    }
+
+    //Updates the bid and ask rates of the pillar on the given epoch day and returns the new snapshot
+    //If another thread publishes first the update is re-applied on top of its curve, so concurrent updates are never lost
+    public YieldCurve updatePillar(int epochDay, double bidRate, double askRate) {
+        while (true) {
+            YieldCurve previous = current.get();
+            YieldCurve next = previous.withPillar(epochDay, bidRate, askRate);
+            if (current.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -1,90 +1,275 @@
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
-import java.util.TreeMap;
-import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 
 public class YieldCurve {
-    //Treemap maps the date objects to the rate objects in the Main Class
-    private final TreeMap<LocalDate, Rate> rates;
+    //Pillar dates as sorted epoch days with the bid, ask and mid rates held in parallel arrays at the same index
+    private final int[] dates;
+    private final double[] bidRates;
+    private final double[] askRates;
+    private final double[] midRates;
+    //Interpolation scheme of the curve with the interpolators of each side, built once with their coefficients
+    private final Interpolation interpolation;
+    private final CurveInterpolator bidInterpolator;
+    private final CurveInterpolator askInterpolator;
+    private final CurveInterpolator midInterpolator;
+    private final long version;
 
-    //This is the constructor to initialise the Yield Curve objects given the arrays dates, bid & ask rates
+    //This is the constructor to initialise the Yield Curve objects given the arrays dates, bid & ask rates - rates are linearly interpolated
     public YieldCurve(String[] dates, double[] bidRates, double[] askRates) {
+        this(dates, bidRates, askRates, Interpolation.LINEAR);
+    }
+
+    //Constructor for a curve that interpolates between pillars with the given scheme
+    public YieldCurve(String[] dates, double[] bidRates, double[] askRates, Interpolation interpolation) {
+        this(sortPillars(dates, bidRates, askRates), interpolation, 0);
+    }
+
+    private YieldCurve(Pillars pillars, Interpolation interpolation, long version) {
+        this(pillars.dates(), pillars.bidRates(), pillars.askRates(), interpolation, version);
+    }
+
+    //Constructor from pillars that are already sorted by date without repeats - the arrays are used as given and must not be changed afterwards
+    YieldCurve(int[] dates, double[] bidRates, double[] askRates, Interpolation interpolation, long version) {
+        this.dates = dates;
+        this.bidRates = bidRates;
+        this.askRates = askRates;
+        //Mid rates are calculated once here so mid queries do not redo (bid + ask) / 2 on every lookup
+        this.midRates = new double[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            midRates[i] = (bidRates[i] + askRates[i]) / 2;
+        }
+        this.interpolation = interpolation;
+        this.bidInterpolator = interpolation.create(dates, bidRates);
+        this.askInterpolator = interpolation.create(dates, askRates);
+        this.midInterpolator = interpolation.create(dates, midRates);
+        this.version = version;
+    }
+
+    //Parses the date strings and sorts the pillars by date
+    private static Pillars sortPillars(String[] dates, double[] bidRates, double[] askRates) {
         //Checks if the input lengths are equal - if not an exception is thrown
         if (dates.length != bidRates.length || dates.length != askRates.length) {
             throw new IllegalArgumentException("All input arrays must have the same length.");
         }
-        //Initialises the rates in a tree map
-        rates = new TreeMap<>();
         //Declare a date formatter to parse dates strings in the format yyyy-MM-dd
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
-        //Iterates over thr arrays over dates, bid & ask rates
+        //Packs each epoch day with its input position so one primitive sort orders the pillars by date (then by position)
+        long[] order = new long[dates.length];
         for (int i = 0; i < dates.length; i++) {
-            LocalDate date = LocalDate.parse(dates[i], formatter);
-            rates.put(date, new Rate(bidRates[i], askRates[i]));
-            //Creates a new Rate object with the corresponding bid and ask rates and puts it into the rates map.
+            long date = LocalDate.parse(dates[i], formatter).toEpochDay();
+            order[i] = (date << 32) | i;
         }
+        Arrays.sort(order);
+
+        //Copies the pillars in date order - if a date is repeated the last one given wins, as it would when put into a map
+        int[] sortedDates = new int[dates.length];
+        double[] sortedBids = new double[dates.length];
+        double[] sortedAsks = new double[dates.length];
+        int count = 0;
+        for (long entry : order) {
+            int date = (int) (entry >> 32);
+            int input = (int) entry;
+            if (count > 0 && sortedDates[count - 1] == date) {
+                count--;
+            }
+            sortedDates[count] = date;
+            sortedBids[count] = bidRates[input];
+            sortedAsks[count] = askRates[input];
+            count++;
+        }
+        return new Pillars(Arrays.copyOf(sortedDates, count), Arrays.copyOf(sortedBids, count), Arrays.copyOf(sortedAsks, count));
+    }
+
+    /*Copy-on-write update: returns a new curve, one version later, with the bid and ask rates of the pillar on epochDay replaced
+     * (or a new pillar inserted if the date is not on the curve yet). This curve is left unchanged, so readers of it are never disturbed */
+    YieldCurve withPillar(int epochDay, double bidRate, double askRate) {
+        int index = Arrays.binarySearch(dates, epochDay);
+        int[] newDates;
+        double[] newBids;
+        double[] newAsks;
+        if (index >= 0) {
+            newDates = dates;
+            newBids = bidRates.clone();
+            newAsks = askRates.clone();
+        } else {
+            index = -index - 1;
+            newDates = insert(dates, index, epochDay);
+            newBids = insert(bidRates, index, 0.0);
+            newAsks = insert(askRates, index, 0.0);
+        }
+        newBids[index] = bidRate;
+        newAsks[index] = askRate;
+        return new YieldCurve(newDates, newBids, newAsks, interpolation, version + 1);
+    }
+
+    private static int[] insert(int[] values, int index, int value) {
+        int[] copy = new int[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, index);
+        copy[index] = value;
+        System.arraycopy(values, index, copy, index + 1, values.length - index);
+        return copy;
+    }
+
+    private static double[] insert(double[] values, int index, double value) {
+        double[] copy = new double[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, index);
+        copy[index] = value;
+        System.arraycopy(values, index, copy, index + 1, values.length - index);
+        return copy;
+    }
+
+    //Version of the curve - 0 when constructed, and one higher for every copy-on-write update that produced it
+    public long getVersion() {
+        return version;
+    }
+
+    public Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    //Sorted pillar dates and the bid and ask rates at the same index - shared arrays, callers must not modify them
+    int[] pillarDates() {
+        return dates;
     }
-    //getRate method for the given date and requested rate type
+
+    double[] pillarBidRates() {
+        return bidRates;
+    }
+
+    double[] pillarAskRates() {
+        return askRates;
+    }
+
+    //getRate method for the given date and requested rate type (bid, ask or mid)
     public double getRate(LocalDate date, String rateType) {
+        return getRate((int) date.toEpochDay(), RateSide.fromString(rateType));
+    }
 
-        //If the exact date is within the map, return the given rate directly
-        if (rates.containsKey(date)) {
-            return getRateByType(rates.get(date), rateType);
+    //getRate method for a date given as an epoch day (LocalDate.toEpochDay()) and the requested rate type
+    public double getRate(int epochDay, String rateType) {
+        return getRate(epochDay, RateSide.fromString(rateType));
+    }
+
+    //getRate method for the given date and side of the curve
+    public double getRate(LocalDate date, RateSide side) {
+        return getRate((int) date.toEpochDay(), side);
+    }
+
+    //getRate method for a date given as an epoch day and the side of the curve
+    //With metrics on, each call is timed and counted in CurveMetrics - with metrics off the check is a constant and costs nothing
+    public double getRate(int epochDay, RateSide side) {
+        if (!CurveMetrics.ENABLED) {
+            return lookup(epochDay, side);
         }
-        //If the date input is not an exact date within the map, gets the entries of nearest date before and after the input date
-        Map.Entry<LocalDate, Rate> lowerEntry = rates.lowerEntry(date);
-        Map.Entry<LocalDate, Rate> higherEntry = rates.higherEntry(date);
+        long start = System.nanoTime();
+        try {
+            return lookup(epochDay, side);
+        } finally {
+            CurveMetrics.shared().lookup(System.nanoTime() - start);
+        }
+    }
+
+    private double lookup(int epochDay, RateSide side) {
+        double[] rates = ratesFor(side);
+        //A single binary search finds either the exact pillar or the position of the next pillar after the date
+        int index = Arrays.binarySearch(dates, epochDay);
+        //If the exact date is on the curve, return the given rate directly
+        if (index >= 0) {
+            if (CurveMetrics.ENABLED) {
+                CurveMetrics.shared().exactHit();
+            }
+            return rates[index];
+        }
+        int higher = -index - 1;
         //Throws an error if the date is before the first date in the curve
-        if (lowerEntry == null) {
+        if (higher == 0) {
+            if (CurveMetrics.ENABLED) {
+                CurveMetrics.shared().outOfRange();
+            }
             throw new IllegalArgumentException("Date is before the first available date.");
         }
-        //If the input date is after the dates within the yield curve, retrieve the lastRate
-        if (higherEntry == null) {
-            Rate lastRate = rates.lastEntry().getValue();
-            return getRateByType(lastRate, rateType);
+        //If the input date is after the dates within the yield curve, retrieve the last rate
+        if (higher == dates.length) {
+            if (CurveMetrics.ENABLED) {
+                CurveMetrics.shared().extrapolation();
+            }
+            return rates[dates.length - 1];
         }
-
-        LocalDate lowerDate = lowerEntry.getKey();
-        LocalDate higherDate = higherEntry.getKey();
-        Rate lowerRate = lowerEntry.getValue();
-        Rate higherRate = higherEntry.getValue();
-        //Interpolates the rate between the lower and higher entries and returns it.
-        return interpolate(date, lowerDate, higherDate, lowerRate, higherRate, rateType);
-    }
-
-    //Helper method to get the rate value based on the rate type (bid, ask, or mid).
-    private double getRateByType(Rate rate, String rateType) {
-        return switch (rateType.toLowerCase()) {
-            case "bid" -> rate.bidRate;
-            case "ask" -> rate.askRate;
-            case "mid" -> (rate.bidRate + rate.askRate) / 2;
-            default -> throw new IllegalArgumentException("Rate type must be 'bid', 'ask', or 'mid'.");
-        };
+        //Interpolates the rate between the nearest pillars before and after the date and returns it.
+        if (CurveMetrics.ENABLED) {
+            CurveMetrics.shared().interpolation();
+        }
+        return interpolatorFor(side).interpolate(higher - 1, epochDay);
     }
 
-    //Helper method to perform linear interpolation between two dates and rates.
-    private double interpolate(LocalDate date, LocalDate lowerDate, LocalDate higherDate, Rate lowerRate, Rate higherRate, String rateType) {
-        long totalDays = ChronoUnit.DAYS.between(lowerDate, higherDate); //calculates the total number of days between lower date and the higher date
-        long daysToTarget = ChronoUnit.DAYS.between(lowerDate, date);
-        double lowerRateValue = getRateByType(lowerRate, rateType);
-        double higherRateValue = getRateByType(higherRate, rateType);
-
-        //Calculation for linear interpolation: Rate = Rate(Lower date) + [(Input date - Lower date) x (higher rate - lower rate)/(sum of days between lower and higher date)]
-        return lowerRateValue + (daysToTarget * (higherRateValue - lowerRateValue) / totalDays);
+    /*Bulk lookup of the rate of every date in epochDays (sorted ascending epoch days) for the side of the curve, written into out at the same index
+     * Because the dates are sorted, one linear sweep moves through the query dates and the curve pillars together (like a merge),
+     * so n dates against m pillars cost O(n + m) with no per-date search or allocation.
+     * Each result is the same as getRate(epochDays[i], side) */
+    public void getRates(int[] epochDays, RateSide side, double[] out) {
+        if (out.length < epochDays.length) {
+            throw new IllegalArgumentException("The output array must be at least as long as the dates array.");
+        }
+        double[] rates = ratesFor(side);
+        CurveInterpolator interpolator = interpolatorFor(side);
+        int lastPillar = dates.length - 1;
+        //Index of the first pillar on or after the current date, it only ever moves forward
+        int pillar = 0;
+        int previousDate = Integer.MIN_VALUE;
+        for (int i = 0; i < epochDays.length; i++) {
+            int date = epochDays[i];
+            if (date < previousDate) {
+                throw new IllegalArgumentException("Dates must be sorted in ascending order.");
+            }
+            previousDate = date;
+            while (pillar <= lastPillar && dates[pillar] < date) {
+                pillar++;
+            }
+            if (pillar <= lastPillar && dates[pillar] == date) {
+                out[i] = rates[pillar];
+                if (CurveMetrics.ENABLED) {
+                    CurveMetrics.shared().exactHit();
+                }
+            } else if (pillar == 0) {
+                if (CurveMetrics.ENABLED) {
+                    CurveMetrics.shared().outOfRange();
+                }
+                throw new IllegalArgumentException("Date is before the first available date.");
+            } else if (pillar > lastPillar) {
+                out[i] = rates[lastPillar];
+                if (CurveMetrics.ENABLED) {
+                    CurveMetrics.shared().extrapolation();
+                }
+            } else {
+                out[i] = interpolator.interpolate(pillar - 1, date);
+                if (CurveMetrics.ENABLED) {
+                    CurveMetrics.shared().interpolation();
+                }
+            }
+        }
+    }
 
+    //Helper method to get the rates of every pillar for the side of the curve (bid, ask, or mid).
+    private double[] ratesFor(RateSide side) {
+        return switch (side) {
+            case BID -> bidRates;
+            case ASK -> askRates;
+            case MID -> midRates;
+        };
     }
 
-    //Defines a nested static class Rate,
-    private static class Rate {
-        final double bidRate;
-        final double askRate;
+    //Helper method to get the interpolator for the side of the curve.
+    private CurveInterpolator interpolatorFor(RateSide side) {
+        return switch (side) {
+            case BID -> bidInterpolator;
+            case ASK -> askInterpolator;
+            case MID -> midInterpolator;
+        };
+    }
 
-        Rate(double bidRate, double askRate) {
-            this.bidRate = bidRate;
-            this.askRate = askRate;
-        }
+    private record Pillars(int[] dates, double[] bidRates, double[] askRates) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+//Fixed-layout binary encoding of a yield curve's pillars, for moving curves between processes or to disk without date strings
+//A message starts at the buffer's position with a HEADER_SIZE byte header (magic number, interpolation scheme, pillar count,
+//reserved) followed by the pillars in the same layout as a YieldCurveHistory record: the pillar dates as int epoch days, padding to
+//an 8-byte boundary, then the bid rates and the ask rates as IEEE doubles. The scheme is stored as its Interpolation code.
+//Pillars are read and written at absolute offsets, so one pillar can be read in place (pillarDate(message, i), bidRate(message, i))
+//and decode builds the curve straight from the buffer without parsing a date. Everything is read and written little-endian through
+//VarHandle views, whatever the byte order of the buffers passed in, and that byte order is left as it was.
+public final class YieldCurveWireFormat {
+    public static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x59435746; //"YCWF"
+    private static final int SCHEME_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+    //Little-endian views of any ByteBuffer at a byte offset, independent of (and not changing) the buffer's own byte order
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle DOUBLE = MethodHandles.byteBufferViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private YieldCurveWireFormat() {
+    }
+
+    //Bytes of a message with the given number of pillars, header included
+    public static int size(int pillars) {
+        if (pillars < 0 || pillars > (Integer.MAX_VALUE - HEADER_SIZE - 8) / (Integer.BYTES + 2 * Double.BYTES)) {
+            throw new IllegalArgumentException("Pillar count " + pillars + " is out of range.");
+        }
+        return HEADER_SIZE + bidOffset(pillars) + 2 * pillars * Double.BYTES;
+    }
+
+    //Writes the curve as one message at out's position and moves the position past it
+    public static void encode(YieldCurve curve, ByteBuffer out) {
+        int[] dates = curve.pillarDates();
+        double[] bidRates = curve.pillarBidRates();
+        double[] askRates = curve.pillarAskRates();
+        int pillars = dates.length;
+        int size = size(pillars);
+        if (out.remaining() < size) {
+            throw new IllegalArgumentException("The buffer has " + out.remaining() + " bytes left but the curve needs " + size + ".");
+        }
+        int start = out.position();
+        putInt(out, start, MAGIC);
+        putInt(out, start + SCHEME_OFFSET, curve.getInterpolation().code());
+        putInt(out, start + COUNT_OFFSET, pillars);
+        putInt(out, start + 12, 0);
+        int body = start + HEADER_SIZE;
+        for (int i = 0; i < pillars; i++) {
+            putInt(out, body + i * Integer.BYTES, dates[i]);
+        }
+        //The padding is zeroed, so the same curve always encodes to the same bytes
+        for (int i = body + pillars * Integer.BYTES; i < body + bidOffset(pillars); i++) {
+            out.put(i, (byte) 0);
+        }
+        int bids = body + bidOffset(pillars);
+        for (int i = 0; i < pillars; i++) {
+            putDouble(out, bids + i * Double.BYTES, bidRates[i]);
+            putDouble(out, bids + (pillars + i) * Double.BYTES, askRates[i]);
+        }
+        out.position(start + size);
+    }
+
+    //Builds the curve of the message at in's position and moves the position past it
+    //The pillar dates must be strictly ascending, as every encoded curve's are
+    public static YieldCurve decode(ByteBuffer in) {
+        int pillars = pillarCount(in);
+        Interpolation interpolation = getInterpolation(in);
+        int[] dates = new int[pillars];
+        double[] bidRates = new double[pillars];
+        double[] askRates = new double[pillars];
+        for (int i = 0; i < pillars; i++) {
+            dates[i] = pillarDate(in, i);
+            if (i > 0 && dates[i] <= dates[i - 1]) {
+                throw new IllegalArgumentException("Pillar dates of the curve message are not in ascending order.");
+            }
+            bidRates[i] = bidRate(in, i);
+            askRates[i] = askRate(in, i);
+        }
+        in.position(in.position() + size(pillars));
+        return new YieldCurve(dates, bidRates, askRates, interpolation, 0);
+    }
+
+    //Number of pillars of the message at message's position, checking that all of it is there
+    public static int pillarCount(ByteBuffer message) {
+        int start = message.position();
+        if (message.remaining() < HEADER_SIZE || getInt(message, start) != MAGIC) {
+            throw new IllegalArgumentException("The buffer does not hold a curve message at position " + start + ".");
+        }
+        int pillars = getInt(message, start + COUNT_OFFSET);
+        if (pillars < 0 || pillars > (Integer.MAX_VALUE - HEADER_SIZE - 8) / (Integer.BYTES + 2 * Double.BYTES)
+                || message.remaining() < size(pillars)) {
+            throw new IllegalArgumentException("The curve message at position " + start + " is truncated or corrupt.");
+        }
+        return pillars;
+    }
+
+    public static Interpolation getInterpolation(ByteBuffer message) {
+        int scheme = getInt(message, message.position() + SCHEME_OFFSET);
+        Interpolation interpolation = Interpolation.fromCode(scheme);
+        if (interpolation == null) {
+            throw new IllegalArgumentException("Unknown interpolation scheme " + scheme + " in the curve message.");
+        }
+        return interpolation;
+    }
+
+    //Pillar i of the message at message's position, read in place once pillarCount has checked the message
+    public static int pillarDate(ByteBuffer message, int pillar) {
+        return getInt(message, message.position() + HEADER_SIZE + pillar * Integer.BYTES);
+    }
+
+    public static double bidRate(ByteBuffer message, int pillar) {
+        return getDouble(message, bids(message) + pillar * Double.BYTES);
+    }
+
+    public static double askRate(ByteBuffer message, int pillar) {
+        return getDouble(message, bids(message) + (getInt(message, message.position() + COUNT_OFFSET) + pillar) * Double.BYTES);
+    }
+
+    private static int bids(ByteBuffer message) {
+        return message.position() + HEADER_SIZE + bidOffset(getInt(message, message.position() + COUNT_OFFSET));
+    }
+
+    private static int getInt(ByteBuffer buffer, int offset) {
+        return (int) INT.get(buffer, offset);
+    }
+
+    private static double getDouble(ByteBuffer buffer, int offset) {
+        return (double) DOUBLE.get(buffer, offset);
+    }
+
+    private static void putInt(ByteBuffer buffer, int offset, int value) {
+        INT.set(buffer, offset, value);
+    }
+
+    private static void putDouble(ByteBuffer buffer, int offset, double value) {
+        DOUBLE.set(buffer, offset, value);
+    }
+
+    //Pillar dates take pillars ints, padded to 8 bytes so the rates that follow are aligned
+    private static int bidOffset(int pillars) {
+        return (pillars * Integer.BYTES + 7) & ~7;
+    }
+}